@@ -0,0 +1,281 @@
+package dev.joseafmoreira.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.joseafmoreira.project.Project;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Benchmarks of every {@code IProject} operation on {@link Project}. <p>
+ *
+ * The read benchmarks run against one loaded project and measure a single operation.
+ * The write benchmarks ({@code add}, {@code remove} and {@code removeOldVersions}) need a
+ * fresh project for each invocation and measure the whole load or drain of a project,
+ * so their scores should be divided by {@code size} to get the cost of one operation.
+ * Every project is loaded with its own copies of the documents, since a project registers
+ * itself as a listener of the documents it holds. The allocation reported for the write
+ * benchmarks includes loading their fresh project or documents. <p>
+ *
+ * Another backend is benchmarked by changing {@link #newProject()}.
+ *
+ * <h3>ProjectBenchmark</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see Workload
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProjectBenchmark {
+    /**
+     * The number of documents of the project
+     */
+    @Param({"1000", "100000"})
+    public int size;
+    /**
+     * The number of versions of each document id
+     */
+    @Param({"1", "4"})
+    public int versionsPerId;
+    /**
+     * The distribution of the document types
+     */
+    @Param({"UNIFORM", "SKEWED"})
+    public Workload.TypeDistribution typeDistribution;
+    /**
+     * The documents in random order, used for lookups and removals
+     */
+    private IDocument[] probes;
+    /**
+     * The loaded project
+     */
+    private IProject project;
+    /**
+     * A project equal to the loaded project
+     */
+    private IProject equalProject;
+    /**
+     * The position of the next probe
+     */
+    private int cursor;
+
+    /**
+     * Generates the documents and loads the projects.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        probes = Workload.shuffled(documents());
+        project = load();
+        equalProject = load();
+    }
+
+    /**
+     * Creates an empty project of the benchmarked backend.
+     *
+     * @return the empty project
+     */
+    protected IProject newProject() {
+        return new Project();
+    }
+
+    /**
+     * Benchmarks adding every document to an empty project.
+     *
+     * @param fresh the documents to add
+     * @return the loaded project
+     */
+    @Benchmark
+    public IProject add(FreshDocuments fresh) {
+        return load(fresh.documents);
+    }
+
+    /**
+     * Benchmarks getting the latest version of a document.
+     *
+     * @return the document
+     */
+    @Benchmark
+    public IDocument get() {
+        return project.get(nextProbe().getId());
+    }
+
+    /**
+     * Benchmarks checking if a document is on the project.
+     *
+     * @return true if the document is on the project
+     */
+    @Benchmark
+    public boolean contains() {
+        return project.contains(nextProbe());
+    }
+
+    /**
+     * Benchmarks getting the documents of a type.
+     *
+     * @return the documents of the type
+     */
+    @Benchmark
+    public IDocument[] getDocumentsByType() {
+        DocumentType type = nextProbe().getType();
+
+        return project.getDocumentsByType(type);
+    }
+
+    /**
+     * Benchmarks copying the project documents to an array.
+     *
+     * @return the documents
+     */
+    @Benchmark
+    public IDocument[] toArray() {
+        return project.toArray();
+    }
+
+    /**
+     * Benchmarks the hash code of the project.
+     *
+     * @return the hash code
+     */
+    @Benchmark
+    public int hashCodeOfProject() {
+        return project.hashCode();
+    }
+
+    /**
+     * Benchmarks comparing the project with an equal project.
+     *
+     * @return true if the projects are equal
+     */
+    @Benchmark
+    public boolean equalsOfProject() {
+        return project.equals(equalProject);
+    }
+
+    /**
+     * Benchmarks removing every document from a project, in random order.
+     *
+     * @param fresh the project to drain
+     * @param blackhole the sink of the drained project
+     */
+    @Benchmark
+    public void remove(FreshProject fresh, Blackhole blackhole) {
+        for (IDocument document : probes) fresh.project.remove(document);
+        blackhole.consume(fresh.project);
+    }
+
+    /**
+     * Benchmarks removing the old versions of a project.
+     *
+     * @param fresh the project to prune
+     * @return the number of removed versions
+     */
+    @Benchmark
+    public int removeOldVersions(FreshProject fresh) {
+        return fresh.project.removeOldVersions();
+    }
+
+    /**
+     * Returns the next document in random order.
+     *
+     * @return the document
+     */
+    private IDocument nextProbe() {
+        IDocument probe = probes[cursor];
+        cursor = (cursor + 1 == probes.length) ? 0 : cursor + 1;
+
+        return probe;
+    }
+
+    /**
+     * Generates new copies of the documents, in the order they are added.
+     *
+     * @return the documents
+     */
+    private IDocument[] documents() {
+        return Workload.documents(size, versionsPerId, typeDistribution);
+    }
+
+    /**
+     * Creates a project with new copies of every document.
+     *
+     * @return the project
+     */
+    private IProject load() {
+        return load(documents());
+    }
+
+    /**
+     * Creates a project with the specified documents.
+     *
+     * @param documents the documents
+     * @return the project
+     */
+    private IProject load(IDocument[] documents) {
+        IProject result = newProject();
+        for (IDocument document : documents) result.add(document);
+
+        return result;
+    }
+
+    /**
+     * New copies of the documents generated before each invocation of {@link ProjectBenchmark#add(FreshDocuments)}.
+     */
+    @State(Scope.Thread)
+    public static class FreshDocuments {
+        /**
+         * The documents
+         */
+        private IDocument[] documents;
+
+        /**
+         * Generates the documents.
+         *
+         * @param benchmark the benchmark with the workload parameters
+         */
+        @Setup(Level.Invocation)
+        public void setUp(ProjectBenchmark benchmark) {
+            documents = benchmark.documents();
+        }
+    }
+
+    /**
+     * A project loaded again before each invocation of the write benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class FreshProject {
+        /**
+         * The loaded project
+         */
+        private IProject project;
+
+        /**
+         * Loads the project.
+         *
+         * @param benchmark the benchmark with the documents to load
+         */
+        @Setup(Level.Invocation)
+        public void setUp(ProjectBenchmark benchmark) {
+            project = benchmark.load();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dev.joseafmoreira.benchmarks;
+
+import java.util.Random;
+
+import dev.joseafmoreira.document.Document;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Generator of the documents loaded by the benchmarks. <p>
+ *
+ * The documents are generated from a fixed seed, so every run and every backend see the same
+ * documents in the same order. The versions of an id are added in ascending order, spread over
+ * the whole sequence like in a project that keeps receiving new versions.
+ *
+ * <h3>Workload</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public final class Workload {
+    /**
+     * The seed of the generated documents
+     */
+    private static final long SEED = 42;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+
+    /**
+     * The distribution of the document types.
+     */
+    public enum TypeDistribution {
+        /**
+         * Every type is equally likely
+         */
+        UNIFORM,
+        /**
+         * 80% of the documents have the first type, 15% the second and 5% the third
+         */
+        SKEWED,
+        /**
+         * Every document has the first type
+         */
+        SINGLE
+    }
+
+    /**
+     * Workload isn't instantiable.
+     */
+    private Workload() {
+    }
+
+    /**
+     * Generates the documents of a project.
+     *
+     * @param size the number of documents
+     * @param versionsPerId the number of versions of each id
+     * @param distribution the distribution of the document types
+     * @return the documents, in the order they should be added
+     */
+    public static IDocument[] documents(int size, int versionsPerId, TypeDistribution distribution) {
+        Random random = new Random(SEED);
+        int ids = Math.max(1, size / versionsPerId);
+        IDocument[] documents = new IDocument[size];
+        for (int i = 0; i < size; i++) {
+            int id = (i % ids) + 1, version = (i / ids) + 1;
+            documents[i] = new Document(id, "Document " + id, version, "document" + id, type(random, distribution),
+                    1 + random.nextInt(2), "pdf");
+        }
+
+        return documents;
+    }
+
+    /**
+     * Returns a random permutation of the specified documents.
+     *
+     * @param documents the documents
+     * @return the shuffled copy of the documents
+     */
+    public static IDocument[] shuffled(IDocument[] documents) {
+        Random random = new Random(SEED + 1);
+        IDocument[] result = documents.clone();
+        for (int i = result.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            IDocument document = result[i];
+            result[i] = result[j];
+            result[j] = document;
+        }
+
+        return result;
+    }
+
+    /**
+     * Picks a document type following a distribution.
+     *
+     * @param random the source of randomness
+     * @param distribution the distribution
+     * @return the document type
+     */
+    private static DocumentType type(Random random, TypeDistribution distribution) {
+        switch (distribution) {
+            case UNIFORM:
+                return TYPES[random.nextInt(TYPES.length)];
+            case SKEWED:
+                int roll = random.nextInt(100);
+                return TYPES[(roll < 80) ? 0 : (roll < 95) ? 1 : 2];
+            default:
+                return TYPES[0];
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package dev.joseafmoreira.cache;
+
+/**
+ * Snapshot of the statistics of a {@link DocumentCache}. <p>
+ *
+ * A snapshot doesn't change after it's taken, and {@link #toString()} exports it as text,
+ * one statistic per line. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #getHits()}: Returns the number of reads that found a document</li>
+ *  <li>{@link #getMisses()}: Returns the number of reads that found no document</li>
+ *  <li>{@link #getRequests()}: Returns the number of reads</li>
+ *  <li>{@link #getHitRate()}: Returns the share of the reads that found a document</li>
+ *  <li>{@link #getEvictions()}: Returns the number of evicted documents</li>
+ *  <li>{@link #getInvalidations()}: Returns the number of invalidated documents</li>
+ *  <li>{@link #getSize()}: Returns the number of cached documents</li>
+ *  <li>{@link #getWeight()}: Returns the weight of the cached documents</li>
+ *  <li>{@link #getMaximumWeight()}: Returns the maximum weight of the cache</li>
+ * </ul>
+ *
+ * <h3>CacheStats</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see DocumentCache#stats()
+ */
+public class CacheStats {
+    /**
+     * The number of reads that found a document
+     */
+    private final long hits;
+    /**
+     * The number of reads that found no document
+     */
+    private final long misses;
+    /**
+     * The number of documents evicted to respect the maximum weight
+     */
+    private final long evictions;
+    /**
+     * The number of documents removed by invalidations
+     */
+    private final long invalidations;
+    /**
+     * The number of cached documents
+     */
+    private final int size;
+    /**
+     * The weight of the cached documents
+     */
+    private final long weight;
+    /**
+     * The maximum weight of the cache
+     */
+    private final long maximumWeight;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param hits the number of reads that found a document
+     * @param misses the number of reads that found no document
+     * @param evictions the number of evicted documents
+     * @param invalidations the number of invalidated documents
+     * @param size the number of cached documents
+     * @param weight the weight of the cached documents
+     * @param maximumWeight the maximum weight of the cache
+     */
+    CacheStats(long hits, long misses, long evictions, long invalidations, int size, long weight, long maximumWeight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.weight = weight;
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns the number of reads that found a document.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads that found no document.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of reads.
+     *
+     * @return the number of hits and misses
+     */
+    public long getRequests() {
+        return hits + misses;
+    }
+
+    /**
+     * Returns the share of the reads that found a document.
+     *
+     * @return the hit rate, between 0 and 1 (0 if there were no reads)
+     */
+    public double getHitRate() {
+        return (getRequests() == 0) ? 0 : (double) hits / getRequests();
+    }
+
+    /**
+     * Returns the number of documents evicted to respect the maximum weight.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of documents removed by invalidations.
+     *
+     * @return the number of invalidations
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the number of cached documents.
+     *
+     * @return the number of documents
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the weight of the cached documents.
+     *
+     * @return the weight
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the maximum weight of the cache.
+     *
+     * @return the maximum weight
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "hits=" + hits + "\nmisses=" + misses + "\nhitRate=" + Math.round(getHitRate() * 10000) / 100.0 + "%"
+                + "\nevictions=" + evictions + "\ninvalidations=" + invalidations
+                + "\nsize=" + size + "\nweight=" + weight + "/" + maximumWeight;
+    }
+}
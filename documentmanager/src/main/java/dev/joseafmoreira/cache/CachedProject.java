@@ -0,0 +1,342 @@
+package dev.joseafmoreira.cache;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.ToIntFunction;
+
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Implementation of the {@code IProject} interface that caches the reads by id of another project. <p>
+ *
+ * {@link #get(int)} reads through a {@link DocumentCache}: a cached id is answered without reaching
+ * the wrapped project, and a missing id is read from it and cached. The cache is bounded by the
+ * number of documents or by their total weight and evicts with a segmented LRU policy, which keeps
+ * a small set of hot ids cached while the others come and go. The other operations are delegated. <p>
+ *
+ * The cache is kept consistent by the writes made through this project: adding or removing a
+ * document invalidates its id and {@link #clear()} invalidates every id. {@link #removeOldVersions()}
+ * keeps the cache, since it doesn't change the latest versions. The wrapped project must not be
+ * changed directly while it's wrapped. <p>
+ *
+ * The cache is guarded by a lock held only while it's used, never while the wrapped project is
+ * read, so this project is as thread-safe as the wrapped one. A document read while a write runs
+ * isn't cached, so a read racing with a write can't cache a superseded version. <p>
+ *
+ * The available operations, besides those of {@code IProject}, are the following: <p>
+ * <ul>
+ *  <li>{@link #getStats()}: Returns the statistics of the cache</li>
+ *  <li>{@link #resetStats()}: Starts the statistics of the cache over</li>
+ *  <li>{@link #invalidateAll()}: Removes every document from the cache</li>
+ *  <li>{@link #getProject()}: Returns the wrapped project</li>
+ * </ul>
+ *
+ * <h3>CachedProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see DocumentCache
+ */
+public class CachedProject implements ManagedProject {
+    /**
+     * The wrapped project
+     */
+    private final ManagedProject project;
+    /**
+     * The cache of the latest versions by id, also used as the lock of the cache
+     */
+    private final DocumentCache cache;
+    /**
+     * The number of writes that invalidated the cache, used to discard the reads racing with them
+     */
+    private long writes;
+
+    /**
+     * Constructs a CachedProject caching up to the specified number of documents of a project.
+     *
+     * @param project the wrapped project
+     * @param maximumSize the maximum number of cached documents (Minimum value is 0)
+     * @throws NullPointerException if the project is null
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public CachedProject(ManagedProject project, int maximumSize) throws NullPointerException, IllegalArgumentException {
+        this(project, maximumSize, document -> 1);
+    }
+
+    /**
+     * Constructs a CachedProject caching the documents of a project up to the specified total weight.
+     *
+     * @param project the wrapped project
+     * @param maximumWeight the maximum weight of the cached documents (Minimum value is 0)
+     * @param weigher the function computing the weight of a document (e.g. its file size)
+     * @throws NullPointerException if the project or the weigher is null
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public CachedProject(ManagedProject project, long maximumWeight, ToIntFunction<IDocument> weigher) throws NullPointerException, IllegalArgumentException {
+        if (project == null) throw new NullPointerException("Project is null");
+
+        this.project = project;
+        cache = new DocumentCache(maximumWeight, weigher);
+        writes = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        project.add(document);
+        invalidate(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult addAll(IDocument[] documents) throws NullPointerException {
+        BatchResult result = project.addAll(documents);
+        invalidate(documents);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cache is kept, since the latest versions stay.
+     */
+    @Override
+    public int removeOldVersions() {
+        return project.removeOldVersions();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        project.remove(document);
+        invalidate(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult removeAll(IDocument[] documents) throws NullPointerException {
+        BatchResult result = project.removeAll(documents);
+        invalidate(documents);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Reads the wrapped project only if the id isn't cached.
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        long writesBefore;
+        synchronized (cache) {
+            IDocument document = cache.get(id);
+            if (document != null) return document;
+
+            writesBefore = writes;
+        }
+
+        IDocument document = project.get(id);
+        synchronized (cache) {
+            if (writes == writesBefore) cache.put(id, document);
+        }
+
+        return document;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the type is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        return project.getDocumentsByType(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        return project.toArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return project.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the query is null
+     */
+    @Override
+    public IDocument[] search(String query) throws NullPointerException {
+        return project.search(query);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        return project.contains(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return project.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return project.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        project.clear();
+        invalidateAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return project.getChangeFeed();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    public CacheStats getStats() {
+        synchronized (cache) {
+            return cache.stats();
+        }
+    }
+
+    /**
+     * Starts the statistics of the cache over, keeping the cached documents.
+     */
+    public void resetStats() {
+        synchronized (cache) {
+            cache.resetStats();
+        }
+    }
+
+    /**
+     * Removes every document from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            writes++;
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the wrapped project.
+     *
+     * @return the wrapped project
+     */
+    public ManagedProject getProject() {
+        return project;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return project.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        return project.equals(((CachedProject) obj).project);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return project.toString();
+    }
+
+    /**
+     * Removes the id of a written document from the cache.
+     *
+     * @param document the document
+     */
+    private void invalidate(IDocument document) {
+        synchronized (cache) {
+            writes++;
+            cache.invalidate(document.getId());
+        }
+    }
+
+    /**
+     * Removes the ids of a batch of written documents from the cache.
+     *
+     * @param documents the documents (the null ones are skipped)
+     */
+    private void invalidate(IDocument[] documents) {
+        synchronized (cache) {
+            writes++;
+            for (IDocument document : documents) if (document != null) cache.invalidate(document.getId());
+        }
+    }
+}
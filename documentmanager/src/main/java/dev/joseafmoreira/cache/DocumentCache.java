@@ -0,0 +1,378 @@
+package dev.joseafmoreira.cache;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+import dev.joseafmoreira.util.IntIntHashMap;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Weight-bounded cache of documents by id, evicting with a segmented LRU policy. <p>
+ *
+ * The entries are split in two LRU lists. A new entry enters the probation segment and is
+ * promoted to the protected segment on its first hit, so the ids read once can't push out
+ * the hot ones. The protected segment holds up to {@link #PROTECTED_PERCENT}% of the maximum
+ * weight: past that, its least recently used entries are demoted back to probation. When the
+ * cache is over its maximum weight, the least recently used entries of probation are evicted
+ * first. <p>
+ *
+ * The ids are mapped to nodes by an {@link IntIntHashMap} and the nodes are kept in parallel
+ * arrays linked by index, so the entries cost no object of their own. This cache isn't
+ * thread-safe. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #get(int)}: Returns the cached document of an id</li>
+ *  <li>{@link #put(int, IDocument)}: Caches the document of an id</li>
+ *  <li>{@link #invalidate(int)}: Removes the document of an id from this cache</li>
+ *  <li>{@link #invalidateAll()}: Removes every document from this cache</li>
+ *  <li>{@link #size()}: Returns the number of cached documents</li>
+ *  <li>{@link #weight()}: Returns the weight of the cached documents</li>
+ *  <li>{@link #getMaximumWeight()}: Returns the maximum weight of this cache</li>
+ *  <li>{@link #stats()}: Returns the statistics of this cache</li>
+ *  <li>{@link #resetStats()}: Starts the statistics over</li>
+ * </ul>
+ *
+ * <h3>DocumentCache</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see CachedProject
+ */
+public class DocumentCache {
+    /**
+     * The share of the maximum weight held by the protected segment, in percent
+     */
+    public static final int PROTECTED_PERCENT = 80;
+    /**
+     * The initial number of nodes
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * The index marking the end of a list
+     */
+    private static final int NIL = -1;
+    /**
+     * The segment of the entries read once
+     */
+    private static final int PROBATION = 0;
+    /**
+     * The segment of the entries read more than once
+     */
+    private static final int PROTECTED = 1;
+    /**
+     * The maximum weight of the cached documents
+     */
+    private final long maximumWeight;
+    /**
+     * The maximum weight of the protected segment
+     */
+    private final long maximumProtectedWeight;
+    /**
+     * The function computing the weight of a document
+     */
+    private final ToIntFunction<IDocument> weigher;
+    /**
+     * The index mapping each cached id to its node
+     */
+    private final IntIntHashMap nodes;
+    /**
+     * The id of each node
+     */
+    private int[] ids;
+    /**
+     * The document of each node (null if the node is free)
+     */
+    private IDocument[] documents;
+    /**
+     * The weight of each node
+     */
+    private int[] weights;
+    /**
+     * The segment of each node
+     */
+    private byte[] segments;
+    /**
+     * The more recently used node of the same segment of each node (the next free node for the free nodes)
+     */
+    private int[] newer;
+    /**
+     * The less recently used node of the same segment of each node
+     */
+    private int[] older;
+    /**
+     * The most recently used node of each segment, indexed by segment
+     */
+    private final int[] heads;
+    /**
+     * The least recently used node of each segment, indexed by segment
+     */
+    private final int[] tails;
+    /**
+     * The weight of each segment, indexed by segment
+     */
+    private final long[] segmentWeights;
+    /**
+     * The first free node below the used nodes
+     */
+    private int freeNode;
+    /**
+     * The number of nodes ever used
+     */
+    private int usedNodes;
+    /**
+     * The number of reads that found a document
+     */
+    private long hits;
+    /**
+     * The number of reads that found no document
+     */
+    private long misses;
+    /**
+     * The number of documents evicted to respect the maximum weight
+     */
+    private long evictions;
+    /**
+     * The number of documents removed by invalidations
+     */
+    private long invalidations;
+
+    /**
+     * Constructs an empty DocumentCache.
+     *
+     * @param maximumWeight the maximum weight of the cached documents
+     * @param weigher the function computing the weight of a document
+     * @throws IllegalArgumentException if the maximum weight is negative
+     * @throws NullPointerException if the weigher is null
+     */
+    public DocumentCache(long maximumWeight, ToIntFunction<IDocument> weigher) throws IllegalArgumentException, NullPointerException {
+        if (maximumWeight < 0) throw new IllegalArgumentException("Maximum weight is negative");
+        if (weigher == null) throw new NullPointerException("Weigher is null");
+
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = maximumWeight * PROTECTED_PERCENT / 100;
+        this.weigher = weigher;
+        int capacity = (int) Math.min(maximumWeight, DEFAULT_CAPACITY);
+        nodes = new IntIntHashMap(capacity);
+        ids = new int[capacity];
+        documents = new IDocument[capacity];
+        weights = new int[capacity];
+        segments = new byte[capacity];
+        newer = new int[capacity];
+        older = new int[capacity];
+        heads = new int[] { NIL, NIL };
+        tails = new int[] { NIL, NIL };
+        segmentWeights = new long[2];
+        freeNode = NIL;
+        usedNodes = 0;
+    }
+
+    /**
+     * Returns the cached document of the specified id, marking it as recently used.
+     *
+     * @param id the id
+     * @return the document or null if the id isn't cached
+     */
+    public IDocument get(int id) {
+        int node = nodes.get(id);
+        if (node == IntIntHashMap.NO_VALUE) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        unlink(node);
+        link(node, PROTECTED);
+        // Keeps the protected segment within its share, the demoted entries get another chance in probation
+        while (segmentWeights[PROTECTED] > maximumProtectedWeight && tails[PROTECTED] != node) {
+            int demoted = tails[PROTECTED];
+            unlink(demoted);
+            link(demoted, PROBATION);
+        }
+
+        return documents[node];
+    }
+
+    /**
+     * Caches the document of the specified id, replacing the cached one, and evicts the least
+     * recently used documents while this cache is over its maximum weight. A document heavier
+     * than the maximum weight isn't cached.
+     *
+     * @param id the id
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws IllegalArgumentException if the weight of the document is negative
+     */
+    public void put(int id, IDocument document) throws NullPointerException, IllegalArgumentException {
+        if (document == null) throw new NullPointerException("Document is null");
+        int weight = weigher.applyAsInt(document);
+        if (weight < 0) throw new IllegalArgumentException("Document weight is negative");
+
+        int node = nodes.get(id);
+        if (node != IntIntHashMap.NO_VALUE) {
+            int segment = segments[node];
+            unlink(node);
+            documents[node] = document;
+            weights[node] = weight;
+            link(node, segment);
+        } else {
+            if (weight > maximumWeight) return;
+
+            node = allocate();
+            nodes.put(id, node);
+            ids[node] = id;
+            documents[node] = document;
+            weights[node] = weight;
+            link(node, PROBATION);
+        }
+        while (weight() > maximumWeight) {
+            int victim = (tails[PROBATION] != NIL) ? tails[PROBATION] : tails[PROTECTED];
+            release(victim);
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the document of the specified id from this cache. Nothing happens if the id isn't cached.
+     *
+     * @param id the id
+     * @return true if the id was cached, false otherwise
+     */
+    public boolean invalidate(int id) {
+        int node = nodes.get(id);
+        if (node == IntIntHashMap.NO_VALUE) return false;
+
+        release(node);
+        invalidations++;
+
+        return true;
+    }
+
+    /**
+     * Removes every document from this cache.
+     */
+    public void invalidateAll() {
+        invalidations += size();
+        nodes.clear();
+        Arrays.fill(documents, 0, usedNodes, null);
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+        Arrays.fill(segmentWeights, 0);
+        freeNode = NIL;
+        usedNodes = 0;
+    }
+
+    /**
+     * Returns the number of cached documents.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the weight of the cached documents.
+     *
+     * @return the weight
+     */
+    public long weight() {
+        return segmentWeights[PROBATION] + segmentWeights[PROTECTED];
+    }
+
+    /**
+     * Returns the maximum weight of the cached documents.
+     *
+     * @return the maximum weight
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, invalidations, size(), weight(), maximumWeight);
+    }
+
+    /**
+     * Starts the statistics of this cache over, keeping the cached documents.
+     */
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    /**
+     * Returns a free node, growing the node arrays if none is left.
+     *
+     * @return the node
+     */
+    private int allocate() {
+        if (freeNode != NIL) {
+            int node = freeNode;
+            freeNode = newer[node];
+
+            return node;
+        }
+        if (usedNodes == ids.length) {
+            int capacity = (ids.length < 2) ? ids.length + 1 : ids.length + (ids.length / 2);
+            ids = Arrays.copyOf(ids, capacity);
+            documents = Arrays.copyOf(documents, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            segments = Arrays.copyOf(segments, capacity);
+            newer = Arrays.copyOf(newer, capacity);
+            older = Arrays.copyOf(older, capacity);
+        }
+
+        return usedNodes++;
+    }
+
+    /**
+     * Removes a node from this cache and adds it to the free nodes.
+     *
+     * @param node the node
+     */
+    private void release(int node) {
+        unlink(node);
+        nodes.remove(ids[node]);
+        documents[node] = null;
+        newer[node] = freeNode;
+        freeNode = node;
+    }
+
+    /**
+     * Makes a node the most recently used of a segment.
+     *
+     * @param node the node
+     * @param segment the segment
+     */
+    private void link(int node, int segment) {
+        segments[node] = (byte) segment;
+        segmentWeights[segment] += weights[node];
+        newer[node] = NIL;
+        older[node] = heads[segment];
+        if (heads[segment] != NIL) newer[heads[segment]] = node;
+        else tails[segment] = node;
+        heads[segment] = node;
+    }
+
+    /**
+     * Removes a node from the list of its segment.
+     *
+     * @param node the node
+     */
+    private void unlink(int node) {
+        int segment = segments[node];
+        segmentWeights[segment] -= weights[node];
+        if (newer[node] != NIL) older[newer[node]] = older[node];
+        else heads[segment] = older[node];
+        if (older[node] != NIL) newer[older[node]] = newer[node];
+        else tails[segment] = newer[node];
+    }
+}
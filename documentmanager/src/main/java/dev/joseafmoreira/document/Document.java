@@ -1,5 +1,8 @@
 package dev.joseafmoreira.document;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 import pt.ipp.estg.fpoo.document.DocumentType;
 import pt.ipp.estg.fpoo.document.IDocument;
 
@@ -11,8 +14,13 @@ import pt.ipp.estg.fpoo.document.IDocument;
  * @version 1.0
  * @author joseafmoreira
  * @see IDocument
+ * @see DocumentFactory
  */
 public class Document implements IDocument {
+    /**
+     * The listeners of a document without listeners
+     */
+    private static final DocumentListener[] NO_LISTENERS = new DocumentListener[0];
     /**
      * This document's id
      */
@@ -41,6 +49,14 @@ public class Document implements IDocument {
      * This document's file extension
      */
     private final String fileExtension;
+    /**
+     * The listeners notified when this document's title or type changes (replaced on every change)
+     */
+    private volatile DocumentListener[] listeners = NO_LISTENERS;
+    /**
+     * The cached hash code of this document (0 if it wasn't computed since the last change)
+     */
+    private int hash;
 
     /**
      * Constructs a document with an id, title, version, fileName, 
@@ -85,7 +101,10 @@ public class Document implements IDocument {
      */
     @Override
     public void setTitle(String title) {
+        String oldTitle = this.title;
         this.title = title;
+        hash = 0;
+        if (!Objects.equals(oldTitle, title)) for (DocumentListener listener : listeners) listener.titleChanged(this, oldTitle);
     }
 
     /**
@@ -117,7 +136,42 @@ public class Document implements IDocument {
      */
     @Override
     public void setType(DocumentType type) {
+        DocumentType oldType = this.type;
         this.type = type;
+        hash = 0;
+        if (oldType != type) for (DocumentListener listener : listeners) listener.typeChanged(this, oldType);
+    }
+
+    /**
+     * Registers a listener to be notified when this document's title or type changes.
+     * 
+     * @param listener the listener to be registered
+     * @throws NullPointerException if the listener is null
+     */
+    public synchronized void addListener(DocumentListener listener) throws NullPointerException {
+        if (listener == null) throw new NullPointerException("Listener is null");
+
+        DocumentListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[newListeners.length - 1] = listener;
+        listeners = newListeners;
+    }
+
+    /**
+     * Unregisters a listener of this document. Nothing happens if the listener isn't registered.
+     * 
+     * @param listener the listener to be unregistered
+     */
+    public synchronized void removeListener(DocumentListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                DocumentListener[] newListeners = new DocumentListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                listeners = (newListeners.length == 0) ? NO_LISTENERS : newListeners;
+
+                return;
+            }
+        }
     }
 
     /**
@@ -138,9 +192,13 @@ public class Document implements IDocument {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The hash code is cached until the title or the type of this document changes.
      */
     @Override
     public int hashCode() {
+        if (hash != 0) return hash;
+
         final int prime = 31;
         int result = 1;
         result = prime * result + id;
@@ -150,29 +208,37 @@ public class Document implements IDocument {
         result = prime * result + ((fileExtension == null) ? 0 : fileExtension.hashCode());
         result = prime * result + ((title == null) ? 0 : title.hashCode());
         result = prime * result + ((type == null) ? 0 : type.hashCode());
+        hash = result;
+
         return result;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * A document is equal to any {@code IDocument} with the same attributes, e.g. a view returned
+     * by a columnar project.
      */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if ((obj == null) || getClass() != obj.getClass()) return false;
+        if (!(obj instanceof IDocument)) return false;
+        if (!(obj instanceof Document)) {
+            IDocument other = (IDocument) obj;
+            return id == other.getId() && version == other.getVersion() && fileSizeMb == other.getFileSizeMb()
+                    && type == other.getType() && Objects.equals(fileName, other.getFileName())
+                    && Objects.equals(fileExtension, other.getFileExtension()) && Objects.equals(title, other.getTitle());
+        }
 
         Document otherDocument = (Document) obj;
         if (id != otherDocument.id) return false;
         if (version != otherDocument.version) return false;
         if (fileSizeMb != otherDocument.fileSizeMb) return false;
-        if (fileName == null) if (otherDocument.fileName != null) return false;
-        else if (!fileName.equals(otherDocument.fileName)) return false;
-        if (fileExtension == null) if (otherDocument.fileExtension != null) return false;
-        else if (!fileExtension.equals(otherDocument.fileExtension)) return false;
-        if (title == null) if (otherDocument.title != null) return false;
-        else if (!title.equals(otherDocument.title)) return false;
-        if (type == null) if (otherDocument.type != null) return false;
-        else if (!type.equals(otherDocument.type)) return false;
+        if (type != otherDocument.type) return false;
+        if (hashCode() != otherDocument.hashCode()) return false;
+        if (!Objects.equals(fileName, otherDocument.fileName)) return false;
+        if (!Objects.equals(fileExtension, otherDocument.fileExtension)) return false;
+        if (!Objects.equals(title, otherDocument.title)) return false;
 
         return true;
     }
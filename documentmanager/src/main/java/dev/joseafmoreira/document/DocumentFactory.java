@@ -0,0 +1,111 @@
+package dev.joseafmoreira.document;
+
+import dev.joseafmoreira.util.StringInterner;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Creates documents sharing their repeated strings. <p>
+ *
+ * The title, the file name and the file extension of every created document go through a
+ * {@link StringInterner}, so the documents created by the same factory hold a single instance of
+ * each repeated string: the extension shared by nearly every document, and the titles and file
+ * names repeated across the versions of an id. Besides the heap saved, equal strings are then
+ * compared by reference in {@link Document#equals(Object)}, and their hash codes, cached by the
+ * strings, are computed once for all the documents. <p>
+ *
+ * The strings are kept as they are: since Java 9, a string made only of Latin-1 characters
+ * already stores one byte per character, so a separate byte array form would only drop the
+ * header of the string, which is shared anyway. A factory is thread-safe. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #shared()}: Returns the factory shared by the whole application</li>
+ *  <li>{@link #create(int, String, int, String, DocumentType, int, String)}: Creates a document</li>
+ *  <li>{@link #copyOf(IDocument)}: Creates a document with the attributes of another document</li>
+ *  <li>{@link #intern(String)}: Returns the shared instance of a string</li>
+ * </ul>
+ *
+ * <h3>DocumentFactory</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see Document
+ */
+public class DocumentFactory {
+    /**
+     * The factory shared by the whole application
+     */
+    private static final DocumentFactory SHARED = new DocumentFactory();
+    /**
+     * The pool of the strings of the created documents
+     */
+    private final StringInterner strings;
+
+    /**
+     * Constructs a DocumentFactory with a default number of pooled strings.
+     */
+    public DocumentFactory() {
+        this(StringInterner.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a DocumentFactory with a specified number of pooled strings.
+     *
+     * @param capacity the maximum number of pooled strings (Minimum value is 2), rounded up to a power of two
+     */
+    public DocumentFactory(int capacity) {
+        strings = new StringInterner(capacity);
+    }
+
+    /**
+     * Returns the factory shared by the whole application.
+     *
+     * @return the shared factory
+     */
+    public static DocumentFactory shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a document whose strings are shared with the other documents of this factory.
+     *
+     * @param id the id of the document
+     * @param title the title of the document
+     * @param version the version of the document
+     * @param fileName the file name of the document
+     * @param type the type of the document
+     * @param fileSizeMb the file size in MB of the document
+     * @param fileExtension the file extension of the document
+     * @return the document
+     */
+    public Document create(int id, String title, int version, String fileName, DocumentType type, int fileSizeMb, String fileExtension) {
+        return new Document(id, strings.intern(title), version, strings.intern(fileName), type, fileSizeMb, strings.intern(fileExtension));
+    }
+
+    /**
+     * Creates a document with the attributes of another document, sharing its strings with
+     * the other documents of this factory.
+     *
+     * @param document the document
+     * @return the copy of the document
+     * @throws NullPointerException if the document is null
+     */
+    public Document copyOf(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        return create(document.getId(), document.getTitle(), document.getVersion(), document.getFileName(),
+                document.getType(), document.getFileSizeMb(), document.getFileExtension());
+    }
+
+    /**
+     * Returns the instance of a string shared by the documents of this factory, e.g. to set
+     * the title of one of them.
+     *
+     * @param string the string
+     * @return a string equal to the string or null if it's null
+     */
+    public String intern(String string) {
+        return strings.intern(string);
+    }
+}
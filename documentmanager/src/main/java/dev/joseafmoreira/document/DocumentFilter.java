@@ -0,0 +1,164 @@
+package dev.joseafmoreira.document;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * A condition on the attributes of a document. <p>
+ *
+ * Filters are built from the factory methods and combined with {@link #and(DocumentFilter)},
+ * {@link #or(DocumentFilter)} and {@link #negate()}, and are meant to be used on the stream
+ * of a project:
+ * <pre>{@code
+ * project.stream()
+ *        .filter(DocumentFilter.type(DocumentType.MACHINE).and(DocumentFilter.idBetween(100, 199)))
+ *        .findFirst();
+ * }</pre>
+ *
+ * The available filters are the following: <p>
+ * <ul>
+ *  <li>{@link #id(int)}: Matches the documents with an id</li>
+ *  <li>{@link #idBetween(int, int)}: Matches the documents with an id in a range</li>
+ *  <li>{@link #version(int)}: Matches the documents with a version</li>
+ *  <li>{@link #versionAtLeast(int)}: Matches the documents with a version or a newer one</li>
+ *  <li>{@link #type(DocumentType)}: Matches the documents with a type</li>
+ *  <li>{@link #sizeAtMost(int)}: Matches the documents with a file size up to a limit</li>
+ *  <li>{@link #sizeBetween(int, int)}: Matches the documents with a file size in a range</li>
+ *  <li>{@link #extension(String)}: Matches the documents with a file extension</li>
+ * </ul>
+ *
+ * <h3>DocumentFilter</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IDocument
+ */
+@FunctionalInterface
+public interface DocumentFilter extends Predicate<IDocument> {
+    /**
+     * Returns a filter matching the documents that match this filter and the specified filter.
+     * The specified filter isn't evaluated if this filter doesn't match.
+     *
+     * @param other the other filter
+     * @return the combined filter
+     * @throws NullPointerException if the other filter is null
+     */
+    default DocumentFilter and(DocumentFilter other) throws NullPointerException {
+        if (other == null) throw new NullPointerException("Filter is null");
+
+        return document -> test(document) && other.test(document);
+    }
+
+    /**
+     * Returns a filter matching the documents that match this filter or the specified filter.
+     * The specified filter isn't evaluated if this filter matches.
+     *
+     * @param other the other filter
+     * @return the combined filter
+     * @throws NullPointerException if the other filter is null
+     */
+    default DocumentFilter or(DocumentFilter other) throws NullPointerException {
+        if (other == null) throw new NullPointerException("Filter is null");
+
+        return document -> test(document) || other.test(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    default DocumentFilter negate() {
+        return document -> !test(document);
+    }
+
+    /**
+     * Returns a filter matching the documents with the specified id.
+     *
+     * @param id the id
+     * @return the filter
+     */
+    static DocumentFilter id(int id) {
+        return document -> document.getId() == id;
+    }
+
+    /**
+     * Returns a filter matching the documents with an id in the specified range.
+     *
+     * @param min the minimum id (inclusive)
+     * @param max the maximum id (inclusive)
+     * @return the filter
+     * @throws IllegalArgumentException if the minimum is greater than the maximum
+     */
+    static DocumentFilter idBetween(int min, int max) throws IllegalArgumentException {
+        if (min > max) throw new IllegalArgumentException("Minimum id is greater than the maximum id");
+
+        return document -> document.getId() >= min && document.getId() <= max;
+    }
+
+    /**
+     * Returns a filter matching the documents with the specified version.
+     *
+     * @param version the version
+     * @return the filter
+     */
+    static DocumentFilter version(int version) {
+        return document -> document.getVersion() == version;
+    }
+
+    /**
+     * Returns a filter matching the documents with the specified version or a newer one.
+     *
+     * @param version the oldest version
+     * @return the filter
+     */
+    static DocumentFilter versionAtLeast(int version) {
+        return document -> document.getVersion() >= version;
+    }
+
+    /**
+     * Returns a filter matching the documents with the specified type.
+     *
+     * @param type the type (null matches the documents without type)
+     * @return the filter
+     */
+    static DocumentFilter type(DocumentType type) {
+        return document -> document.getType() == type;
+    }
+
+    /**
+     * Returns a filter matching the documents with a file size up to the specified limit.
+     *
+     * @param maxMb the maximum file size in MB (inclusive)
+     * @return the filter
+     */
+    static DocumentFilter sizeAtMost(int maxMb) {
+        return document -> document.getFileSizeMb() <= maxMb;
+    }
+
+    /**
+     * Returns a filter matching the documents with a file size in the specified range.
+     *
+     * @param minMb the minimum file size in MB (inclusive)
+     * @param maxMb the maximum file size in MB (inclusive)
+     * @return the filter
+     * @throws IllegalArgumentException if the minimum is greater than the maximum
+     */
+    static DocumentFilter sizeBetween(int minMb, int maxMb) throws IllegalArgumentException {
+        if (minMb > maxMb) throw new IllegalArgumentException("Minimum size is greater than the maximum size");
+
+        return document -> document.getFileSizeMb() >= minMb && document.getFileSizeMb() <= maxMb;
+    }
+
+    /**
+     * Returns a filter matching the documents with the specified file extension.
+     *
+     * @param extension the file extension (null matches the documents without extension)
+     * @return the filter
+     */
+    static DocumentFilter extension(String extension) {
+        return document -> Objects.equals(document.getFileExtension(), extension);
+    }
+}
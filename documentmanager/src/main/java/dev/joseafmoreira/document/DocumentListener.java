@@ -0,0 +1,37 @@
+package dev.joseafmoreira.document;
+
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * A document listener is notified when one of the mutable attributes of a document changes. <p>
+ *
+ * The expected operations for a document listener include: <p>
+ * <ul>
+ *  <li>{@link #titleChanged(IDocument, String)}: Called after the title of a document changes</li>
+ *  <li>{@link #typeChanged(IDocument, DocumentType)}: Called after the type of a document changes</li>
+ * </ul>
+ *
+ * <h3>DocumentListener</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see Document#addListener(DocumentListener)
+ */
+public interface DocumentListener {
+    /**
+     * Called after the title of a document changes.
+     *
+     * @param document the changed document
+     * @param oldTitle the title of the document before the change
+     */
+    void titleChanged(IDocument document, String oldTitle);
+
+    /**
+     * Called after the type of a document changes.
+     *
+     * @param document the changed document
+     * @param oldType the type of the document before the change
+     */
+    void typeChanged(IDocument document, DocumentType oldType);
+}
@@ -8,8 +8,12 @@ package dev.joseafmoreira.exceptions;
  * <ul>
  *  <li>{@link #InvalidDocumentException()}: Constructs a new InvalidDocumentException with a default message</li>
  *  <li>{@link #InvalidDocumentException(String)}: Constructs a new InvalidDocumentException with a custom message</li>
+ *  <li>{@link #InvalidDocumentException(String, String)}: Constructs a new InvalidDocumentException with a custom message and the broken rule</li>
  * </ul>
  * 
+ * The broken rule, returned by {@link #getRule()}, is a stable name for the reason of the rejection,
+ * unlike the message, which can depend on the document. <p>
+ * 
  * <h3>InvalidDocumentException</h3>
  * @since 1.0
  * @version 1.0
@@ -21,6 +25,10 @@ public class InvalidDocumentException extends RuntimeException {
      * The default message of this exception
      */
     protected static final String DEFAULT_MESSAGE = "Invalid document";
+    /**
+     * The name of the rule the document broke (null if unknown)
+     */
+    private final String rule;
 
     /**
      * Constructs a new InvalidDocumentException with a default message.
@@ -35,6 +43,26 @@ public class InvalidDocumentException extends RuntimeException {
      * @param message the exception message
      */
     public InvalidDocumentException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * Constructs a new InvalidDocumentException with a custom message and the rule the document broke.
+     * 
+     * @param message the exception message
+     * @param rule the name of the rule the document broke (null if unknown)
+     */
+    public InvalidDocumentException(String message, String rule) {
         super(message);
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the name of the rule the document broke, e.g. one of the rule names of an {@code AdmissionPolicy}.
+     * 
+     * @return the name of the rule or null if unknown
+     */
+    public String getRule() {
+        return rule;
     }
 }
@@ -0,0 +1,42 @@
+package dev.joseafmoreira.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Checked exception that can be thrown when reading a project file
+ * that is corrupted or has an unsupported format. <p>
+ *
+ * The available constructors are the following: <p>
+ * <ul>
+ *  <li>{@link #InvalidProjectFileException()}: Constructs a new InvalidProjectFileException with a default message</li>
+ *  <li>{@link #InvalidProjectFileException(String)}: Constructs a new InvalidProjectFileException with a custom message</li>
+ * </ul>
+ *
+ * <h3>InvalidProjectFileException</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IOException
+ */
+public class InvalidProjectFileException extends IOException {
+    /**
+     * The default message of this exception
+     */
+    protected static final String DEFAULT_MESSAGE = "Invalid project file";
+
+    /**
+     * Constructs a new InvalidProjectFileException with a default message.
+     */
+    public InvalidProjectFileException() {
+        this(DEFAULT_MESSAGE);
+    }
+
+    /**
+     * Constructs a new InvalidProjectFileException with a custom message.
+     *
+     * @param message the exception message
+     */
+    public InvalidProjectFileException(String message) {
+        super(message);
+    }
+}
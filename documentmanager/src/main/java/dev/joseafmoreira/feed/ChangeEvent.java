@@ -0,0 +1,151 @@
+package dev.joseafmoreira.feed;
+
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * A change to the documents of a project, published through its {@link ChangeFeed}. <p>
+ *
+ * The events are immutable and numbered by the feed in the order they were published. An added
+ * document is {@link Kind#ADDED} if it's the first version of its id and {@link Kind#SUPERSEDED}
+ * if it replaces a latest version, which is kept as an old version of the id. The operations
+ * dropping many documents at once publish a single event with the number of dropped documents. <p>
+ *
+ * The available operations are: <p>
+ * <ul>
+ *  <li>{@link #getSequence()}: Returns the number of this event in its feed</li>
+ *  <li>{@link #getKind()}: Returns the kind of this event</li>
+ *  <li>{@link #getDocument()}: Returns the added or removed document</li>
+ *  <li>{@link #getPrevious()}: Returns the superseded version</li>
+ *  <li>{@link #getCount()}: Returns the number of documents changed by this event</li>
+ *  <li>{@link #toString()}: Returns a string representation of this event</li>
+ * </ul>
+ *
+ * <h3>ChangeEvent</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ChangeFeed
+ */
+public final class ChangeEvent {
+    /**
+     * The kinds of change to the documents of a project.
+     */
+    public enum Kind {
+        /**
+         * A document was added and it's the first version of its id
+         */
+        ADDED,
+        /**
+         * A document was added and it's a newer version of the latest version of its id
+         */
+        SUPERSEDED,
+        /**
+         * A document was removed
+         */
+        REMOVED,
+        /**
+         * The old versions of every id were removed
+         */
+        COMPACTED,
+        /**
+         * Every document was removed
+         */
+        CLEARED
+    }
+
+    /**
+     * The number of this event in its feed
+     */
+    private final long sequence;
+    /**
+     * The kind of this event
+     */
+    private final Kind kind;
+    /**
+     * The added or removed document (null if the event changes many documents)
+     */
+    private final IDocument document;
+    /**
+     * The version replaced by the added document (null unless the event is {@link Kind#SUPERSEDED})
+     */
+    private final IDocument previous;
+    /**
+     * The number of documents changed by this event
+     */
+    private final int count;
+
+    /**
+     * Constructs a ChangeEvent.
+     *
+     * @param sequence the number of the event in its feed
+     * @param kind the kind of the event
+     * @param document the added or removed document
+     * @param previous the version replaced by the added document
+     * @param count the number of changed documents
+     */
+    ChangeEvent(long sequence, Kind kind, IDocument document, IDocument previous, int count) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.document = document;
+        this.previous = previous;
+        this.count = count;
+    }
+
+    /**
+     * Returns the number of this event in its feed, starting at 0.
+     *
+     * @return the sequence of this event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the kind of this event.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the added or removed document.
+     *
+     * @return the document or null if this event is {@link Kind#COMPACTED} or {@link Kind#CLEARED}
+     */
+    public IDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Returns the version replaced by the added document, which is still in the project.
+     *
+     * @return the previous latest version or null if this event isn't {@link Kind#SUPERSEDED}
+     */
+    public IDocument getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the number of documents changed by this event: 1 for an added or removed document
+     * and the number of removed documents for {@link Kind#COMPACTED} and {@link Kind#CLEARED}.
+     *
+     * @return the number of changed documents
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        String text = "#" + sequence + " " + kind;
+        if (document != null) text += " " + document;
+        if (previous != null) text += " over " + previous;
+
+        return (document == null) ? text + " (" + count + " documents)" : text;
+    }
+}
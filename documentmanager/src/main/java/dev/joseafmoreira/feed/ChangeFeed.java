@@ -0,0 +1,407 @@
+package dev.joseafmoreira.feed;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Bounded feed of the changes to the documents of a project. <p>
+ *
+ * The events are kept in a ring buffer of fixed capacity. Publishing never blocks: each event
+ * claims the next sequence and is written to its slot, overwriting the event published
+ * capacity events before, so the project never waits for its subscribers. Each subscription
+ * has its own cursor and reads the events at its own pace, in batches; a subscription left
+ * more than capacity events behind skips the overwritten events and counts them as lost.
+ * Nothing is published while the feed has no subscriptions. <p>
+ *
+ * The events can be pulled from a {@link Subscription} with {@link Subscription#poll(int)} or
+ * pushed to a {@link ChangeListener}, in which case a publish schedules a delivery task in the
+ * executor of the listener, unless one is already running, and the task delivers every
+ * available event in batches of up to {@link #MAX_BATCH_SIZE} events before finishing. A runtime
+ * exception thrown by a listener is dropped along with its batch, so it never reaches the
+ * project publishing the events, even when the executor runs the task in the publishing thread. <p>
+ *
+ * The available operations are: <p>
+ * <ul>
+ *  <li>{@link #publish(ChangeEvent.Kind, IDocument, IDocument, int)}: Publishes an event</li>
+ *  <li>{@link #subscribe()}: Subscribes to the events published from now on, to be polled</li>
+ *  <li>{@link #subscribe(ChangeListener, Executor)}: Subscribes a listener to the events published from now on</li>
+ *  <li>{@link #hasSubscribers()}: Checks if this feed has subscriptions</li>
+ *  <li>{@link #getCapacity()}: Returns the number of events kept by this feed</li>
+ *  <li>{@link #getPublishedCount()}: Returns the number of published events</li>
+ * </ul>
+ *
+ * <h3>ChangeFeed</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ChangeEvent
+ * @see dev.joseafmoreira.project.ManagedProject#getChangeFeed()
+ */
+public class ChangeFeed {
+    /**
+     * The default number of events kept by a feed
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 10;
+    /**
+     * The maximum number of events delivered to a listener at once
+     */
+    public static final int MAX_BATCH_SIZE = 1 << 8;
+    /**
+     * The subscriptions of a feed without subscriptions
+     */
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+    /**
+     * The batch returned when no event is available
+     */
+    private static final ChangeEvent[] NO_EVENTS = new ChangeEvent[0];
+    /**
+     * The ring buffer of the events, each one at the slot of its sequence
+     */
+    private final AtomicReferenceArray<ChangeEvent> events;
+    /**
+     * The mask used to wrap a sequence around the ring buffer
+     */
+    private final int mask;
+    /**
+     * The sequence of the next published event
+     */
+    private final AtomicLong nextSequence;
+    /**
+     * The subscriptions of this feed (replaced on every change)
+     */
+    private volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+    /**
+     * Constructs a ChangeFeed keeping a default number of events.
+     */
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a ChangeFeed keeping a specified number of events.
+     *
+     * @param capacity the number of events (Minimum value is 2), rounded up to a power of two
+     */
+    public ChangeFeed(int capacity) {
+        int slots = 2;
+        while (slots < capacity && slots < (1 << 30)) slots <<= 1;
+        events = new AtomicReferenceArray<>(slots);
+        mask = slots - 1;
+        nextSequence = new AtomicLong();
+    }
+
+    /**
+     * Publishes an event to the subscriptions of this feed. Nothing is published if this feed
+     * has no subscriptions. Safe to call from many threads at once.
+     *
+     * @param kind the kind of the event
+     * @param document the added or removed document (null if the event changes many documents)
+     * @param previous the version replaced by the added document (null unless the event is {@link ChangeEvent.Kind#SUPERSEDED})
+     * @param count the number of documents changed by the event
+     * @throws NullPointerException if the kind is null
+     */
+    public void publish(ChangeEvent.Kind kind, IDocument document, IDocument previous, int count) throws NullPointerException {
+        if (kind == null) throw new NullPointerException("Kind is null");
+        Subscription[] current = subscriptions;
+        if (current.length == 0) return;
+
+        long sequence = nextSequence.getAndIncrement();
+        ChangeEvent event = new ChangeEvent(sequence, kind, document, previous, count);
+        int slot = (int) sequence & mask;
+        // A publisher lapped by the others while writing leaves the newer event in place
+        for (ChangeEvent old = events.get(slot); old == null || old.getSequence() < sequence; old = events.get(slot))
+            if (events.compareAndSet(slot, old, event)) break;
+        for (Subscription subscription : current) subscription.signal();
+    }
+
+    /**
+     * Subscribes to the events published from now on, to be polled with {@link Subscription#poll(int)}.
+     *
+     * @return the subscription
+     */
+    public Subscription subscribe() {
+        return register(new Subscription(null, null));
+    }
+
+    /**
+     * Subscribes a listener to the events published from now on. The batches are delivered by
+     * tasks run in the specified executor, one at a time.
+     *
+     * @param listener the listener
+     * @param executor the executor running the deliveries
+     * @return the subscription, to be closed to stop the deliveries
+     * @throws NullPointerException if the listener or the executor is null
+     */
+    public Subscription subscribe(ChangeListener listener, Executor executor) throws NullPointerException {
+        if (listener == null) throw new NullPointerException("Listener is null");
+        if (executor == null) throw new NullPointerException("Executor is null");
+
+        return register(new Subscription(listener, executor));
+    }
+
+    /**
+     * Checks if this feed has subscriptions, so the events are worth building.
+     *
+     * @return true if this feed has subscriptions, false otherwise
+     */
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    /**
+     * Returns the number of events kept by this feed, the maximum lag of a subscription before it loses events.
+     *
+     * @return the capacity of the ring buffer
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of events published by this feed.
+     *
+     * @return the number of published events
+     */
+    public long getPublishedCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Adds a subscription to this feed.
+     *
+     * @param subscription the subscription
+     * @return the subscription
+     */
+    private synchronized Subscription register(Subscription subscription) {
+        Subscription[] newSubscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        newSubscriptions[newSubscriptions.length - 1] = subscription;
+        subscriptions = newSubscriptions;
+
+        return subscription;
+    }
+
+    /**
+     * Removes a subscription from this feed. Nothing happens if the subscription isn't registered.
+     *
+     * @param subscription the subscription
+     */
+    private synchronized void unregister(Subscription subscription) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i] == subscription) {
+                Subscription[] newSubscriptions = new Subscription[subscriptions.length - 1];
+                System.arraycopy(subscriptions, 0, newSubscriptions, 0, i);
+                System.arraycopy(subscriptions, i + 1, newSubscriptions, i, newSubscriptions.length - i);
+                subscriptions = (newSubscriptions.length == 0) ? NO_SUBSCRIPTIONS : newSubscriptions;
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * A cursor over the events of a feed. <p>
+     *
+     * A subscription reads the events published after it was created, in order. It must be polled
+     * by one thread at a time; the subscriptions of a listener are polled by their delivery tasks
+     * and can't be polled directly. <p>
+     *
+     * The available operations are: <p>
+     * <ul>
+     *  <li>{@link #poll(int)}: Returns the next batch of events</li>
+     *  <li>{@link #getLag()}: Returns the number of events published and not yet read</li>
+     *  <li>{@link #getLostCount()}: Returns the number of events lost by this subscription</li>
+     *  <li>{@link #isClosed()}: Checks if this subscription is closed</li>
+     *  <li>{@link #close()}: Stops this subscription</li>
+     * </ul>
+     */
+    public final class Subscription implements AutoCloseable {
+        /**
+         * The listener the events are delivered to (null if the events are polled)
+         */
+        private final ChangeListener listener;
+        /**
+         * The executor running the deliveries (null if the events are polled)
+         */
+        private final Executor executor;
+        /**
+         * Whether a delivery task is scheduled or running
+         */
+        private final AtomicBoolean scheduled;
+        /**
+         * The sequence of the next event to be read
+         */
+        private volatile long cursor;
+        /**
+         * The number of events overwritten before being read
+         */
+        private volatile long lost;
+        /**
+         * Whether this subscription is closed
+         */
+        private volatile boolean closed;
+
+        /**
+         * Constructs a Subscription starting at the next published event.
+         *
+         * @param listener the listener the events are delivered to (null if the events are polled)
+         * @param executor the executor running the deliveries (null if the events are polled)
+         */
+        private Subscription(ChangeListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+            scheduled = new AtomicBoolean();
+            cursor = nextSequence.get();
+            lost = 0;
+            closed = false;
+        }
+
+        /**
+         * Returns the next batch of events, without waiting for them.
+         *
+         * @param maxEvents the maximum number of events
+         * @return the events, in the order they were published (empty if none is available)
+         * @throws IllegalStateException if this subscription is closed or delivers to a listener
+         */
+        public ChangeEvent[] poll(int maxEvents) throws IllegalStateException {
+            if (closed) throw new IllegalStateException("Subscription is closed");
+            if (listener != null) throw new IllegalStateException("Subscription delivers to a listener");
+
+            return read(maxEvents);
+        }
+
+        /**
+         * Returns the number of events published and not yet read by this subscription.
+         *
+         * @return the lag of this subscription
+         */
+        public long getLag() {
+            return nextSequence.get() - cursor;
+        }
+
+        /**
+         * Returns the number of events overwritten before this subscription read them.
+         *
+         * @return the number of lost events
+         */
+        public long getLostCount() {
+            return lost;
+        }
+
+        /**
+         * Checks if this subscription is closed.
+         *
+         * @return true if this subscription is closed, false otherwise
+         */
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Stops this subscription. A batch being delivered to a listener still completes.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            unregister(this);
+        }
+
+        /**
+         * Reads the next batch of events. A batch never spans lost events: they're skipped at the
+         * start of the next batch instead.
+         *
+         * @param maxEvents the maximum number of events
+         * @return the events
+         */
+        private ChangeEvent[] read(int maxEvents) {
+            long head = nextSequence.get(), next = cursor;
+            int length = (int) Math.min(Math.max(maxEvents, 0), head - next), count = 0;
+            if (length <= 0) return NO_EVENTS;
+
+            ChangeEvent[] batch = new ChangeEvent[length];
+            while (count < length) {
+                long oldest = head - mask - 1;
+                ChangeEvent event = events.get((int) next & mask);
+                if (event != null && event.getSequence() > next) oldest = Math.max(oldest, event.getSequence() - mask);
+                if (next < oldest) {
+                    if (count > 0) break;
+                    lost += oldest - next;
+                    next = oldest;
+                    continue;
+                }
+                // The event of this sequence is still being written
+                if (event == null || event.getSequence() < next) break;
+
+                batch[count++] = event;
+                next++;
+            }
+            cursor = next;
+
+            return (count == length) ? batch : Arrays.copyOf(batch, count);
+        }
+
+        /**
+         * Checks if the next event of this subscription can be read.
+         *
+         * @return true if an event or a gap of lost events is available, false otherwise
+         */
+        private boolean hasNext() {
+            long next = cursor;
+            if (nextSequence.get() - next > mask + 1) return true;
+
+            ChangeEvent event = events.get((int) next & mask);
+            return event != null && event.getSequence() >= next;
+        }
+
+        /**
+         * Schedules a delivery to the listener of this subscription, unless one is already scheduled.
+         * A subscription whose executor rejects the delivery is closed.
+         */
+        private void signal() {
+            if (listener == null || closed || !scheduled.compareAndSet(false, true)) return;
+
+            try {
+                executor.execute(this::deliver);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                close();
+            }
+        }
+
+        /**
+         * Delivers the available events to the listener of this subscription, in batches.
+         * The runtime exceptions of the listener are dropped and the events of a batch whose
+         * delivery throws aren't delivered again.
+         */
+        private void deliver() {
+            do {
+                try {
+                    while (!closed) {
+                        long lostBefore = lost;
+                        ChangeEvent[] batch = read(MAX_BATCH_SIZE);
+                        try {
+                            if (lost > lostBefore) listener.overrun(lost - lostBefore);
+                        } catch (RuntimeException e) {
+                            // The next batch is delivered anyway
+                        }
+                        if (batch.length == 0) break;
+                        try {
+                            listener.changed(batch);
+                        } catch (RuntimeException e) {
+                            // The batch is dropped, the project publishing it must not fail
+                        }
+                    }
+                } finally {
+                    scheduled.set(false);
+                }
+                // An event published after the last read found scheduled still set
+            } while (!closed && hasNext() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.joseafmoreira.feed;
+
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * A change listener receives the events of a {@link ChangeFeed} in batches. <p>
+ *
+ * The batches of a listener are delivered one at a time, in the order the events were
+ * published. A listener that falls too far behind the project loses the oldest events it
+ * didn't receive: it's told how many through {@link #overrun(long)}, before the next batch,
+ * and should resynchronize with the project (e.g. through {@link IProject#toArray()}). A runtime
+ * exception thrown by a listener is ignored: the batch isn't delivered again and the next batch
+ * is delivered as usual. <p>
+ *
+ * The expected operations for a change listener include: <p>
+ * <ul>
+ *  <li>{@link #changed(ChangeEvent[])}: Called with a batch of events</li>
+ *  <li>{@link #overrun(long)}: Called after events were lost</li>
+ * </ul>
+ *
+ * <h3>ChangeListener</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ChangeFeed#subscribe(ChangeListener, java.util.concurrent.Executor)
+ */
+public interface ChangeListener {
+    /**
+     * Called with the next batch of events.
+     *
+     * @param events the events, in the order they were published (never empty)
+     */
+    void changed(ChangeEvent[] events);
+
+    /**
+     * Called when events were overwritten before this listener received them.
+     *
+     * @param lostEvents the number of lost events
+     */
+    void overrun(long lostEvents);
+}
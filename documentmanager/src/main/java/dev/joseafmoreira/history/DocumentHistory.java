@@ -0,0 +1,493 @@
+package dev.joseafmoreira.history;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.util.IntIntHashMap;
+import dev.joseafmoreira.util.StringDictionary;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Store of every version of the documents, by document id. <p>
+ *
+ * The latest version of each id is kept decoded. The older versions are kept as reverse deltas:
+ * each one only stores the attributes that differ from the next newer version, as a bit mask
+ * followed by the changed values, with the strings replaced by dictionary codes. A version is
+ * rebuilt by starting from the latest version and applying the deltas back to it. Every
+ * {@value #CHECKPOINT_INTERVAL}th older version stores all its attributes, so rebuilding
+ * a version never applies more than {@value #CHECKPOINT_INTERVAL} deltas. <p>
+ *
+ * The documents are copied when recorded and every returned document is a new {@code Document},
+ * so changing them doesn't change this history. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #record(IDocument)}: Records a new version of a document</li>
+ *  <li>{@link #recordAll(IProject)}: Records the versions of the documents of a project</li>
+ *  <li>{@link #getLatest(int)}: Returns the latest version of a document</li>
+ *  <li>{@link #getVersion(int, int)}: Returns a version of a document</li>
+ *  <li>{@link #getHistory(int)}: Returns every version of a document</li>
+ *  <li>{@link #getVersionCount(int)}: Returns the number of versions of a document</li>
+ *  <li>{@link #contains(int)}: Checks if a document has versions in this history</li>
+ *  <li>{@link #size()}: Returns the number of documents in this history</li>
+ *  <li>{@link #memoryFootprint()}: Returns an estimate of the heap used by this history</li>
+ *  <li>{@link #clear()}: Removes every version from this history</li>
+ * </ul>
+ *
+ * <h3>DocumentHistory</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public class DocumentHistory {
+    /**
+     * The number of older versions between two versions storing all their attributes
+     */
+    public static final int CHECKPOINT_INTERVAL = 16;
+    /**
+     * The bit of the title in a delta mask
+     */
+    private static final int TITLE = 1;
+    /**
+     * The bit of the file name in a delta mask
+     */
+    private static final int FILE_NAME = 1 << 1;
+    /**
+     * The bit of the type in a delta mask
+     */
+    private static final int TYPE = 1 << 2;
+    /**
+     * The bit of the file size in a delta mask
+     */
+    private static final int FILE_SIZE = 1 << 3;
+    /**
+     * The bit of the file extension in a delta mask
+     */
+    private static final int FILE_EXTENSION = 1 << 4;
+    /**
+     * The mask of a delta storing every attribute
+     */
+    private static final int ALL = TITLE | FILE_NAME | TYPE | FILE_SIZE | FILE_EXTENSION;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The index mapping each document id to the position of its chain
+     */
+    private final IntIntHashMap positions;
+    /**
+     * The version chains of the documents
+     */
+    private Chain[] chains;
+    /**
+     * The number of documents in this history
+     */
+    private int size;
+    /**
+     * The dictionary of the strings of the older versions
+     */
+    private final StringDictionary strings;
+
+    /**
+     * Constructs an empty DocumentHistory.
+     */
+    public DocumentHistory() {
+        positions = new IntIntHashMap();
+        chains = new Chain[16];
+        size = 0;
+        strings = new StringDictionary();
+    }
+
+    /**
+     * Records a new version of a document. The version must be newer than every recorded version of the document.
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if there's already a newer or equal version of the document in this history
+     */
+    public void record(IDocument document) throws NullPointerException, InvalidDocumentException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        int position = positions.get(document.getId());
+        if (position == IntIntHashMap.NO_VALUE) {
+            if (size == chains.length) chains = Arrays.copyOf(chains, size * 2);
+            chains[size] = new Chain(document);
+            positions.put(document.getId(), size++);
+            return;
+        }
+
+        Chain chain = chains[position];
+        if (chain.version >= document.getVersion())
+            throw new InvalidDocumentException("There's already a newer or equal version of this document in this history", AdmissionPolicy.VERSION);
+        chain.push(document);
+    }
+
+    /**
+     * Records the documents of a project that are newer than the versions in this history, so the
+     * old versions can then be removed from the project without losing them.
+     *
+     * @param project the project
+     * @return the number of recorded documents
+     * @throws NullPointerException if the project is null
+     */
+    public int recordAll(IProject project) throws NullPointerException {
+        if (project == null) throw new NullPointerException("Project is null");
+
+        IDocument[] documents = project.toArray();
+        // Sorts by id and version, the versions of an id are recorded in ascending order
+        Arrays.sort(documents, (first, second) -> (first.getId() != second.getId())
+                ? Integer.compare(first.getId(), second.getId()) : Integer.compare(first.getVersion(), second.getVersion()));
+        int recorded = 0;
+        for (IDocument document : documents) {
+            int position = positions.get(document.getId());
+            if (position != IntIntHashMap.NO_VALUE && chains[position].version >= document.getVersion()) continue;
+
+            record(document);
+            recorded++;
+        }
+
+        return recorded;
+    }
+
+    /**
+     * Returns the latest version of a document.
+     *
+     * @param id the document id
+     * @return a copy of the latest version
+     * @throws NoSuchElementException if the document isn't in this history
+     */
+    public IDocument getLatest(int id) throws NoSuchElementException {
+        return chainOf(id).latest();
+    }
+
+    /**
+     * Returns a version of a document.
+     *
+     * @param id the document id
+     * @param version the version
+     * @return a copy of the version
+     * @throws NoSuchElementException if the version isn't in this history
+     */
+    public IDocument getVersion(int id, int version) throws NoSuchElementException {
+        Chain chain = chainOf(id);
+        if (version == chain.version) return chain.latest();
+
+        int revision = Arrays.binarySearch(chain.versions, 0, chain.count, version);
+        if (revision < 0) throw new NoSuchElementException("Version not found");
+
+        return chain.rebuild(revision);
+    }
+
+    /**
+     * Returns every version of a document, from the oldest to the latest.
+     *
+     * @param id the document id
+     * @return copies of the versions
+     * @throws NoSuchElementException if the document isn't in this history
+     */
+    public IDocument[] getHistory(int id) throws NoSuchElementException {
+        Chain chain = chainOf(id);
+        IDocument[] history = new IDocument[chain.count + 1];
+        history[chain.count] = chain.latest();
+        // Applies every delta once, from the latest version back to the oldest
+        Attributes attributes = chain.latestAttributes();
+        for (int revision = chain.count - 1; revision >= 0; revision--) {
+            chain.apply(revision, attributes);
+            history[revision] = attributes.toDocument(id, chain.versions[revision]);
+        }
+
+        return history;
+    }
+
+    /**
+     * Returns the number of versions of a document.
+     *
+     * @param id the document id
+     * @return the number of versions (0 if the document isn't in this history)
+     */
+    public int getVersionCount(int id) {
+        int position = positions.get(id);
+
+        return (position == IntIntHashMap.NO_VALUE) ? 0 : chains[position].count + 1;
+    }
+
+    /**
+     * Checks if a document has versions in this history.
+     *
+     * @param id the document id
+     * @return true if the document is in this history, false otherwise
+     */
+    public boolean contains(int id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * Returns the number of documents in this history.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this history in bytes, assuming compressed references.
+     * The strings of the latest versions are shared with the recorded documents and aren't included.
+     *
+     * @return the estimated number of bytes
+     */
+    public long memoryFootprint() {
+        // Chain object (48), its slot in the chains array and in the id index (4 + 8), three arrays (3 * 16)
+        long bytes = positions.capacity() * 8L + chains.length * 4L + strings.memoryFootprint();
+        for (int i = 0; i < size; i++) bytes += 108 + chains[i].versions.length * 8L + chains[i].deltas.length * 4L;
+
+        return bytes;
+    }
+
+    /**
+     * Removes every version from this history.
+     */
+    public void clear() {
+        positions.clear();
+        chains = new Chain[16];
+        size = 0;
+        strings.clear();
+    }
+
+    /**
+     * Returns the chain of a document.
+     *
+     * @param id the document id
+     * @return the chain
+     * @throws NoSuchElementException if the document isn't in this history
+     */
+    private Chain chainOf(int id) throws NoSuchElementException {
+        int position = positions.get(id);
+        if (position == IntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
+
+        return chains[position];
+    }
+
+    /**
+     * The versions of a document: the latest one decoded and the older ones as reverse deltas.
+     */
+    private final class Chain {
+        /**
+         * The document id
+         */
+        private final int id;
+        /**
+         * The latest version
+         */
+        private int version;
+        /**
+         * The title of the latest version
+         */
+        private String title;
+        /**
+         * The file name of the latest version
+         */
+        private String fileName;
+        /**
+         * The type of the latest version
+         */
+        private DocumentType type;
+        /**
+         * The file size in MB of the latest version
+         */
+        private int fileSizeMb;
+        /**
+         * The file extension of the latest version
+         */
+        private String fileExtension;
+        /**
+         * The older versions, in ascending order
+         */
+        private int[] versions;
+        /**
+         * The position of the delta of each older version in {@link #deltas}
+         */
+        private int[] offsets;
+        /**
+         * The deltas of the older versions: a mask followed by the values of the changed attributes
+         */
+        private int[] deltas;
+        /**
+         * The number of older versions
+         */
+        private int count;
+        /**
+         * The number of used positions of {@link #deltas}
+         */
+        private int deltasLength;
+
+        /**
+         * Constructs a chain with the first version of a document.
+         *
+         * @param document the document
+         */
+        private Chain(IDocument document) {
+            id = document.getId();
+            versions = new int[0];
+            offsets = new int[0];
+            deltas = new int[0];
+            count = 0;
+            deltasLength = 0;
+            setLatest(document);
+        }
+
+        /**
+         * Makes a document the latest version, turning the previous latest version into a delta against it.
+         *
+         * @param document the new latest version
+         */
+        private void push(IDocument document) {
+            int mask = ((count + 1) % CHECKPOINT_INTERVAL == 0) ? ALL : 0;
+            if (!equalStrings(title, document.getTitle())) mask |= TITLE;
+            if (!equalStrings(fileName, document.getFileName())) mask |= FILE_NAME;
+            if (type != document.getType()) mask |= TYPE;
+            if (fileSizeMb != document.getFileSizeMb()) mask |= FILE_SIZE;
+            if (!equalStrings(fileExtension, document.getFileExtension())) mask |= FILE_EXTENSION;
+
+            if (count == versions.length) {
+                versions = Arrays.copyOf(versions, Math.max(4, count * 2));
+                offsets = Arrays.copyOf(offsets, versions.length);
+            }
+            if (deltasLength + 6 > deltas.length) deltas = Arrays.copyOf(deltas, Math.max(8, Math.max(deltasLength + 6, deltas.length * 2)));
+            versions[count] = version;
+            offsets[count++] = deltasLength;
+            deltas[deltasLength++] = mask;
+            if ((mask & TITLE) != 0) deltas[deltasLength++] = strings.encode(title);
+            if ((mask & FILE_NAME) != 0) deltas[deltasLength++] = strings.encode(fileName);
+            if ((mask & TYPE) != 0) deltas[deltasLength++] = (type == null) ? -1 : type.ordinal();
+            if ((mask & FILE_SIZE) != 0) deltas[deltasLength++] = fileSizeMb;
+            if ((mask & FILE_EXTENSION) != 0) deltas[deltasLength++] = strings.encode(fileExtension);
+            setLatest(document);
+        }
+
+        /**
+         * Copies the attributes of a document as the latest version.
+         *
+         * @param document the document
+         */
+        private void setLatest(IDocument document) {
+            version = document.getVersion();
+            title = document.getTitle();
+            fileName = document.getFileName();
+            type = document.getType();
+            fileSizeMb = document.getFileSizeMb();
+            fileExtension = document.getFileExtension();
+        }
+
+        /**
+         * Returns a copy of the latest version.
+         *
+         * @return the latest version
+         */
+        private IDocument latest() {
+            return new Document(id, title, version, fileName, type, fileSizeMb, fileExtension);
+        }
+
+        /**
+         * Returns the attributes of the latest version.
+         *
+         * @return the attributes
+         */
+        private Attributes latestAttributes() {
+            Attributes attributes = new Attributes();
+            attributes.title = title;
+            attributes.fileName = fileName;
+            attributes.type = type;
+            attributes.fileSizeMb = fileSizeMb;
+            attributes.fileExtension = fileExtension;
+
+            return attributes;
+        }
+
+        /**
+         * Rebuilds an older version, starting from the closest newer checkpoint or from the latest version.
+         *
+         * @param revision the position of the older version
+         * @return the older version
+         */
+        private IDocument rebuild(int revision) {
+            int start = revision;
+            while (start < count && deltas[offsets[start]] != ALL) start++;
+
+            Attributes attributes = latestAttributes();
+            for (int i = Math.min(start, count - 1); i >= revision; i--) apply(i, attributes);
+
+            return attributes.toDocument(id, versions[revision]);
+        }
+
+        /**
+         * Applies the delta of an older version to the attributes of the next newer version.
+         *
+         * @param revision the position of the older version
+         * @param attributes the attributes of the next newer version, replaced by the attributes of the older version
+         */
+        private void apply(int revision, Attributes attributes) {
+            int position = offsets[revision], mask = deltas[position++];
+            if ((mask & TITLE) != 0) attributes.title = strings.decode(deltas[position++]);
+            if ((mask & FILE_NAME) != 0) attributes.fileName = strings.decode(deltas[position++]);
+            if ((mask & TYPE) != 0) attributes.type = (deltas[position] < 0) ? null : TYPES[deltas[position]];
+            if ((mask & TYPE) != 0) position++;
+            if ((mask & FILE_SIZE) != 0) attributes.fileSizeMb = deltas[position++];
+            if ((mask & FILE_EXTENSION) != 0) attributes.fileExtension = strings.decode(deltas[position]);
+        }
+    }
+
+    /**
+     * The mutable attributes of a version being rebuilt.
+     */
+    private static final class Attributes {
+        /**
+         * The title
+         */
+        private String title;
+        /**
+         * The file name
+         */
+        private String fileName;
+        /**
+         * The type
+         */
+        private DocumentType type;
+        /**
+         * The file size in MB
+         */
+        private int fileSizeMb;
+        /**
+         * The file extension
+         */
+        private String fileExtension;
+
+        /**
+         * Returns a document with these attributes.
+         *
+         * @param id the document id
+         * @param version the version
+         * @return the document
+         */
+        private IDocument toDocument(int id, int version) {
+            return new Document(id, title, version, fileName, type, fileSizeMb, fileExtension);
+        }
+    }
+
+    /**
+     * Compares two nullable strings.
+     *
+     * @param first the first string
+     * @param second the second string
+     * @return true if both are null or equal, false otherwise
+     */
+    private static boolean equalStrings(String first, String second) {
+        return (first == null) ? second == null : first.equals(second);
+    }
+}
@@ -0,0 +1,462 @@
+package dev.joseafmoreira.ingest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Imports records from many producers into a project. <p>
+ *
+ * Every submitted record is parsed into a document and checked against an {@link AdmissionPolicy}
+ * by a worker task of its own, so the producers only hand the records over. The parsed documents
+ * are queued for a single writer thread, the only one touching the project, which puts them back in
+ * the order their records were submitted in, takes them in batches of up to the batch size, groups
+ * each batch by id with the versions of each id in ascending order, and applies it with
+ * {@link ManagedProject#addAll(IDocument[])}. The project doesn't need to be thread-safe, but it must not be
+ * changed by others while the service runs. <p>
+ *
+ * The workers run on virtual threads when the JVM has them (Java 21 or later, see the {@code java21}
+ * build profile) and on a pool of one platform thread per processor otherwise. At most a maximum
+ * number of records are in flight at once: {@link #submit(Object)} blocks past that, so producers
+ * faster than the writer are slowed down instead of filling the memory. <p>
+ *
+ * The versions of an id reach the project in the order they were submitted in, however the workers
+ * interleave: a version submitted after a newer one of the same id is only reordered if both land in
+ * the same batch, and is rejected otherwise by a project requiring newer versions. A record slow to
+ * parse holds back the records submitted after it, at most the maximum number in flight. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #submit(Object)}: Submits a record to be imported</li>
+ *  <li>{@link #awaitIdle()}: Waits until every submitted record is committed or dropped</li>
+ *  <li>{@link #getStats()}: Returns the progress of this service</li>
+ *  <li>{@link #usesVirtualThreads()}: Checks if the workers run on virtual threads</li>
+ *  <li>{@link #close()}: Imports the submitted records and stops this service</li>
+ * </ul>
+ *
+ * <h3>ImportService</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @param <T> the type of the imported records
+ * @see ImportStats
+ */
+public class ImportService<T> implements AutoCloseable {
+    /**
+     * The default maximum number of documents applied to the project at once
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1 << 9;
+    /**
+     * The default maximum number of records in flight
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1 << 14;
+    /**
+     * The order of the documents in a batch: by id, then by version
+     */
+    private static final Comparator<IDocument> BATCH_ORDER = Comparator.comparingInt(IDocument::getId).thenComparingInt(IDocument::getVersion);
+    /**
+     * The order of the parsed records: by submit sequence number
+     */
+    private static final Comparator<Parsed> SUBMIT_ORDER = Comparator.comparingLong(parsed -> parsed.sequence);
+    /**
+     * The project the documents are added to
+     */
+    private final ManagedProject project;
+    /**
+     * The function parsing a record into a document
+     */
+    private final Function<? super T, ? extends IDocument> parser;
+    /**
+     * The rules the documents are checked against before the commit
+     */
+    private final AdmissionPolicy policy;
+    /**
+     * The maximum number of documents applied to the project at once
+     */
+    private final int batchSize;
+    /**
+     * The executor running the workers
+     */
+    private final ExecutorService workers;
+    /**
+     * Whether the workers run on virtual threads
+     */
+    private final boolean virtual;
+    /**
+     * The parsed records waiting for the writer, in any order
+     */
+    private final LinkedBlockingQueue<Parsed> queue;
+    /**
+     * The thread applying the batches to the project
+     */
+    private final Thread writer;
+    /**
+     * The permits of the records in flight
+     */
+    private final Semaphore permits;
+    /**
+     * The lock guarding the idle condition
+     */
+    private final ReentrantLock lock;
+    /**
+     * Signaled when no record is in flight
+     */
+    private final Condition idle;
+    /**
+     * The sequence number of the next submitted record
+     */
+    private final AtomicLong sequences;
+    /**
+     * The number of records not yet committed or dropped
+     */
+    private final AtomicLong inFlight;
+    /**
+     * The number of submitted records
+     */
+    private final LongAdder submitted;
+    /**
+     * The number of records that couldn't be parsed
+     */
+    private final LongAdder parseFailures;
+    /**
+     * The number of documents rejected before the commit
+     */
+    private final LongAdder validationFailures;
+    /**
+     * The number of documents added to the project (only written by the writer)
+     */
+    private volatile long committed;
+    /**
+     * The number of documents rejected by the project (only written by the writer)
+     */
+    private volatile long commitFailures;
+    /**
+     * The number of batches applied to the project (only written by the writer)
+     */
+    private volatile long batches;
+    /**
+     * The time this service started at, in nanoseconds
+     */
+    private final long startNanos;
+    /**
+     * Whether this service stopped accepting records
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs an ImportService adding the parsed records to a project, with the default batch size and
+     * maximum number of records in flight, and checking nothing before the commit.
+     *
+     * @param project the project
+     * @param parser the function parsing a record into a document
+     * @throws NullPointerException if the project or the parser is null
+     */
+    public ImportService(ManagedProject project, Function<? super T, ? extends IDocument> parser) throws NullPointerException {
+        this(project, parser, AdmissionPolicy.unrestricted(), DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Constructs an ImportService adding the parsed records to a project.
+     *
+     * @param project the project
+     * @param parser the function parsing a record into a document
+     * @param policy the rules the documents are checked against by the workers (the version is left to the project)
+     * @param batchSize the maximum number of documents applied to the project at once (Minimum value is 1)
+     * @param maxInFlight the maximum number of records in flight (Minimum value is 1)
+     * @throws NullPointerException if the project, the parser or the policy is null
+     */
+    public ImportService(ManagedProject project, Function<? super T, ? extends IDocument> parser, AdmissionPolicy policy,
+            int batchSize, int maxInFlight) throws NullPointerException {
+        if (project == null) throw new NullPointerException("Project is null");
+        if (parser == null) throw new NullPointerException("Parser is null");
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        this.project = project;
+        this.parser = parser;
+        this.policy = policy;
+        this.batchSize = Math.max(batchSize, 1);
+        ExecutorService virtualWorkers = newVirtualThreadExecutor();
+        virtual = virtualWorkers != null;
+        workers = virtual ? virtualWorkers : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "document-import-worker");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        queue = new LinkedBlockingQueue<>();
+        permits = new Semaphore(Math.max(maxInFlight, 1));
+        lock = new ReentrantLock();
+        idle = lock.newCondition();
+        sequences = new AtomicLong();
+        inFlight = new AtomicLong();
+        submitted = new LongAdder();
+        parseFailures = new LongAdder();
+        validationFailures = new LongAdder();
+        committed = 0;
+        commitFailures = 0;
+        batches = 0;
+        closed = false;
+        startNanos = System.nanoTime();
+        writer = new Thread(this::write, "document-import-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Submits a record to be imported. Blocks while the maximum number of records are in flight.
+     *
+     * @param record the record
+     * @throws NullPointerException if the record is null
+     * @throws IllegalStateException if this service is closed
+     */
+    public void submit(T record) throws NullPointerException, IllegalStateException {
+        if (record == null) throw new NullPointerException("Record is null");
+        if (closed) throw new IllegalStateException("Import service is closed");
+
+        permits.acquireUninterruptibly();
+        inFlight.incrementAndGet();
+        // Checked again once counted in flight, so close() either waits for the record or the record is refused
+        if (closed) {
+            done(1);
+            throw new IllegalStateException("Import service is closed");
+        }
+        long sequence = sequences.getAndIncrement();
+        try {
+            workers.execute(() -> process(sequence, record));
+        } catch (RejectedExecutionException e) {
+            // The writer waits for every sequence number in turn, so the refused one is handed over empty
+            queue.add(new Parsed(sequence, null));
+            throw new IllegalStateException("Import service is closed");
+        }
+        submitted.increment();
+    }
+
+    /**
+     * Waits until every record submitted so far is committed to the project or dropped.
+     */
+    public void awaitIdle() {
+        lock.lock();
+        try {
+            while (inFlight.get() > 0) idle.awaitUninterruptibly();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the progress of this service.
+     *
+     * @return the statistics
+     */
+    public ImportStats getStats() {
+        return new ImportStats(submitted.sum(), parseFailures.sum(), validationFailures.sum(), committed, commitFailures,
+                batches, queue.size(), inFlight.get(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Checks if the workers of this service run on virtual threads.
+     *
+     * @return true if the workers run on virtual threads, false if they run on platform threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Stops accepting records, waits until the submitted ones are committed or dropped and stops
+     * the threads of this service. Closing a closed service has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        closed = true;
+        awaitIdle();
+        workers.shutdown();
+        // The writer is idle, waiting for the next document
+        writer.interrupt();
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Parses and checks a record, then queues its document for the writer, or nothing if the record
+     * was dropped. Run by the workers.
+     *
+     * @param sequence the submit sequence number of the record
+     * @param record the record
+     */
+    private void process(long sequence, T record) {
+        IDocument document = null;
+        try {
+            try {
+                document = parser.apply(record);
+                if (document == null) throw new NullPointerException("Document is null");
+            } catch (RuntimeException e) {
+                parseFailures.increment();
+                return;
+            }
+
+            try {
+                policy.checkAttributes(document);
+            } catch (RuntimeException e) {
+                validationFailures.increment();
+                document = null;
+            }
+        } finally {
+            // Also queued if the parser or the policy threw an error, so the writer can move past the record
+            queue.add(new Parsed(sequence, document));
+        }
+    }
+
+    /**
+     * Applies the queued documents to the project in batches, until interrupted. Run by the writer.
+     */
+    private void write() {
+        List<Parsed> arrived = new ArrayList<>(batchSize);
+        PriorityQueue<Parsed> waiting = new PriorityQueue<>(SUBMIT_ORDER);
+        List<IDocument> pending = new ArrayList<>(batchSize);
+        long next = 0;
+        while (true) {
+            try {
+                arrived.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(arrived, batchSize - 1);
+            waiting.addAll(arrived);
+            arrived.clear();
+
+            // Only the records following the last applied one leave, the others wait for the records before them
+            int records = 0;
+            while (!waiting.isEmpty() && waiting.peek().sequence == next) {
+                IDocument document = waiting.poll().document;
+                next++;
+                records++;
+                if (document == null) continue;
+
+                pending.add(document);
+                if (pending.size() == batchSize) {
+                    apply(pending, records);
+                    records = 0;
+                }
+            }
+            if (records > 0) apply(pending, records);
+        }
+    }
+
+    /**
+     * Applies the pending documents to the project and releases their records along with the dropped
+     * ones before them. Run by the writer.
+     *
+     * @param pending the pending documents, cleared once applied
+     * @param records the number of records released
+     */
+    private void apply(List<IDocument> pending, int records) {
+        if (pending.isEmpty()) {
+            done(records);
+            return;
+        }
+
+        IDocument[] batch = pending.toArray(new IDocument[0]);
+        pending.clear();
+        Arrays.sort(batch, BATCH_ORDER);
+        int failures = batch.length;
+        try {
+            BatchResult result = project.addAll(batch);
+            failures = result.getFailed();
+        } catch (RuntimeException e) {
+            failures = batch.length;
+        } finally {
+            committed += batch.length - failures;
+            commitFailures += failures;
+            batches++;
+            done(records);
+        }
+    }
+
+    /**
+     * Releases the records that left the pipeline and signals the waiting threads if none is left.
+     *
+     * @param records the number of records
+     */
+    private void done(int records) {
+        permits.release(records);
+        if (inFlight.addAndGet(-records) > 0) return;
+
+        lock.lock();
+        try {
+            idle.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, through
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up at run time so this class
+     * still compiles and runs on Java 17.
+     *
+     * @return the executor or null if the JVM has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * A record handed from a worker to the writer.
+     */
+    private static final class Parsed {
+        /**
+         * The submit sequence number of the record
+         */
+        private final long sequence;
+        /**
+         * The document parsed from the record or null if the record was dropped
+         */
+        private final IDocument document;
+
+        /**
+         * Constructs a Parsed record.
+         *
+         * @param sequence the submit sequence number of the record
+         * @param document the document parsed from the record or null if the record was dropped
+         */
+        private Parsed(long sequence, IDocument document) {
+            this.sequence = sequence;
+            this.document = document;
+        }
+    }
+}
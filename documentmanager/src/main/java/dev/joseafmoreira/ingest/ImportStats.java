@@ -0,0 +1,195 @@
+package dev.joseafmoreira.ingest;
+
+/**
+ * Snapshot of the progress of an {@link ImportService}. <p>
+ *
+ * Counts the records submitted to the service, the ones dropped by each stage and the documents
+ * committed to the project, along with the depth of the stages at the time the snapshot was
+ * taken. A snapshot doesn't change after it's taken, and {@link #toString()} exports it as text,
+ * one statistic per line. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #getSubmitted()}: Returns the number of submitted records</li>
+ *  <li>{@link #getParseFailures()}: Returns the number of records that couldn't be parsed</li>
+ *  <li>{@link #getValidationFailures()}: Returns the number of documents rejected before the commit</li>
+ *  <li>{@link #getCommitted()}: Returns the number of documents added to the project</li>
+ *  <li>{@link #getCommitFailures()}: Returns the number of documents rejected by the project</li>
+ *  <li>{@link #getBatches()}: Returns the number of batches applied to the project</li>
+ *  <li>{@link #getQueueDepth()}: Returns the number of documents waiting for the commit</li>
+ *  <li>{@link #getInFlight()}: Returns the number of records not yet committed or dropped</li>
+ *  <li>{@link #getElapsedNanos()}: Returns the time since the service started</li>
+ *  <li>{@link #getThroughput()}: Returns the committed documents per second</li>
+ * </ul>
+ *
+ * <h3>ImportStats</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ImportService#getStats()
+ */
+public class ImportStats {
+    /**
+     * The number of submitted records
+     */
+    private final long submitted;
+    /**
+     * The number of records that couldn't be parsed
+     */
+    private final long parseFailures;
+    /**
+     * The number of documents rejected before the commit
+     */
+    private final long validationFailures;
+    /**
+     * The number of documents added to the project
+     */
+    private final long committed;
+    /**
+     * The number of documents rejected by the project
+     */
+    private final long commitFailures;
+    /**
+     * The number of batches applied to the project
+     */
+    private final long batches;
+    /**
+     * The number of documents waiting for the commit
+     */
+    private final int queueDepth;
+    /**
+     * The number of records not yet committed or dropped
+     */
+    private final long inFlight;
+    /**
+     * The time since the service started, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param submitted the number of submitted records
+     * @param parseFailures the number of records that couldn't be parsed
+     * @param validationFailures the number of documents rejected before the commit
+     * @param committed the number of documents added to the project
+     * @param commitFailures the number of documents rejected by the project
+     * @param batches the number of batches applied to the project
+     * @param queueDepth the number of documents waiting for the commit
+     * @param inFlight the number of records not yet committed or dropped
+     * @param elapsedNanos the time since the service started, in nanoseconds
+     */
+    ImportStats(long submitted, long parseFailures, long validationFailures, long committed, long commitFailures,
+            long batches, int queueDepth, long inFlight, long elapsedNanos) {
+        this.submitted = submitted;
+        this.parseFailures = parseFailures;
+        this.validationFailures = validationFailures;
+        this.committed = committed;
+        this.commitFailures = commitFailures;
+        this.batches = batches;
+        this.queueDepth = queueDepth;
+        this.inFlight = inFlight;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of submitted records.
+     *
+     * @return the number of records
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Returns the number of records the parser threw for or returned null for.
+     *
+     * @return the number of records
+     */
+    public long getParseFailures() {
+        return parseFailures;
+    }
+
+    /**
+     * Returns the number of documents rejected by the admission policy of the service, before the commit.
+     *
+     * @return the number of documents
+     */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    /**
+     * Returns the number of documents added to the project.
+     *
+     * @return the number of documents
+     */
+    public long getCommitted() {
+        return committed;
+    }
+
+    /**
+     * Returns the number of documents rejected by the project.
+     *
+     * @return the number of documents
+     */
+    public long getCommitFailures() {
+        return commitFailures;
+    }
+
+    /**
+     * Returns the number of batches applied to the project.
+     *
+     * @return the number of batches
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Returns the number of parsed documents waiting for the commit stage.
+     *
+     * @return the depth of the commit queue
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns the number of submitted records not yet committed or dropped.
+     *
+     * @return the number of records
+     */
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the time since the service started.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of documents added to the project per second since the service started.
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+        return (elapsedNanos == 0) ? 0 : committed * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "submitted=" + submitted + "\nparseFailures=" + parseFailures + "\nvalidationFailures=" + validationFailures
+                + "\ncommitted=" + committed + "\ncommitFailures=" + commitFailures + "\nbatches=" + batches
+                + "\nqueueDepth=" + queueDepth + "\ninFlight=" + inFlight
+                + "\nthroughput=" + Math.round(getThroughput()) + "/s";
+    }
+}
@@ -0,0 +1,500 @@
+package dev.joseafmoreira.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.project.Project;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Implementation of the {@code IProject} interface that measures the operations of another project. <p>
+ *
+ * Every operation is delegated to the wrapped project and counted, timed into a {@link LatencyHistogram}
+ * of its own and counted as a failure if it throws. The documents rejected with an
+ * {@code InvalidDocumentException}, alone or in a batch, are counted by the rule they broke (see
+ * {@link InvalidDocumentException#getRule()}), or as {@link #UNKNOWN_RULE} if the exception doesn't
+ * name one, so the counters are bounded by the rules of the wrapped project. When the
+ * wrapped project is a {@link Project}, the reallocations of its storage are reported too. <p>
+ *
+ * Recording doesn't allocate (except for the first rejection of each rule) and is thread-safe,
+ * so this project is as thread-safe as the wrapped one. {@link #getMetrics()} returns a snapshot
+ * of the metrics and {@link #resetMetrics()} starts them over.
+ *
+ * <h3>InstrumentedProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ProjectMetrics
+ */
+public class InstrumentedProject implements ManagedProject {
+    /**
+     * The measured operations.
+     */
+    public enum Operation {
+        /**
+         * {@link IProject#add(IDocument)}
+         */
+        ADD,
+        /**
+         * {@link ManagedProject#addAll(IDocument[])}
+         */
+        ADD_ALL,
+        /**
+         * {@link IProject#removeOldVersions()}
+         */
+        REMOVE_OLD_VERSIONS,
+        /**
+         * {@link IProject#remove(IDocument)}
+         */
+        REMOVE,
+        /**
+         * {@link ManagedProject#removeAll(IDocument[])}
+         */
+        REMOVE_ALL,
+        /**
+         * {@link IProject#get(int)}
+         */
+        GET,
+        /**
+         * {@link IProject#getDocumentsByType(DocumentType)}
+         */
+        GET_DOCUMENTS_BY_TYPE,
+        /**
+         * {@link IProject#toArray()}
+         */
+        TO_ARRAY,
+        /**
+         * {@link IProject#contains(IDocument)}
+         */
+        CONTAINS,
+        /**
+         * {@link ManagedProject#search(String)}
+         */
+        SEARCH,
+        /**
+         * {@link IProject#clear()}
+         */
+        CLEAR
+    }
+
+    /**
+     * The rule the documents rejected by an exception not naming one are counted under
+     */
+    public static final String UNKNOWN_RULE = "unknown";
+    /**
+     * The operations, indexed by ordinal
+     */
+    private static final Operation[] OPERATIONS = Operation.values();
+    /**
+     * The measured project
+     */
+    private final ManagedProject project;
+    /**
+     * The number of calls of each operation, indexed by ordinal
+     */
+    private final AtomicLongArray counts;
+    /**
+     * The number of calls of each operation that threw, indexed by ordinal
+     */
+    private final AtomicLongArray failures;
+    /**
+     * The latencies of each operation, indexed by ordinal
+     */
+    private final LatencyHistogram[] latencies;
+    /**
+     * The number of rejected documents, by rule
+     */
+    private final ConcurrentHashMap<String, LongAdder> rejections;
+    /**
+     * The time the metrics started at, in nanoseconds
+     */
+    private volatile long startNanos;
+    /**
+     * The number of reallocations of the storage of the project when the metrics started
+     */
+    private volatile long startResizes;
+    /**
+     * The number of bytes copied by the project when the metrics started
+     */
+    private volatile long startCopiedBytes;
+
+    /**
+     * Constructs an InstrumentedProject measuring the specified project.
+     *
+     * @param project the measured project
+     * @throws NullPointerException if the project is null
+     */
+    public InstrumentedProject(ManagedProject project) throws NullPointerException {
+        if (project == null) throw new NullPointerException("Project is null");
+
+        this.project = project;
+        counts = new AtomicLongArray(OPERATIONS.length);
+        failures = new AtomicLongArray(OPERATIONS.length);
+        latencies = new LatencyHistogram[OPERATIONS.length];
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+        rejections = new ConcurrentHashMap<>();
+        resetMetrics();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            project.add(document);
+            failed = false;
+        } catch (InvalidDocumentException e) {
+            reject(e);
+            throw e;
+        } finally {
+            record(Operation.ADD, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult addAll(IDocument[] documents) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            BatchResult result = project.addAll(documents);
+            if (result.hasFailures())
+                for (RuntimeException failure : result.getFailures()) if (failure instanceof InvalidDocumentException) reject((InvalidDocumentException) failure);
+            failed = false;
+
+            return result;
+        } finally {
+            record(Operation.ADD_ALL, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeOldVersions() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int removed = project.removeOldVersions();
+            failed = false;
+
+            return removed;
+        } finally {
+            record(Operation.REMOVE_OLD_VERSIONS, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            project.remove(document);
+            failed = false;
+        } finally {
+            record(Operation.REMOVE, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult removeAll(IDocument[] documents) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            BatchResult result = project.removeAll(documents);
+            failed = false;
+
+            return result;
+        } finally {
+            record(Operation.REMOVE_ALL, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            IDocument document = project.get(id);
+            failed = false;
+
+            return document;
+        } finally {
+            record(Operation.GET, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the type is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            IDocument[] documents = project.getDocumentsByType(type);
+            failed = false;
+
+            return documents;
+        } finally {
+            record(Operation.GET_DOCUMENTS_BY_TYPE, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            IDocument[] documents = project.toArray();
+            failed = false;
+
+            return documents;
+        } finally {
+            record(Operation.TO_ARRAY, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The traversal isn't measured.
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return project.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean found = project.contains(document);
+            failed = false;
+
+            return found;
+        } finally {
+            record(Operation.CONTAINS, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the feed of the decorated project.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return project.getChangeFeed();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the query is null
+     */
+    @Override
+    public IDocument[] search(String query) throws NullPointerException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            IDocument[] documents = project.search(query);
+            failed = false;
+
+            return documents;
+        } finally {
+            record(Operation.SEARCH, start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return project.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return project.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            project.clear();
+            failed = false;
+        } finally {
+            record(Operation.CLEAR, start, failed);
+        }
+    }
+
+    /**
+     * Returns the measured project.
+     *
+     * @return the measured project
+     */
+    public ManagedProject getProject() {
+        return project;
+    }
+
+    /**
+     * Returns a snapshot of the metrics since this project was made or the metrics were reset.
+     *
+     * @return the metrics
+     */
+    public ProjectMetrics getMetrics() {
+        long[] callCounts = new long[OPERATIONS.length], failureCounts = new long[OPERATIONS.length];
+        LatencyHistogram[] latencyCopies = new LatencyHistogram[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            callCounts[i] = counts.get(i);
+            failureCounts[i] = failures.get(i);
+            latencyCopies[i] = latencies[i].snapshot();
+        }
+        String[] reasons = new String[rejections.size()];
+        long[] rejectionCounts = new long[reasons.length];
+        int count = 0;
+        for (Map.Entry<String, LongAdder> entry : rejections.entrySet()) {
+            // Reasons first seen after the array was sized are left for the next snapshot
+            if (count == reasons.length) break;
+            reasons[count] = entry.getKey();
+            rejectionCounts[count++] = entry.getValue().sum();
+        }
+        long resizes = 0, copiedBytes = 0;
+        if (project instanceof Project) {
+            resizes = ((Project) project).getResizeCount() - startResizes;
+            copiedBytes = ((Project) project).getCopiedBytes() - startCopiedBytes;
+        }
+
+        return new ProjectMetrics(System.nanoTime() - startNanos, callCounts, failureCounts, latencyCopies,
+                Arrays.copyOf(reasons, count), Arrays.copyOf(rejectionCounts, count), resizes, copiedBytes);
+    }
+
+    /**
+     * Starts the metrics over.
+     */
+    public void resetMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            counts.set(i, 0);
+            failures.set(i, 0);
+            latencies[i].reset();
+        }
+        rejections.clear();
+        if (project instanceof Project) {
+            startResizes = ((Project) project).getResizeCount();
+            startCopiedBytes = ((Project) project).getCopiedBytes();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return project.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        return project.equals(((InstrumentedProject) obj).project);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return project.toString();
+    }
+
+    /**
+     * Counts and times a call of an operation.
+     *
+     * @param operation the operation
+     * @param start the time the call started at, in nanoseconds
+     * @param failed whether the call threw
+     */
+    private void record(Operation operation, long start, boolean failed) {
+        int index = operation.ordinal();
+        latencies[index].record(System.nanoTime() - start);
+        counts.incrementAndGet(index);
+        if (failed) failures.incrementAndGet(index);
+    }
+
+    /**
+     * Counts a rejected document under the rule it broke.
+     *
+     * @param rejection the exception it was rejected with
+     */
+    private void reject(InvalidDocumentException rejection) {
+        String rule = (rejection.getRule() == null) ? UNKNOWN_RULE : rejection.getRule();
+        LongAdder counter = rejections.get(rule);
+        if (counter == null) counter = rejections.computeIfAbsent(rule, key -> new LongAdder());
+        counter.increment();
+    }
+}
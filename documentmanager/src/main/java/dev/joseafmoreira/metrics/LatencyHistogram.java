@@ -0,0 +1,213 @@
+package dev.joseafmoreira.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds with a bounded relative error. <p>
+ *
+ * Like HdrHistogram, the values are counted in buckets of exponentially growing width: the values
+ * below {@value #SUB_BUCKETS} have a bucket each, and every following power of two is split in
+ * {@value #SUB_BUCKETS}/2 buckets, so any value is reported within about 3% of its real value.
+ * The buckets of the whole {@code long} range take less than 2 thousand counters, allocated once. <p>
+ *
+ * Recording is thread-safe and doesn't allocate. The queries read the counters without locking,
+ * so a histogram being recorded to should be queried through a {@link #snapshot()}. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #record(long)}: Records a value</li>
+ *  <li>{@link #getCount()}: Returns the number of recorded values</li>
+ *  <li>{@link #getMax()}: Returns the largest recorded value</li>
+ *  <li>{@link #getMean()}: Returns the mean of the recorded values</li>
+ *  <li>{@link #getValueAtPercentile(double)}: Returns the value below which a percentage of the values fall</li>
+ *  <li>{@link #snapshot()}: Returns a copy of this histogram</li>
+ *  <li>{@link #reset()}: Removes every recorded value</li>
+ * </ul>
+ *
+ * <h3>LatencyHistogram</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public class LatencyHistogram {
+    /**
+     * The number of bits of the values that select the bucket within a power of two
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+    /**
+     * The number of values below the first power of two split in buckets
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * The number of buckets of each power of two from {@link #SUB_BUCKETS} on
+     */
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    /**
+     * The number of buckets covering every non-negative {@code long}
+     */
+    private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+    /**
+     * The number of values in each bucket
+     */
+    private final AtomicLongArray counts;
+    /**
+     * The number of recorded values
+     */
+    private final AtomicLong count;
+    /**
+     * The sum of the recorded values
+     */
+    private final AtomicLong sum;
+    /**
+     * The largest recorded value
+     */
+    private final AtomicLong max;
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        count = new AtomicLong();
+        sum = new AtomicLong();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value in nanoseconds
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the largest value in nanoseconds (0 if there's none)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean in nanoseconds (0 if there's none)
+     */
+    public double getMean() {
+        long values = count.get();
+
+        return (values == 0) ? 0 : (double) sum.get() / values;
+    }
+
+    /**
+     * Returns the value below or at which the specified percentage of the recorded values fall,
+     * rounded up to the largest value of its bucket.
+     *
+     * @param percentile the percentage (from 0 to 100)
+     * @return the value in nanoseconds (0 if there's none)
+     * @throws IllegalArgumentException if the percentage is outside [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+        if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValueOf(i), max.get());
+        }
+
+        return max.get();
+    }
+
+    /**
+     * Returns a copy of this histogram. The copy is taken without locking, so the values recorded
+     * while it's taken may be partly included.
+     *
+     * @return the copy
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram();
+        long values = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucket = counts.get(i);
+            copy.counts.set(i, bucket);
+            values += bucket;
+        }
+        copy.count.set(values);
+        copy.sum.set(sum.get());
+        copy.max.set(max.get());
+
+        return copy;
+    }
+
+    /**
+     * Removes every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + Math.round(getMean()) + "ns, p50=" + getValueAtPercentile(50)
+                + "ns, p99=" + getValueAtPercentile(99) + "ns, p99.9=" + getValueAtPercentile(99.9) + "ns, max=" + getMax() + "ns";
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the value (not negative)
+     * @return the bucket
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+
+        return HALF_SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the bucket
+     * @return the largest value
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int shift = bucket / HALF_SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) HALF_SUB_BUCKETS * shift;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
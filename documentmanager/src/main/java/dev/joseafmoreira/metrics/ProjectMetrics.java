@@ -0,0 +1,210 @@
+package dev.joseafmoreira.metrics;
+
+import dev.joseafmoreira.metrics.InstrumentedProject.Operation;
+
+/**
+ * Snapshot of the metrics of an {@link InstrumentedProject}. <p>
+ *
+ * Holds, for each operation, the number of calls, the number of calls that threw and the
+ * distribution of their latencies, along with the number of documents rejected for each rule
+ * and the reallocations of the storage of the project. A snapshot doesn't change after it's taken,
+ * and {@link #toString()} exports it as text, one metric per line. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #getCount(Operation)}: Returns the number of calls of an operation</li>
+ *  <li>{@link #getFailures(Operation)}: Returns the number of calls of an operation that threw</li>
+ *  <li>{@link #getLatency(Operation)}: Returns the latencies of an operation</li>
+ *  <li>{@link #getThroughput(Operation)}: Returns the calls of an operation per second</li>
+ *  <li>{@link #getElapsedNanos()}: Returns the time covered by this snapshot</li>
+ *  <li>{@link #getRejectionReasons()}: Returns the reasons the documents were rejected for</li>
+ *  <li>{@link #getRejections(String)}: Returns the number of documents rejected for a reason</li>
+ *  <li>{@link #getResizeCount()}: Returns the number of reallocations of the storage</li>
+ *  <li>{@link #getCopiedBytes()}: Returns the number of bytes copied by the reallocations</li>
+ * </ul>
+ *
+ * <h3>ProjectMetrics</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see InstrumentedProject
+ */
+public class ProjectMetrics {
+    /**
+     * The time covered by this snapshot in nanoseconds
+     */
+    private final long elapsedNanos;
+    /**
+     * The number of calls of each operation, indexed by ordinal
+     */
+    private final long[] counts;
+    /**
+     * The number of calls of each operation that threw, indexed by ordinal
+     */
+    private final long[] failures;
+    /**
+     * The latencies of each operation, indexed by ordinal
+     */
+    private final LatencyHistogram[] latencies;
+    /**
+     * The reasons the documents were rejected for
+     */
+    private final String[] rejectionReasons;
+    /**
+     * The number of documents rejected for each reason
+     */
+    private final long[] rejections;
+    /**
+     * The number of reallocations of the storage
+     */
+    private final long resizes;
+    /**
+     * The number of bytes copied by the reallocations of the storage
+     */
+    private final long copiedBytes;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param elapsedNanos the time covered by the snapshot in nanoseconds
+     * @param counts the number of calls of each operation
+     * @param failures the number of calls of each operation that threw
+     * @param latencies the copies of the latencies of each operation
+     * @param rejectionReasons the reasons the documents were rejected for
+     * @param rejections the number of documents rejected for each reason
+     * @param resizes the number of reallocations of the storage
+     * @param copiedBytes the number of bytes copied by the reallocations of the storage
+     */
+    ProjectMetrics(long elapsedNanos, long[] counts, long[] failures, LatencyHistogram[] latencies,
+            String[] rejectionReasons, long[] rejections, long resizes, long copiedBytes) {
+        this.elapsedNanos = elapsedNanos;
+        this.counts = counts;
+        this.failures = failures;
+        this.latencies = latencies;
+        this.rejectionReasons = rejectionReasons;
+        this.rejections = rejections;
+        this.resizes = resizes;
+        this.copiedBytes = copiedBytes;
+    }
+
+    /**
+     * Returns the number of calls of an operation.
+     *
+     * @param operation the operation
+     * @return the number of calls
+     * @throws NullPointerException if the operation is null
+     */
+    public long getCount(Operation operation) throws NullPointerException {
+        if (operation == null) throw new NullPointerException("Operation is null");
+
+        return counts[operation.ordinal()];
+    }
+
+    /**
+     * Returns the number of calls of an operation that threw an exception.
+     *
+     * @param operation the operation
+     * @return the number of failed calls
+     * @throws NullPointerException if the operation is null
+     */
+    public long getFailures(Operation operation) throws NullPointerException {
+        if (operation == null) throw new NullPointerException("Operation is null");
+
+        return failures[operation.ordinal()];
+    }
+
+    /**
+     * Returns the latencies of an operation.
+     *
+     * @param operation the operation
+     * @return a copy of the histogram of the latencies
+     * @throws NullPointerException if the operation is null
+     */
+    public LatencyHistogram getLatency(Operation operation) throws NullPointerException {
+        if (operation == null) throw new NullPointerException("Operation is null");
+
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    /**
+     * Returns the average number of calls of an operation per second over the time covered by this snapshot.
+     *
+     * @param operation the operation
+     * @return the calls per second
+     * @throws NullPointerException if the operation is null
+     */
+    public double getThroughput(Operation operation) throws NullPointerException {
+        return (elapsedNanos <= 0) ? 0 : getCount(operation) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the time covered by this snapshot, since the instrumented project was made or reset.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the reasons the documents were rejected for: the names of the rules they broke
+     * (see {@link InstrumentedProject#UNKNOWN_RULE}).
+     *
+     * @return the reasons
+     */
+    public String[] getRejectionReasons() {
+        return rejectionReasons.clone();
+    }
+
+    /**
+     * Returns the number of documents rejected for a reason.
+     *
+     * @param reason the reason (the name of the rule, e.g. {@code AdmissionPolicy.FILE_SIZE})
+     * @return the number of rejected documents (0 if no document was rejected for this reason)
+     */
+    public long getRejections(String reason) {
+        for (int i = 0; i < rejectionReasons.length; i++) if (rejectionReasons[i].equals(reason)) return rejections[i];
+        return 0;
+    }
+
+    /**
+     * Returns the number of times the storage of the project was reallocated to grow
+     * (0 if the project doesn't report it).
+     *
+     * @return the number of reallocations
+     */
+    public long getResizeCount() {
+        return resizes;
+    }
+
+    /**
+     * Returns the number of bytes copied by the reallocations of the storage of the project
+     * (0 if the project doesn't report it).
+     *
+     * @return the number of copied bytes
+     */
+    public long getCopiedBytes() {
+        return copiedBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("elapsed=" + elapsedNanos + "ns\n");
+        for (Operation operation : Operation.values()) {
+            int i = operation.ordinal();
+            if (counts[i] == 0) continue;
+
+            result.append(operation).append(": failures=").append(failures[i])
+                  .append(", throughput=").append(Math.round(getThroughput(operation))).append("/s, ")
+                  .append(latencies[i]).append("\n");
+        }
+        for (int i = 0; i < rejectionReasons.length; i++)
+            result.append("rejected: ").append(rejectionReasons[i]).append(" = ").append(rejections[i]).append("\n");
+        result.append("resizes=").append(resizes).append(", copiedBytes=").append(copiedBytes);
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,780 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.document.DocumentFactory;
+import dev.joseafmoreira.document.DocumentListener;
+import dev.joseafmoreira.exceptions.EmptyProjectException;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.project.Project;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Thread-safe implementation of the {@code IProject} interface whose mutations survive a crash. <p>
+ *
+ * The project is stored in a directory as the latest snapshot ({@code project-<epoch>.dmp},
+ * written by {@link ProjectFile}) and a {@link WriteAheadLog} ({@code project.wal}) with every
+ * mutation since that snapshot: {@link #add(IDocument)}, {@link #remove(IDocument)},
+ * {@link #removeOldVersions()}, {@link #clear()} and the title and type changes of the
+ * {@code Document} instances in this project. A mutation is applied to the project in memory
+ * and appended to the log while holding the write lock, then waits outside of the lock until
+ * the log is on disk, so concurrent mutations share the same fsync. <p>
+ *
+ * {@link #open(Path)} loads the latest snapshot and replays the log on top of it. The documents
+ * are checked against an {@link AdmissionPolicy} given when opening the project, by default
+ * {@link AdmissionPolicy#standard()}, and the same policy must be given on every open for the
+ * snapshot and the log to be accepted again.
+ * {@link #checkpoint()} writes a new snapshot and starts an empty log. Like the documents
+ * themselves, the setters of a document in this project must not race with other accesses. <p>
+ *
+ * Once a write of the log fails, every mutation throws an {@code UncheckedIOException} before
+ * changing the project. The mutations whose own sync failed stay in memory without being
+ * durable, so the project should be closed and reopened to get back to its durable state.
+ *
+ * <h3>DurableProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see WriteAheadLog
+ * @see ProjectFile
+ */
+public class DurableProject implements ManagedProject, Closeable {
+    /**
+     * The name of the log file
+     */
+    private static final String LOG_FILE = "project.wal";
+    /**
+     * The prefix of the snapshot files
+     */
+    private static final String SNAPSHOT_PREFIX = "project-";
+    /**
+     * The extension of the snapshot files
+     */
+    private static final String SNAPSHOT_EXTENSION = ".dmp";
+    /**
+     * The record of an added document
+     */
+    private static final byte ADD = 1;
+    /**
+     * The record of a removed document
+     */
+    private static final byte REMOVE = 2;
+    /**
+     * The record of a removal of old versions
+     */
+    private static final byte REMOVE_OLD_VERSIONS = 3;
+    /**
+     * The record of a cleared project
+     */
+    private static final byte CLEAR = 4;
+    /**
+     * The record of a title change
+     */
+    private static final byte SET_TITLE = 5;
+    /**
+     * The record of a type change
+     */
+    private static final byte SET_TYPE = 6;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The directory of this project
+     */
+    private final Path directory;
+    /**
+     * The project in memory
+     */
+    private final Project project;
+    /**
+     * The documents of the project by id and version, to find the instance a record refers to
+     */
+    private final Map<Long, IDocument> documents;
+    /**
+     * The log of the mutations since the latest snapshot
+     */
+    private final WriteAheadLog log;
+    /**
+     * The lock ordering the mutations of the project with their records in the log
+     */
+    private final ReentrantReadWriteLock lock;
+    /**
+     * The listener logging the title and type changes of the documents in this project
+     */
+    private final DocumentListener observer;
+
+    /**
+     * Constructs a DurableProject over a recovered project and its log.
+     *
+     * @param directory the directory of the project
+     * @param project the recovered project
+     * @param documents the documents of the project by id and version
+     * @param log the log positioned after its last record
+     */
+    private DurableProject(Path directory, Project project, Map<Long, IDocument> documents, WriteAheadLog log) {
+        this.directory = directory;
+        this.project = project;
+        this.documents = documents;
+        this.log = log;
+        lock = new ReentrantReadWriteLock();
+        observer = new MutationObserver();
+        for (IDocument document : documents.values()) watch(document);
+    }
+
+    /**
+     * Opens the durable project stored in a directory with the {@link AdmissionPolicy#standard() standard}
+     * admission policy, creating it if it doesn't exist.
+     * The latest snapshot is loaded and the valid records of the log are replayed on top of it.
+     *
+     * @param directory the directory of the project
+     * @return the recovered project
+     * @throws NullPointerException if the directory is null
+     * @throws InvalidProjectFileException if the snapshot or the log are invalid
+     * @throws IOException if an I/O error occurs
+     */
+    public static DurableProject open(Path directory) throws NullPointerException, IOException {
+        return open(directory, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Opens the durable project stored in a directory with the specified admission policy, creating
+     * it if it doesn't exist.
+     * The latest snapshot is loaded and the valid records of the log are replayed on top of it,
+     * both checked against the policy.
+     *
+     * @param directory the directory of the project
+     * @param policy the rules the documents must follow to be added to the project
+     * @return the recovered project
+     * @throws NullPointerException if the directory or the policy is null
+     * @throws InvalidProjectFileException if the snapshot or the log are invalid
+     * @throws IOException if an I/O error occurs
+     */
+    public static DurableProject open(Path directory, AdmissionPolicy policy) throws NullPointerException, IOException {
+        if (directory == null) throw new NullPointerException("Directory is null");
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        Files.createDirectories(directory);
+        long snapshotEpoch = latestSnapshotEpoch(directory);
+        Project project = (snapshotEpoch < 0) ? new Project(policy) : ProjectFile.read(snapshotPath(directory, snapshotEpoch), policy);
+        Map<Long, IDocument> documents = new HashMap<>();
+        for (IDocument document : project.toArray()) documents.put(key(document.getId(), document.getVersion()), document);
+        WriteAheadLog log = new WriteAheadLog(directory.resolve(LOG_FILE), Math.max(snapshotEpoch, 0));
+        try {
+            if (log.getEpoch() > Math.max(snapshotEpoch, 0)) {
+                throw new InvalidProjectFileException("Project log is newer than the latest snapshot");
+            } else if (log.getEpoch() == Math.max(snapshotEpoch, 0)) {
+                log.replay(record -> replay(project, documents, record));
+            } else {
+                // The log was written before the snapshot, which already has its records
+                log.reset(Math.max(snapshotEpoch, 0));
+            }
+        } catch (UncheckedIOException e) {
+            log.close();
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+
+        return new DurableProject(directory, project, documents, log);
+    }
+
+    /**
+     * Writes a snapshot of this project and discards the log. Blocks the mutations while running.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void checkpoint() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long epoch = log.getEpoch() + 1;
+            ProjectFile.write(project, snapshotPath(directory, epoch));
+            log.reset(epoch);
+            Files.deleteIfExists(snapshotPath(directory, epoch - 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        long position;
+        lock.writeLock().lock();
+        try {
+            checkLog();
+            project.add(document);
+            documents.put(key(document.getId(), document.getVersion()), document);
+            watch(document);
+            position = log.append(documentRecord(ADD, document));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The records of the whole batch are made durable with a single sync.
+     *
+     * @throws NullPointerException if the batch is null
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    @Override
+    public BatchResult addAll(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        BatchResult result;
+        long position = 0;
+        lock.writeLock().lock();
+        try {
+            checkLog();
+            result = project.addAll(documents);
+            int[] failedIndexes = result.getFailedIndexes();
+            for (int i = 0, j = 0; i < documents.length; i++) {
+                if (j < failedIndexes.length && failedIndexes[j] == i) {
+                    j++;
+                    continue;
+                }
+                this.documents.put(key(documents[i].getId(), documents[i].getVersion()), documents[i]);
+                watch(documents[i]);
+                position = log.append(documentRecord(ADD, documents[i]));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(position);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    @Override
+    public int removeOldVersions() {
+        int removedVersions;
+        long position;
+        lock.writeLock().lock();
+        try {
+            checkLog();
+            removedVersions = project.removeOldVersions();
+            position = log.append(new byte[] { REMOVE_OLD_VERSIONS });
+            if (removedVersions > 0) {
+                documents.values().removeIf(document -> {
+                    if (project.contains(document)) return false;
+                    unwatch(document);
+                    return true;
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(position);
+
+        return removedVersions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        long position;
+        lock.writeLock().lock();
+        try {
+            checkLog();
+            project.remove(document);
+            IDocument removed = documents.remove(key(document.getId(), document.getVersion()));
+            unwatch(removed);
+            position = log.append(documentRecord(REMOVE, removed));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        lock.readLock().lock();
+        try {
+            return project.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        lock.readLock().lock();
+        try {
+            return project.getDocumentsByType(type);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        lock.readLock().lock();
+        try {
+            return project.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        lock.readLock().lock();
+        try {
+            return project.contains(document);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return project.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    @Override
+    public void clear() {
+        long position;
+        lock.writeLock().lock();
+        try {
+            checkLog();
+            for (IDocument document : documents.values()) unwatch(document);
+            documents.clear();
+            project.clear();
+            position = log.append(new byte[] { CLEAR });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        sync(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The events are published by the writers while they hold the lock of this project, before
+     * their records are synced, so a subscriber may see a change that a crash later loses.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        lock.writeLock().lock();
+        try {
+            return project.getChangeFeed();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the pending records and closes the log of this project.
+     * This project must not be used afterwards.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (IDocument document : documents.values()) unwatch(document);
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        lock.readLock().lock();
+        try {
+            return project.hashCode();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        DurableProject otherProject = (DurableProject) obj;
+        return project.equals(otherProject.project);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return project.toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Throws if a write of the log failed, so a mutation is rejected before changing the project.
+     *
+     * @throws UncheckedIOException if the log failed
+     */
+    private void checkLog() throws UncheckedIOException {
+        try {
+            log.checkFailure();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Project log has failed", e);
+        }
+    }
+
+    /**
+     * Blocks until the log is durable up to the specified position.
+     *
+     * @param position the position
+     * @throws UncheckedIOException if the log can't be written or already failed
+     */
+    private void sync(long position) throws UncheckedIOException {
+        try {
+            log.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the project log", e);
+        }
+    }
+
+    /**
+     * Starts logging the title and type changes of a document.
+     *
+     * @param document the document
+     */
+    private void watch(IDocument document) {
+        if (document instanceof Document) ((Document) document).addListener(observer);
+    }
+
+    /**
+     * Stops logging the title and type changes of a document.
+     *
+     * @param document the document
+     */
+    private void unwatch(IDocument document) {
+        if (document instanceof Document) ((Document) document).removeListener(observer);
+    }
+
+    /**
+     * Applies a record of the log to a project being recovered. The log only holds the mutations
+     * made after its snapshot, so every record applies; the only records skipped are the title and
+     * type changes of a document removed before they were logged.
+     *
+     * @param project the project
+     * @param documents the documents of the project by id and version
+     * @param record the payload of the record
+     * @throws UncheckedIOException if the record is invalid or doesn't apply to the project
+     */
+    private static void replay(Project project, Map<Long, IDocument> documents, ByteBuffer record) throws UncheckedIOException {
+        byte operation = record.get();
+        try {
+            switch (operation) {
+                case ADD -> {
+                    IDocument document = readDocument(record);
+                    project.add(document);
+                    documents.put(key(document.getId(), document.getVersion()), document);
+                }
+                case REMOVE -> {
+                    // The instance is found by id and version, its title may have changed since it was logged
+                    IDocument logged = readDocument(record), document = documents.remove(key(logged.getId(), logged.getVersion()));
+                    if (document == null) throw new NoSuchElementException("Document not found");
+                    project.remove(document);
+                }
+                case REMOVE_OLD_VERSIONS -> {
+                    project.removeOldVersions();
+                    documents.values().removeIf(document -> !project.contains(document));
+                }
+                case CLEAR -> {
+                    project.clear();
+                    documents.clear();
+                }
+                case SET_TITLE -> {
+                    IDocument document = documents.get(key(record.getInt(), record.getInt()));
+                    String title = readString(record);
+                    if (document != null) document.setTitle(title);
+                }
+                case SET_TYPE -> {
+                    IDocument document = documents.get(key(record.getInt(), record.getInt()));
+                    byte type = record.get();
+                    if (document != null) document.setType((type < 0) ? null : TYPES[type]);
+                }
+                default -> throw new UncheckedIOException(new InvalidProjectFileException("Unknown log record " + operation));
+            }
+        } catch (InvalidDocumentException | NoSuchElementException e) {
+            throw new UncheckedIOException(new InvalidProjectFileException("Project log doesn't apply to the snapshot: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Encodes a record holding a document.
+     *
+     * @param operation the operation of the record
+     * @param document the document
+     * @return the payload of the record
+     */
+    private static byte[] documentRecord(byte operation, IDocument document) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(operation);
+            output.writeInt(document.getId());
+            output.writeInt(document.getVersion());
+            output.writeInt(document.getFileSizeMb());
+            output.writeByte((document.getType() == null) ? -1 : document.getType().ordinal());
+            writeString(output, document.getTitle());
+            writeString(output, document.getFileName());
+            writeString(output, document.getFileExtension());
+
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a document from a record, sharing its strings with the other replayed documents.
+     *
+     * @param record the payload of the record, positioned after the operation
+     * @return the document
+     */
+    private static IDocument readDocument(ByteBuffer record) {
+        int id = record.getInt(), version = record.getInt(), fileSizeMb = record.getInt();
+        byte type = record.get();
+        String title = readString(record), fileName = readString(record), fileExtension = readString(record);
+
+        return DocumentFactory.shared().create(id, title, version, fileName, (type < 0) ? null : TYPES[type], fileSizeMb, fileExtension);
+    }
+
+    /**
+     * Encodes a nullable string as its UTF-8 length (-1 for null) followed by its UTF-8 bytes.
+     *
+     * @param output the output
+     * @param string the string
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Decodes a nullable string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param record the record
+     * @return the string
+     */
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) return null;
+
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the key of a document by id and version.
+     *
+     * @param id the id
+     * @param version the version
+     * @return the key
+     */
+    private static long key(int id, int version) {
+        return ((long) id << 32) | (version & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the path of the snapshot of an epoch.
+     *
+     * @param directory the directory of the project
+     * @param epoch the epoch
+     * @return the path of the snapshot
+     */
+    private static Path snapshotPath(Path directory, long epoch) {
+        return directory.resolve(SNAPSHOT_PREFIX + epoch + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Returns the epoch of the latest snapshot in a directory.
+     *
+     * @param directory the directory of the project
+     * @return the epoch of the latest snapshot or -1 if there's none
+     * @throws IOException if an I/O error occurs
+     */
+    private static long latestSnapshotEpoch(Path directory) throws IOException {
+        long epoch = -1;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(SNAPSHOT_EXTENSION)) continue;
+                try {
+                    epoch = Math.max(epoch, Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // Not a snapshot of this project
+                }
+            }
+        }
+
+        return epoch;
+    }
+
+    /**
+     * Logs the title and type changes of the documents in this project.
+     */
+    private class MutationObserver implements DocumentListener {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void titleChanged(IDocument document, String oldTitle) {
+            if (!isCurrent(document)) return;
+
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+                DataOutputStream output = new DataOutputStream(bytes);
+                output.writeByte(SET_TITLE);
+                output.writeInt(document.getId());
+                output.writeInt(document.getVersion());
+                writeString(output, document.getTitle());
+                append(bytes.toByteArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void typeChanged(IDocument document, DocumentType oldType) {
+            if (!isCurrent(document)) return;
+
+            ByteBuffer record = ByteBuffer.allocate(10);
+            record.put(SET_TYPE).putInt(document.getId()).putInt(document.getVersion());
+            record.put((byte) ((document.getType() == null) ? -1 : document.getType().ordinal()));
+            append(record.array());
+        }
+
+        /**
+         * Checks if a document is still in this project.
+         *
+         * @param document the document
+         * @return true if the document instance is in this project, false otherwise
+         */
+        private boolean isCurrent(IDocument document) {
+            lock.readLock().lock();
+            try {
+                return documents.get(key(document.getId(), document.getVersion())) == document;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Appends a record to the log and waits until it's durable.
+         *
+         * @param record the payload of the record
+         */
+        private void append(byte[] record) {
+            long position;
+            lock.writeLock().lock();
+            try {
+                position = log.append(record);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            sync(position);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.project.Project;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Exports and imports projects as manifest files, in one of the text {@link ManifestFormat}s. <p>
+ *
+ * Unlike a {@link ProjectFile}, a manifest file is meant to be exchanged with other tools, so it
+ * may hold documents a project rejects. The documents are streamed between the project and the
+ * file by a {@link ManifestWriter} and a {@link ManifestReader}, so neither the project nor the
+ * file is ever copied as a whole. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #write(IProject, Path, ManifestFormat)}: Writes a project to a manifest file</li>
+ *  <li>{@link #read(Path, ManifestFormat)}: Reads a manifest file into a new project</li>
+ *  <li>{@link #readInto(Path, ManifestFormat, ManagedProject)}: Adds the documents of a manifest file to a project</li>
+ * </ul>
+ *
+ * <h3>ManifestFile</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ManifestFormat
+ */
+public final class ManifestFile {
+    /**
+     * Not instantiable.
+     */
+    private ManifestFile() {
+    }
+
+    /**
+     * Writes a project to a manifest file, replacing it if it exists. The file is first written
+     * next to the target and then moved over it, so a failed write never leaves a truncated
+     * manifest behind.
+     *
+     * @param project the project to be written
+     * @param path the path of the file
+     * @param format the format of the manifest
+     * @return the number of written documents
+     * @throws NullPointerException if the project, the path or the format is null
+     * @throws IOException if an I/O error occurs
+     */
+    public static long write(IProject project, Path path, ManifestFormat format) throws NullPointerException, IOException {
+        if (project == null) throw new NullPointerException("Project is null");
+        if (path == null) throw new NullPointerException("Path is null");
+        if (format == null) throw new NullPointerException("Format is null");
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ManifestWriter writer = new ManifestWriter(channel, format)) {
+            count = writer.writeAll(project);
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return count;
+    }
+
+    /**
+     * Reads a manifest file into a new project.
+     *
+     * @param path the path of the file
+     * @param format the format of the manifest
+     * @return a new project with the documents of the file
+     * @throws NullPointerException if the path or the format is null
+     * @throws InvalidProjectFileException if the file can't be parsed or the project rejects one of its documents
+     * @throws IOException if an I/O error occurs
+     */
+    public static Project read(Path path, ManifestFormat format) throws NullPointerException, IOException {
+        Project project = new Project();
+        BatchResult result = readInto(path, format, project);
+        if (result.hasFailures()) throw new InvalidProjectFileException("Manifest file has invalid documents: " + result.getFailures()[0].getMessage());
+
+        return project;
+    }
+
+    /**
+     * Adds the documents of a manifest file to a project. The documents the project rejects are
+     * recorded in the result, at the index of their record in the file.
+     *
+     * @param path the path of the file
+     * @param format the format of the manifest
+     * @param project the project
+     * @return the result of the documents added to the project
+     * @throws NullPointerException if the path, the format or the project is null
+     * @throws InvalidProjectFileException if the file can't be parsed, the documents before the
+     *         invalid record are added
+     * @throws IOException if an I/O error occurs
+     */
+    public static BatchResult readInto(Path path, ManifestFormat format, ManagedProject project) throws NullPointerException, IOException {
+        if (path == null) throw new NullPointerException("Path is null");
+        if (format == null) throw new NullPointerException("Format is null");
+        if (project == null) throw new NullPointerException("Project is null");
+
+        try (ManifestReader reader = new ManifestReader(FileChannel.open(path, StandardOpenOption.READ), format)) {
+            return reader.readInto(project);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package dev.joseafmoreira.persistence;
+
+/**
+ * The text formats of a document manifest, used to exchange the documents of a project
+ * with other tools. <p>
+ *
+ * Both formats are UTF-8 encoded, hold one document per record and name the attributes
+ * {@code id}, {@code title}, {@code version}, {@code fileName}, {@code type}, {@code fileSizeMb}
+ * and {@code fileExtension}. The type is written as the name of its constant (e.g. {@code MACHINE})
+ * and read ignoring the case, so the display names are read as well. <p>
+ *
+ * The available formats are the following: <p>
+ * <ul>
+ *  <li>{@link #CSV}: Comma-separated values with a header line</li>
+ *  <li>{@link #JSON_LINES}: One JSON object per line</li>
+ * </ul>
+ *
+ * <h3>ManifestFormat</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ManifestFile
+ */
+public enum ManifestFormat {
+    /**
+     * Comma-separated values (RFC 4180). The first line names the columns, which may come in any
+     * order, and the unknown columns are ignored. A field holding a comma, a quote or a line break
+     * is quoted, with its quotes doubled. An empty field is a null string, while a quoted empty
+     * field ({@code ""}) is an empty string.
+     */
+    CSV,
+    /**
+     * JSON Lines: every line holds a JSON object with the attributes of a document as its members,
+     * in any order. A null string or type is written as {@code null}, and the unknown members are ignored.
+     */
+    JSON_LINES;
+
+    /**
+     * The index of the id among the attributes
+     */
+    static final int ID = 0;
+    /**
+     * The index of the title among the attributes
+     */
+    static final int TITLE = 1;
+    /**
+     * The index of the version among the attributes
+     */
+    static final int VERSION = 2;
+    /**
+     * The index of the file name among the attributes
+     */
+    static final int FILE_NAME = 3;
+    /**
+     * The index of the type among the attributes
+     */
+    static final int TYPE = 4;
+    /**
+     * The index of the file size among the attributes
+     */
+    static final int FILE_SIZE = 5;
+    /**
+     * The index of the file extension among the attributes
+     */
+    static final int FILE_EXTENSION = 6;
+    /**
+     * The names of the attributes, in the order they're written
+     */
+    static final String[] ATTRIBUTES = { "id", "title", "version", "fileName", "type", "fileSizeMb", "fileExtension" };
+}
@@ -0,0 +1,848 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.document.DocumentFactory;
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.ManagedProject;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Reads documents from a channel holding a manifest in one of the {@link ManifestFormat}s. <p>
+ *
+ * The manifest is parsed straight from a single buffer, refilled from the channel whenever it's
+ * consumed: the numbers are accumulated digit by digit, the strings are decoded from UTF-8 into a
+ * reused character array and the attributes go directly into a document, without building a row or
+ * a JSON tree first. The strings go through a {@link DocumentFactory}, and the strings of the last
+ * records are kept, so a string repeated across the records, such as the file extension, is neither
+ * allocated nor interned again. <p>
+ *
+ * The channel must be blocking. A manifest that can't be parsed makes the reader throw an
+ * {@link InvalidProjectFileException} with the line of the record. A reader isn't thread-safe. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #read()}: Reads the next document</li>
+ *  <li>{@link #readInto(ManagedProject)}: Adds the remaining documents to a project</li>
+ *  <li>{@link #getCount()}: Returns the number of read documents</li>
+ *  <li>{@link #getLine()}: Returns the line the reader is at</li>
+ *  <li>{@link #close()}: Closes the channel</li>
+ * </ul>
+ *
+ * <h3>ManifestReader</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ManifestWriter
+ */
+public class ManifestReader implements Closeable {
+    /**
+     * The default size of the buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    /**
+     * The maximum number of documents added to a project at once
+     */
+    public static final int BATCH_SIZE = 1 << 9;
+    /**
+     * The number of strings kept from the last records (a power of two)
+     */
+    private static final int RECENT_STRINGS = 1 << 8;
+    /**
+     * The attributes every record must have, a bit per attribute
+     */
+    private static final int REQUIRED = (1 << ManifestFormat.ID) | (1 << ManifestFormat.VERSION) | (1 << ManifestFormat.FILE_SIZE);
+    /**
+     * The types
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The channel the manifest is read from
+     */
+    private final ReadableByteChannel channel;
+    /**
+     * The format of the manifest
+     */
+    private final ManifestFormat format;
+    /**
+     * The factory sharing the strings of the documents
+     */
+    private final DocumentFactory factory;
+    /**
+     * The buffer wrapping the bytes
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The bytes read from the channel
+     */
+    private final byte[] bytes;
+    /**
+     * The index of the next byte to be parsed
+     */
+    private int position;
+    /**
+     * The number of bytes read from the channel into the buffer
+     */
+    private int limit;
+    /**
+     * Whether the end of the channel was reached
+     */
+    private boolean endOfInput;
+    /**
+     * The characters of the string being parsed
+     */
+    private char[] chars;
+    /**
+     * The number of characters of the string being parsed
+     */
+    private int length;
+    /**
+     * The strings of the last records, by hash
+     */
+    private final String[] recentStrings;
+    /**
+     * The attribute of every CSV column (-1 for an unknown column), null until the header is read
+     */
+    private int[] columns;
+    /**
+     * The line the reader is at
+     */
+    private long line;
+    /**
+     * The line the record being parsed starts at
+     */
+    private long recordLine;
+    /**
+     * The number of read documents
+     */
+    private long count;
+    /**
+     * The attributes found in the record being parsed, a bit per attribute
+     */
+    private int found;
+    /**
+     * The id of the record being parsed
+     */
+    private int id;
+    /**
+     * The title of the record being parsed
+     */
+    private String title;
+    /**
+     * The version of the record being parsed
+     */
+    private int version;
+    /**
+     * The file name of the record being parsed
+     */
+    private String fileName;
+    /**
+     * The type of the record being parsed
+     */
+    private DocumentType type;
+    /**
+     * The file size in MB of the record being parsed
+     */
+    private int fileSizeMb;
+    /**
+     * The file extension of the record being parsed
+     */
+    private String fileExtension;
+
+    /**
+     * Constructs a ManifestReader reading from a channel with a default buffer size and the
+     * shared document factory.
+     *
+     * @param channel the channel
+     * @param format the format of the manifest
+     * @throws NullPointerException if the channel or the format is null
+     */
+    public ManifestReader(ReadableByteChannel channel, ManifestFormat format) throws NullPointerException {
+        this(channel, format, DocumentFactory.shared(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a ManifestReader reading from a channel.
+     *
+     * @param channel the channel
+     * @param format the format of the manifest
+     * @param factory the factory sharing the strings of the documents
+     * @param bufferSize the size of the buffer in bytes (Minimum value is 64)
+     * @throws NullPointerException if the channel, the format or the factory is null
+     */
+    public ManifestReader(ReadableByteChannel channel, ManifestFormat format, DocumentFactory factory, int bufferSize) throws NullPointerException {
+        if (channel == null) throw new NullPointerException("Channel is null");
+        if (format == null) throw new NullPointerException("Format is null");
+        if (factory == null) throw new NullPointerException("Factory is null");
+
+        this.channel = channel;
+        this.format = format;
+        this.factory = factory;
+        buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+        bytes = buffer.array();
+        position = 0;
+        limit = 0;
+        endOfInput = false;
+        chars = new char[64];
+        length = 0;
+        recentStrings = new String[RECENT_STRINGS];
+        columns = null;
+        line = 1;
+        recordLine = 1;
+        count = 0;
+    }
+
+    /**
+     * Reads the next document of the manifest.
+     *
+     * @return the document or null if the end of the manifest was reached
+     * @throws InvalidProjectFileException if the record can't be parsed
+     * @throws IOException if an I/O error occurs
+     */
+    public Document read() throws IOException {
+        if (position == 0 && limit == 0 && !endOfInput) skipByteOrderMark();
+        found = 0;
+        title = null;
+        fileName = null;
+        type = null;
+        fileExtension = null;
+        boolean record = (format == ManifestFormat.CSV) ? readCsvRecord() : readJsonRecord();
+        if (!record) return null;
+
+        if ((found & REQUIRED) != REQUIRED) throw invalid("Record has no " + ManifestFormat.ATTRIBUTES[Integer.numberOfTrailingZeros(REQUIRED & ~found)]);
+        count++;
+
+        // The strings are already shared through the factory by string()
+        return new Document(id, title, version, fileName, type, fileSizeMb, fileExtension);
+    }
+
+    /**
+     * Adds the remaining documents of the manifest to a project, in batches. A document rejected
+     * by the project is recorded in the result, at the index of its record among the read ones.
+     *
+     * @param project the project
+     * @return the result of the documents added to the project
+     * @throws NullPointerException if the project is null
+     * @throws InvalidProjectFileException if a record can't be parsed, the documents of the
+     *         records before it are added
+     * @throws IOException if an I/O error occurs
+     */
+    public BatchResult readInto(ManagedProject project) throws NullPointerException, IOException {
+        if (project == null) throw new NullPointerException("Project is null");
+
+        BatchResult result = new BatchResult();
+        IDocument[] batch = new IDocument[BATCH_SIZE];
+        int batchCount = 0;
+        try {
+            for (Document document = read(); document != null; document = read()) {
+                batch[batchCount++] = document;
+                if (batchCount == BATCH_SIZE) {
+                    add(project, batch, batchCount, result);
+                    batchCount = 0;
+                }
+            }
+        } finally {
+            if (batchCount > 0) add(project, Arrays.copyOf(batch, batchCount), batchCount, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of documents read by this reader.
+     *
+     * @return the number of documents
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the line of the manifest the reader is at, starting at 1.
+     *
+     * @return the line
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Closes the channel. Closing a closed reader has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Adds a batch of documents to a project and records the outcome.
+     *
+     * @param project the project
+     * @param batch the documents
+     * @param batchCount the number of documents
+     * @param result the result the outcome is recorded in
+     */
+    private void add(ManagedProject project, IDocument[] batch, int batchCount, BatchResult result) {
+        BatchResult batchResult = project.addAll(batch);
+        long first = count - batchCount;
+        for (int i = 0; i < batchResult.getSucceeded(); i++) result.addSuccess();
+        int[] failedIndexes = batchResult.getFailedIndexes();
+        IDocument[] failedDocuments = batchResult.getFailedDocuments();
+        RuntimeException[] failures = batchResult.getFailures();
+        for (int i = 0; i < failedIndexes.length; i++) {
+            result.addFailure((int) (first + failedIndexes[i]), failedDocuments[i], failures[i]);
+        }
+    }
+
+    /**
+     * Reads the next CSV record into the attributes, reading the header first if it isn't read yet.
+     *
+     * @return true if a record was read, false if the end of the manifest was reached
+     * @throws InvalidProjectFileException if the record can't be parsed
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean readCsvRecord() throws IOException {
+        if (columns == null) {
+            if (!skipBlankLines()) return false;
+            readCsvHeader();
+        }
+        if (!skipBlankLines()) return false;
+
+        recordLine = line;
+        int column = 0;
+        while (true) {
+            boolean quoted = readCsvField();
+            int attribute = (column < columns.length) ? columns[column] : -1;
+            if (attribute >= 0) {
+                found |= 1 << attribute;
+                switch (attribute) {
+                    case ManifestFormat.ID -> id = parseInt(attribute);
+                    case ManifestFormat.VERSION -> version = parseInt(attribute);
+                    case ManifestFormat.FILE_SIZE -> fileSizeMb = parseInt(attribute);
+                    case ManifestFormat.TYPE -> type = (length == 0 && !quoted) ? null : parseType();
+                    default -> {
+                        String string = (length == 0 && !quoted) ? null : string();
+                        if (attribute == ManifestFormat.TITLE) title = string;
+                        else if (attribute == ManifestFormat.FILE_NAME) fileName = string;
+                        else fileExtension = string;
+                    }
+                }
+            }
+            column++;
+            if (!endOfLine()) continue;
+
+            return true;
+        }
+    }
+
+    /**
+     * Reads the CSV header, mapping every column to its attribute.
+     *
+     * @throws InvalidProjectFileException if the header lacks a required column or repeats a column
+     * @throws IOException if an I/O error occurs
+     */
+    private void readCsvHeader() throws IOException {
+        recordLine = line;
+        int[] header = new int[ManifestFormat.ATTRIBUTES.length];
+        int columnCount = 0, headerFound = 0;
+        do {
+            readCsvField();
+            int attribute = attribute();
+            if (attribute >= 0) {
+                if ((headerFound & (1 << attribute)) != 0) throw invalid("Header repeats the column " + ManifestFormat.ATTRIBUTES[attribute]);
+                headerFound |= 1 << attribute;
+            }
+            if (columnCount == header.length) header = Arrays.copyOf(header, columnCount * 2);
+            header[columnCount++] = attribute;
+        } while (!endOfLine());
+
+        if ((headerFound & REQUIRED) != REQUIRED) {
+            throw invalid("Header has no " + ManifestFormat.ATTRIBUTES[Integer.numberOfTrailingZeros(REQUIRED & ~headerFound)] + " column");
+        }
+        columns = Arrays.copyOf(header, columnCount);
+    }
+
+    /**
+     * Reads a CSV field into the characters, unquoting it if it's quoted.
+     *
+     * @return true if the field is quoted
+     * @throws InvalidProjectFileException if a quoted field isn't terminated
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean readCsvField() throws IOException {
+        length = 0;
+        if (peek() != '"') {
+            while (true) {
+                if (position == limit && !fill()) return false;
+                int b = bytes[position];
+                if (b == ',' || b == '\n' || b == '\r') return false;
+                position++;
+                if (b >= 0) append((char) b);
+                else decodeUtf8(b & 0xFF);
+            }
+        }
+
+        position++;
+        while (true) {
+            if (position == limit && !fill()) throw invalid("Quoted field isn't terminated");
+            int b = bytes[position++];
+            if (b == '"') {
+                if (peek() != '"') break;
+                position++;
+            } else if (b == '\n') {
+                line++;
+            }
+            if (b >= 0) append((char) b);
+            else decodeUtf8(b & 0xFF);
+        }
+        int next = peek();
+        if (next != ',' && next != '\n' && next != '\r' && next != -1) throw invalid("Quoted field is followed by text");
+
+        return true;
+    }
+
+    /**
+     * Consumes the separator after a CSV field.
+     *
+     * @return true if the field ends the line, false if another field follows
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean endOfLine() throws IOException {
+        int b = next();
+        if (b == ',') return false;
+        if (b == '\r' && peek() == '\n') position++;
+        if (b != -1) line++;
+
+        return true;
+    }
+
+    /**
+     * Skips the blank lines before the next record.
+     *
+     * @return true if a record follows, false if the end of the manifest was reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean skipBlankLines() throws IOException {
+        while (true) {
+            int b = peek();
+            if (b == -1) return false;
+            if (b != '\n' && b != '\r') return true;
+
+            position++;
+            if (b == '\n') line++;
+        }
+    }
+
+    /**
+     * Reads the next JSON Lines record into the attributes.
+     *
+     * @return true if a record was read, false if the end of the manifest was reached
+     * @throws InvalidProjectFileException if the record can't be parsed
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean readJsonRecord() throws IOException {
+        skipWhitespace();
+        recordLine = line;
+        int b = next();
+        if (b == -1) return false;
+        if (b != '{') throw invalid("Record isn't a JSON object");
+
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return true;
+        }
+        while (true) {
+            if (next() != '"') throw invalid("Member name isn't a string");
+            readJsonString();
+            int attribute = attribute();
+            skipWhitespace();
+            if (next() != ':') throw invalid("Member name isn't followed by a colon");
+            skipWhitespace();
+            if (attribute >= 0) found |= 1 << attribute;
+            switch (attribute) {
+                case ManifestFormat.ID -> id = readJsonInt(attribute);
+                case ManifestFormat.VERSION -> version = readJsonInt(attribute);
+                case ManifestFormat.FILE_SIZE -> fileSizeMb = readJsonInt(attribute);
+                case ManifestFormat.TYPE -> type = readJsonNull() ? null : readJsonType();
+                case ManifestFormat.TITLE -> title = readJsonNull() ? null : readJsonStringValue();
+                case ManifestFormat.FILE_NAME -> fileName = readJsonNull() ? null : readJsonStringValue();
+                case ManifestFormat.FILE_EXTENSION -> fileExtension = readJsonNull() ? null : readJsonStringValue();
+                default -> skipJsonValue();
+            }
+            skipWhitespace();
+            b = next();
+            if (b == '}') return true;
+            if (b != ',') throw invalid("Member isn't followed by a comma or the end of the object");
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * Reads a JSON string into the characters, after its opening quote, unescaping it.
+     *
+     * @throws InvalidProjectFileException if the string is malformed
+     * @throws IOException if an I/O error occurs
+     */
+    private void readJsonString() throws IOException {
+        length = 0;
+        while (true) {
+            if (position == limit && !fill()) throw invalid("String isn't terminated");
+            int b = bytes[position++];
+            if (b == '"') return;
+            if (b < 0) decodeUtf8(b & 0xFF);
+            else if (b < 0x20) throw invalid("String has a control character");
+            else if (b != '\\') append((char) b);
+            else {
+                switch (next()) {
+                    case '"' -> append('"');
+                    case '\\' -> append('\\');
+                    case '/' -> append('/');
+                    case 'b' -> append('\b');
+                    case 'f' -> append('\f');
+                    case 'n' -> append('\n');
+                    case 'r' -> append('\r');
+                    case 't' -> append('\t');
+                    case 'u' -> {
+                        int c = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(next(), 16);
+                            if (digit < 0) throw invalid("String has an invalid unicode escape");
+                            c = (c << 4) | digit;
+                        }
+                        append((char) c);
+                    }
+                    default -> throw invalid("String has an invalid escape");
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON string value and returns it.
+     *
+     * @return the string
+     * @throws InvalidProjectFileException if the value isn't a string
+     * @throws IOException if an I/O error occurs
+     */
+    private String readJsonStringValue() throws IOException {
+        if (next() != '"') throw invalid("Value isn't a string");
+        readJsonString();
+
+        return string();
+    }
+
+    /**
+     * Reads a JSON type value and returns it.
+     *
+     * @return the type
+     * @throws InvalidProjectFileException if the value isn't the name of a type
+     * @throws IOException if an I/O error occurs
+     */
+    private DocumentType readJsonType() throws IOException {
+        if (next() != '"') throw invalid("Type isn't a string");
+        readJsonString();
+
+        return parseType();
+    }
+
+    /**
+     * Reads a JSON integer value and returns it.
+     *
+     * @param attribute the index of the attribute
+     * @return the integer
+     * @throws InvalidProjectFileException if the value isn't an integer in the range of an int
+     * @throws IOException if an I/O error occurs
+     */
+    private int readJsonInt(int attribute) throws IOException {
+        boolean negative = peek() == '-';
+        if (negative) position++;
+        long value = 0;
+        int digits = 0;
+        for (int b = peek(); b >= '0' && b <= '9'; b = peek()) {
+            position++;
+            value = value * 10 + (b - '0');
+            if (++digits > 10) break;
+        }
+        int b = peek();
+        if (digits == 0 || digits > 10 || b == '.' || b == 'e' || b == 'E') throw invalid("Record has an invalid " + ManifestFormat.ATTRIBUTES[attribute]);
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw invalid("Record has an invalid " + ManifestFormat.ATTRIBUTES[attribute]);
+
+        return (int) value;
+    }
+
+    /**
+     * Reads the JSON null literal if it's the next value.
+     *
+     * @return true if the value is null
+     * @throws InvalidProjectFileException if the value is a malformed literal
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean readJsonNull() throws IOException {
+        if (peek() != 'n') return false;
+
+        position++;
+        if (next() != 'u' || next() != 'l' || next() != 'l') throw invalid("Value is an invalid literal");
+
+        return true;
+    }
+
+    /**
+     * Skips a JSON value of any kind, e.g. the value of an unknown member.
+     *
+     * @throws InvalidProjectFileException if the value isn't terminated
+     * @throws IOException if an I/O error occurs
+     */
+    private void skipJsonValue() throws IOException {
+        int depth = 0;
+        while (true) {
+            int b = peek();
+            if (b == -1) throw invalid("Value isn't terminated");
+            if (depth == 0 && (b == ',' || b == '}' || b == ']')) return;
+
+            position++;
+            if (b == '"') readJsonString();
+            else if (b == '{' || b == '[') depth++;
+            else if (b == '}' || b == ']') depth--;
+            else if (b == '\n') line++;
+        }
+    }
+
+    /**
+     * Skips the JSON whitespace, counting the lines.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            int b = peek();
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return;
+
+            position++;
+            if (b == '\n') line++;
+        }
+    }
+
+    /**
+     * Parses the characters as an int.
+     *
+     * @param attribute the index of the attribute
+     * @return the int
+     * @throws InvalidProjectFileException if the characters aren't an int
+     */
+    private int parseInt(int attribute) throws InvalidProjectFileException {
+        int start = (length > 0 && chars[0] == '-') ? 1 : 0;
+        if (length == start || length - start > 10) throw invalid("Record has an invalid " + ManifestFormat.ATTRIBUTES[attribute]);
+
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') throw invalid("Record has an invalid " + ManifestFormat.ATTRIBUTES[attribute]);
+            value = value * 10 + (c - '0');
+        }
+        value = (start == 1) ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw invalid("Record has an invalid " + ManifestFormat.ATTRIBUTES[attribute]);
+
+        return (int) value;
+    }
+
+    /**
+     * Parses the characters as the name of a type, ignoring the case.
+     *
+     * @return the type
+     * @throws InvalidProjectFileException if the characters aren't the name of a type
+     */
+    private DocumentType parseType() throws InvalidProjectFileException {
+        for (DocumentType candidate : TYPES) {
+            String name = candidate.name();
+            if (name.length() != length) continue;
+
+            int i = 0;
+            while (i < length && Character.toUpperCase(chars[i]) == name.charAt(i)) i++;
+            if (i == length) return candidate;
+        }
+
+        throw invalid("Record has an unknown type \"" + new String(chars, 0, length) + "\"");
+    }
+
+    /**
+     * Returns the attribute named by the characters.
+     *
+     * @return the index of the attribute or -1 if no attribute has this name
+     */
+    private int attribute() {
+        for (int attribute = 0; attribute < ManifestFormat.ATTRIBUTES.length; attribute++) {
+            if (matches(ManifestFormat.ATTRIBUTES[attribute])) return attribute;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the characters as a string, reusing the string of a previous record if it's equal.
+     *
+     * @return the string
+     */
+    private String string() {
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + chars[i];
+        int slot = (hash ^ (hash >>> 16)) & (RECENT_STRINGS - 1);
+        String recent = recentStrings[slot];
+        if (recent != null && recent.hashCode() == hash && matches(recent)) return recent;
+
+        String string = factory.intern(new String(chars, 0, length));
+        recentStrings[slot] = string;
+
+        return string;
+    }
+
+    /**
+     * Checks if the characters are equal to a string.
+     *
+     * @param string the string
+     * @return true if they're equal, false otherwise
+     */
+    private boolean matches(String string) {
+        if (string.length() != length) return false;
+
+        for (int i = 0; i < length; i++) if (chars[i] != string.charAt(i)) return false;
+
+        return true;
+    }
+
+    /**
+     * Appends a character to the characters, growing them if they're full.
+     *
+     * @param c the character
+     */
+    private void append(char c) {
+        if (length == chars.length) chars = Arrays.copyOf(chars, length * 2);
+        chars[length++] = c;
+    }
+
+    /**
+     * Decodes a multi-byte UTF-8 sequence and appends its characters.
+     *
+     * @param lead the first byte of the sequence
+     * @throws InvalidProjectFileException if the sequence isn't valid UTF-8
+     * @throws IOException if an I/O error occurs
+     */
+    private void decodeUtf8(int lead) throws IOException {
+        int continuations, codePoint, minimum;
+        if ((lead & 0xE0) == 0xC0) {
+            continuations = 1;
+            codePoint = lead & 0x1F;
+            minimum = 0x80;
+        } else if ((lead & 0xF0) == 0xE0) {
+            continuations = 2;
+            codePoint = lead & 0x0F;
+            minimum = 0x800;
+        } else if ((lead & 0xF8) == 0xF0) {
+            continuations = 3;
+            codePoint = lead & 0x07;
+            minimum = 0x10000;
+        } else {
+            throw invalid("Text isn't valid UTF-8");
+        }
+        for (int i = 0; i < continuations; i++) {
+            int b = next();
+            if ((b & 0xC0) != 0x80) throw invalid("Text isn't valid UTF-8");
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+            throw invalid("Text isn't valid UTF-8");
+        }
+
+        if (codePoint < 0x10000) append((char) codePoint);
+        else {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    /**
+     * Skips the UTF-8 byte order mark at the start of the manifest, if any.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void skipByteOrderMark() throws IOException {
+        if (peek() != 0xEF) return;
+
+        // The channel may hand the mark over in pieces
+        while (limit < 3 && !endOfInput) {
+            buffer.clear().position(limit);
+            int read = channel.read(buffer);
+            if (read < 0) endOfInput = true;
+            else limit += read;
+        }
+        if (limit >= 3 && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) position = 3;
+    }
+
+    /**
+     * Returns the next byte without consuming it.
+     *
+     * @return the byte (0 to 255) or -1 if the end of the manifest was reached
+     * @throws IOException if an I/O error occurs
+     */
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+
+        return bytes[position] & 0xFF;
+    }
+
+    /**
+     * Consumes the next byte.
+     *
+     * @return the byte (0 to 255) or -1 if the end of the manifest was reached
+     * @throws IOException if an I/O error occurs
+     */
+    private int next() throws IOException {
+        if (position == limit && !fill()) return -1;
+
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Refills the consumed buffer from the channel.
+     *
+     * @return true if bytes were read, false if the end of the channel was reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) return false;
+
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+
+        return true;
+    }
+
+    /**
+     * Creates the exception thrown for a record that can't be parsed.
+     *
+     * @param problem the problem
+     * @return the exception
+     */
+    private InvalidProjectFileException invalid(String problem) {
+        return new InvalidProjectFileException(problem + " on line " + recordLine + " of the manifest");
+    }
+}
@@ -0,0 +1,423 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Writes documents to a channel as a manifest in one of the {@link ManifestFormat}s. <p>
+ *
+ * The documents are encoded straight into a single buffer, reused for the whole manifest and written
+ * to the channel whenever it fills up: the numbers are formatted digit by digit and the strings are
+ * encoded to UTF-8 and escaped as they're copied, so writing a document allocates nothing.
+ * {@link #writeAll(IProject)} traverses the project with its {@link IProject#spliterator()} instead
+ * of copying it with {@link IProject#toArray()}. <p>
+ *
+ * The buffer is only written when it fills up, on {@link #flush()} and on {@link #close()}. A writer
+ * isn't thread-safe. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #write(IDocument)}: Writes a document</li>
+ *  <li>{@link #writeAll(IProject)}: Writes every document of a project</li>
+ *  <li>{@link #getCount()}: Returns the number of written documents</li>
+ *  <li>{@link #flush()}: Writes the buffered documents to the channel</li>
+ *  <li>{@link #close()}: Flushes this writer and closes the channel</li>
+ * </ul>
+ *
+ * <h3>ManifestWriter</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ManifestReader
+ */
+public class ManifestWriter implements Closeable {
+    /**
+     * The default size of the buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    /**
+     * The maximum number of bytes a character or a number is written with
+     */
+    private static final int MAX_ENCODED_LENGTH = 11;
+    /**
+     * The names of the types, by ordinal
+     */
+    private static final byte[][] TYPE_NAMES = new byte[DocumentType.values().length][];
+    /**
+     * The hexadecimal digits
+     */
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The JSON null literal
+     */
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (DocumentType type : DocumentType.values()) TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The channel the manifest is written to
+     */
+    private final WritableByteChannel channel;
+    /**
+     * The format of the manifest
+     */
+    private final ManifestFormat format;
+    /**
+     * The buffer wrapping the bytes
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The bytes not yet written to the channel
+     */
+    private final byte[] bytes;
+    /**
+     * The number of bytes in use
+     */
+    private int position;
+    /**
+     * The number of written documents
+     */
+    private long count;
+    /**
+     * Whether this writer is closed
+     */
+    private boolean closed;
+
+    /**
+     * Constructs a ManifestWriter writing to a channel with a default buffer size.
+     *
+     * @param channel the channel
+     * @param format the format of the manifest
+     * @throws NullPointerException if the channel or the format is null
+     */
+    public ManifestWriter(WritableByteChannel channel, ManifestFormat format) throws NullPointerException {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a ManifestWriter writing to a channel.
+     *
+     * @param channel the channel
+     * @param format the format of the manifest
+     * @param bufferSize the size of the buffer in bytes (Minimum value is 64)
+     * @throws NullPointerException if the channel or the format is null
+     */
+    public ManifestWriter(WritableByteChannel channel, ManifestFormat format, int bufferSize) throws NullPointerException {
+        if (channel == null) throw new NullPointerException("Channel is null");
+        if (format == null) throw new NullPointerException("Format is null");
+
+        this.channel = channel;
+        this.format = format;
+        buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+        bytes = buffer.array();
+        position = 0;
+        count = 0;
+        closed = false;
+        if (format == ManifestFormat.CSV) {
+            for (String attribute : ManifestFormat.ATTRIBUTES) {
+                if (position > 0) bytes[position++] = ',';
+                for (int i = 0; i < attribute.length(); i++) bytes[position++] = (byte) attribute.charAt(i);
+            }
+            bytes[position++] = '\n';
+        }
+    }
+
+    /**
+     * Writes a document as the next record of the manifest.
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws IllegalStateException if this writer is closed
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(IDocument document) throws NullPointerException, IllegalStateException, IOException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (closed) throw new IllegalStateException("Manifest writer is closed");
+
+        if (format == ManifestFormat.CSV) {
+            putInt(document.getId());
+            put(',');
+            putCsvString(document.getTitle());
+            put(',');
+            putInt(document.getVersion());
+            put(',');
+            putCsvString(document.getFileName());
+            put(',');
+            if (document.getType() != null) putAscii(TYPE_NAMES[document.getType().ordinal()]);
+            put(',');
+            putInt(document.getFileSizeMb());
+            put(',');
+            putCsvString(document.getFileExtension());
+        } else {
+            put('{');
+            putJsonKey(ManifestFormat.ID);
+            putInt(document.getId());
+            putJsonKey(ManifestFormat.TITLE);
+            putJsonString(document.getTitle());
+            putJsonKey(ManifestFormat.VERSION);
+            putInt(document.getVersion());
+            putJsonKey(ManifestFormat.FILE_NAME);
+            putJsonString(document.getFileName());
+            putJsonKey(ManifestFormat.TYPE);
+            if (document.getType() == null) putAscii(NULL);
+            else {
+                put('"');
+                putAscii(TYPE_NAMES[document.getType().ordinal()]);
+                put('"');
+            }
+            putJsonKey(ManifestFormat.FILE_SIZE);
+            putInt(document.getFileSizeMb());
+            putJsonKey(ManifestFormat.FILE_EXTENSION);
+            putJsonString(document.getFileExtension());
+            put('}');
+        }
+        put('\n');
+        count++;
+    }
+
+    /**
+     * Writes every document of a project, in the order of its spliterator.
+     *
+     * @param project the project
+     * @return the number of written documents
+     * @throws NullPointerException if the project is null
+     * @throws IllegalStateException if this writer is closed
+     * @throws IOException if an I/O error occurs
+     */
+    public long writeAll(IProject project) throws NullPointerException, IllegalStateException, IOException {
+        if (project == null) throw new NullPointerException("Project is null");
+
+        long countBefore = count;
+        Spliterator<IDocument> documents = project.spliterator();
+        IDocument[] next = new IDocument[1];
+        while (documents.tryAdvance(document -> next[0] = document)) write(next[0]);
+
+        return count - countBefore;
+    }
+
+    /**
+     * Returns the number of documents written by this writer.
+     *
+     * @return the number of documents
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the buffered documents to the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (closed) return;
+
+        drain();
+    }
+
+    /**
+     * Flushes this writer and closes the channel. Closing a closed writer has no effect.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+
+        try {
+            drain();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel and empties the buffer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void drain() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) channel.write(buffer);
+        position = 0;
+    }
+
+    /**
+     * Makes room in the buffer for a character or a number.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void reserve() throws IOException {
+        if (bytes.length - position < MAX_ENCODED_LENGTH) drain();
+    }
+
+    /**
+     * Buffers an ASCII character.
+     *
+     * @param c the character
+     * @throws IOException if an I/O error occurs
+     */
+    private void put(char c) throws IOException {
+        if (position == bytes.length) drain();
+        bytes[position++] = (byte) c;
+    }
+
+    /**
+     * Buffers ASCII bytes.
+     *
+     * @param ascii the bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private void putAscii(byte[] ascii) throws IOException {
+        if (bytes.length - position < ascii.length) drain();
+        System.arraycopy(ascii, 0, bytes, position, ascii.length);
+        position += ascii.length;
+    }
+
+    /**
+     * Buffers the decimal digits of an int.
+     *
+     * @param value the int
+     * @throws IOException if an I/O error occurs
+     */
+    private void putInt(int value) throws IOException {
+        reserve();
+        long remaining = value;
+        if (remaining < 0) {
+            bytes[position++] = '-';
+            remaining = -remaining;
+        }
+        int digits = 1;
+        for (long power = 10; power <= remaining; power *= 10) digits++;
+        for (int i = position + digits - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        position += digits;
+    }
+
+    /**
+     * Buffers the character at an index of a string, encoded to UTF-8.
+     *
+     * @param string the string
+     * @param index the index of the character
+     * @return the number of characters encoded (2 for a surrogate pair)
+     */
+    private int putUtf8(String string, int index) {
+        char c = string.charAt(index);
+        if (c < 0x80) {
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | (c >> 6));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < string.length() && Character.isLowSurrogate(string.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, string.charAt(index + 1));
+            bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            // An unpaired surrogate has no UTF-8 form, it's replaced like String.getBytes does
+            bytes[position++] = '?';
+        } else {
+            bytes[position++] = (byte) (0xE0 | (c >> 12));
+            bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+
+        return 1;
+    }
+
+    /**
+     * Buffers a string as a CSV field, quoted if it's empty or holds a comma, a quote or a line break.
+     *
+     * @param string the string (null is written as an empty field)
+     * @throws IOException if an I/O error occurs
+     */
+    private void putCsvString(String string) throws IOException {
+        if (string == null) return;
+
+        boolean quoted = string.isEmpty();
+        for (int i = 0; i < string.length() && !quoted; i++) {
+            char c = string.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quoted) put('"');
+        for (int i = 0; i < string.length();) {
+            reserve();
+            if (string.charAt(i) == '"') bytes[position++] = '"';
+            i += putUtf8(string, i);
+        }
+        if (quoted) put('"');
+    }
+
+    /**
+     * Buffers the name of a JSON member, preceded by the separator from the previous member.
+     *
+     * @param attribute the index of the attribute
+     * @throws IOException if an I/O error occurs
+     */
+    private void putJsonKey(int attribute) throws IOException {
+        if (attribute > 0) put(',');
+        put('"');
+        String name = ManifestFormat.ATTRIBUTES[attribute];
+        for (int i = 0; i < name.length(); i++) put(name.charAt(i));
+        put('"');
+        put(':');
+    }
+
+    /**
+     * Buffers a string as a JSON string, escaping the quotes, the backslashes and the control characters.
+     *
+     * @param string the string (null is written as the null literal)
+     * @throws IOException if an I/O error occurs
+     */
+    private void putJsonString(String string) throws IOException {
+        if (string == null) {
+            putAscii(NULL);
+            return;
+        }
+
+        put('"');
+        for (int i = 0; i < string.length();) {
+            reserve();
+            char c = string.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                i += putUtf8(string, i);
+                continue;
+            }
+
+            bytes[position++] = '\\';
+            switch (c) {
+                case '"', '\\' -> bytes[position++] = (byte) c;
+                case '\n' -> bytes[position++] = 'n';
+                case '\r' -> bytes[position++] = 'r';
+                case '\t' -> bytes[position++] = 't';
+                case '\b' -> bytes[position++] = 'b';
+                case '\f' -> bytes[position++] = 'f';
+                default -> {
+                    bytes[position++] = 'u';
+                    bytes[position++] = '0';
+                    bytes[position++] = '0';
+                    bytes[position++] = HEX_DIGITS[c >> 4];
+                    bytes[position++] = HEX_DIGITS[c & 0xF];
+                }
+            }
+            i++;
+        }
+        put('"');
+    }
+}
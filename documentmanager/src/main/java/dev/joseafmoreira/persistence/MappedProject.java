@@ -0,0 +1,411 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.util.IntIntHashMap;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Read-only implementation of the {@code IProject} interface backed by a mapped project file. <p>
+ *
+ * Nothing is decoded when the file is mapped: every access reads the columns it needs from
+ * the mapped buffer and builds new {@code Document} instances for the documents it returns.
+ * Only the header is checked when the file is mapped, so mapping takes the same time whatever the
+ * size of the file: the columns of a document are checked to be in range when it's decoded, and
+ * {@link #verify()} checks the whole file up front.
+ * The decoded strings are cached and the id index is built on the first {@link #get(int)}.
+ * Changing a returned document doesn't change the file, and every mutator of this project
+ * throws an {@code UnsupportedOperationException}.
+ *
+ * <h3>MappedProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ProjectFile
+ */
+public class MappedProject implements ManagedProject {
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The mapped file
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The number of documents in this project
+     */
+    private final int size;
+    /**
+     * The position of the id column
+     */
+    private final int idsOffset;
+    /**
+     * The position of the version column
+     */
+    private final int versionsOffset;
+    /**
+     * The position of the file size column
+     */
+    private final int fileSizesOffset;
+    /**
+     * The position of the title column
+     */
+    private final int titlesOffset;
+    /**
+     * The position of the file name column
+     */
+    private final int fileNamesOffset;
+    /**
+     * The position of the file extension column
+     */
+    private final int extensionsOffset;
+    /**
+     * The position of the type column
+     */
+    private final int typesOffset;
+    /**
+     * The position of the string offsets
+     */
+    private final int stringOffsetsOffset;
+    /**
+     * The position of the string data
+     */
+    private final int stringDataOffset;
+    /**
+     * The strings of the string table already decoded
+     */
+    private final String[] strings;
+    /**
+     * The index mapping each document id to the position of its latest version (built on demand)
+     */
+    private volatile IntIntHashMap latestVersions;
+    /**
+     * The feed of this project, which never publishes (built on first use)
+     */
+    private volatile ChangeFeed changeFeed;
+
+    /**
+     * Constructs a MappedProject over a mapped project file, validating its header.
+     *
+     * @param buffer the mapped file
+     * @throws InvalidProjectFileException if the file isn't a valid project file
+     */
+    MappedProject(ByteBuffer buffer) throws InvalidProjectFileException {
+        this.buffer = buffer;
+        if (buffer.capacity() < ProjectFile.HEADER_SIZE || buffer.getInt(0) != ProjectFile.MAGIC)
+            throw new InvalidProjectFileException("Not a project file");
+        if (buffer.getShort(4) != ProjectFile.FORMAT_VERSION)
+            throw new InvalidProjectFileException("Unsupported project file version " + buffer.getShort(4));
+
+        size = buffer.getInt(8);
+        int stringCount = buffer.getInt(12);
+        if (size < 0 || stringCount < 0) throw new InvalidProjectFileException("Corrupted project file header");
+        long columnsSize = 24L * size + ProjectFile.padded(size), tableSize = 4L * (stringCount + 1);
+        if (ProjectFile.HEADER_SIZE + columnsSize + tableSize > buffer.capacity())
+            throw new InvalidProjectFileException("Truncated project file");
+
+        idsOffset = ProjectFile.HEADER_SIZE;
+        versionsOffset = idsOffset + 4 * size;
+        fileSizesOffset = versionsOffset + 4 * size;
+        titlesOffset = fileSizesOffset + 4 * size;
+        fileNamesOffset = titlesOffset + 4 * size;
+        extensionsOffset = fileNamesOffset + 4 * size;
+        typesOffset = extensionsOffset + 4 * size;
+        stringOffsetsOffset = typesOffset + ProjectFile.padded(size);
+        stringDataOffset = stringOffsetsOffset + 4 * (stringCount + 1);
+        if ((long) stringDataOffset + buffer.getInt(stringDataOffset - 4) > buffer.capacity())
+            throw new InvalidProjectFileException("Truncated project file");
+        strings = new String[stringCount];
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(IDocument document) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Mapped project is read-only");
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int removeOldVersions() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Mapped project is read-only");
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(IDocument document) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Mapped project is read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        IntIntHashMap index = latestVersions;
+        if (index == null) {
+            index = new IntIntHashMap(size);
+            for (int i = 0; i < size; i++) {
+                int latest = index.get(idAt(i));
+                if (latest == IntIntHashMap.NO_VALUE || versionAt(i) > versionAt(latest)) index.put(idAt(i), i);
+            }
+            latestVersions = index;
+        }
+
+        int position = index.get(id);
+        if (position == IntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
+
+        return documentAt(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        int count = 0;
+        for (int i = 0; i < size; i++) if (buffer.get(typesOffset + i) == type.ordinal()) count++;
+        IDocument[] result = new IDocument[count];
+        for (int i = 0, j = 0; j < count; i++) if (buffer.get(typesOffset + i) == type.ordinal()) result[j++] = documentAt(i);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        IDocument[] resultDocuments = new IDocument[size];
+        for (int i = 0; i < size; i++) resultDocuments[i] = documentAt(i);
+
+        return resultDocuments;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The documents are decoded lazily as they are traversed.
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return IntStream.range(0, size).mapToObj(this::documentAt).spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        for (int i = 0; i < size; i++) if (idAt(i) == document.getId() && documentAt(i).equals(document)) return true;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Mapped project is read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This project is read-only, so the feed never publishes an event. It's created on the first call.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        ChangeFeed feed = changeFeed;
+        if (feed == null) changeFeed = feed = new ChangeFeed(2);
+
+        return feed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int documentsHash = 0, result = 1;
+        for (int i = 0; i < size; i++) documentsHash += documentAt(i).hashCode();
+        result = prime * result + documentsHash;
+        result = prime * result + size;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        MappedProject otherProject = (MappedProject) obj;
+        return Arrays.equals(toArray(), otherProject.toArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("(" + size + ")[");
+        for (int i = 0; i < size; i++) result.append(documentAt(i)).append((i == size - 1) ? "" : ", ");
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Checks that every type ordinal and string index of the columns is in range and that the
+     * string offsets don't go backwards, so decoding any document of this project succeeds.
+     * Reads the whole file, unlike mapping it.
+     *
+     * @throws InvalidProjectFileException if a column or the string table is corrupted
+     */
+    public void verify() throws InvalidProjectFileException {
+        int stringCount = strings.length;
+        for (int i = 0; i < size; i++) {
+            byte type = buffer.get(typesOffset + i);
+            if (type < -1 || type >= TYPES.length) throw new InvalidProjectFileException("Corrupted type column");
+        }
+        for (int column : new int[] { titlesOffset, fileNamesOffset, extensionsOffset }) {
+            for (int i = 0; i < size; i++) {
+                int index = buffer.getInt(column + 4 * i);
+                if (index < -1 || index >= stringCount) throw new InvalidProjectFileException("Corrupted string column");
+            }
+        }
+        int previousOffset = 0;
+        for (int i = 0; i <= stringCount; i++) {
+            int offset = buffer.getInt(stringOffsetsOffset + 4 * i);
+            if (offset < previousOffset || (i == 0 && offset != 0)) throw new InvalidProjectFileException("Corrupted string table");
+            previousOffset = offset;
+        }
+    }
+
+    /**
+     * Returns the id of the document in the specified position.
+     *
+     * @param position the position
+     * @return the id of the document
+     */
+    private int idAt(int position) {
+        return buffer.getInt(idsOffset + 4 * position);
+    }
+
+    /**
+     * Returns the version of the document in the specified position.
+     *
+     * @param position the position
+     * @return the version of the document
+     */
+    private int versionAt(int position) {
+        return buffer.getInt(versionsOffset + 4 * position);
+    }
+
+    /**
+     * Decodes the document in the specified position.
+     *
+     * @param position the position
+     * @return a new document with the attributes stored in the position
+     * @throws UncheckedIOException wrapping an {@code InvalidProjectFileException} if the columns of the document are corrupted
+     */
+    private IDocument documentAt(int position) throws UncheckedIOException {
+        byte type = buffer.get(typesOffset + position);
+        if (type < -1 || type >= TYPES.length) throw corrupted("Corrupted type column");
+
+        return new Document(idAt(position), stringAt(buffer.getInt(titlesOffset + 4 * position)), versionAt(position),
+                stringAt(buffer.getInt(fileNamesOffset + 4 * position)), (type < 0) ? null : TYPES[type],
+                buffer.getInt(fileSizesOffset + 4 * position), stringAt(buffer.getInt(extensionsOffset + 4 * position)));
+    }
+
+    /**
+     * Decodes a string of the string table.
+     *
+     * @param index the index of the string (-1 for null)
+     * @return the string
+     * @throws UncheckedIOException wrapping an {@code InvalidProjectFileException} if the index or the string table is corrupted
+     */
+    private String stringAt(int index) throws UncheckedIOException {
+        if (index == -1) return null;
+        if (index < -1 || index >= strings.length) throw corrupted("Corrupted string column");
+
+        String string = strings[index];
+        if (string == null) {
+            int start = buffer.getInt(stringOffsetsOffset + 4 * index), end = buffer.getInt(stringOffsetsOffset + 4 * (index + 1));
+            if (start < 0 || end < start || (long) stringDataOffset + end > buffer.capacity()) throw corrupted("Corrupted string table");
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringDataOffset + start, bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = string;
+        }
+
+        return string;
+    }
+
+    /**
+     * Creates the exception thrown when a corrupted column is found while decoding.
+     *
+     * @param message the detail message
+     * @return the exception
+     */
+    private static UncheckedIOException corrupted(String message) {
+        return new UncheckedIOException(new InvalidProjectFileException(message));
+    }
+}
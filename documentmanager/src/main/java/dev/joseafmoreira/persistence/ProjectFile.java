@@ -0,0 +1,268 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.project.BatchResult;
+import dev.joseafmoreira.project.Project;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Reads and writes projects in a compact, versioned binary format. <p>
+ *
+ * A project file stores the documents column by column, so each attribute can be read without
+ * decoding the others. All the numbers are big-endian. The layout of the version 1 is: <p>
+ * <ul>
+ *  <li>Header: magic number {@code "DMPF"}, format version (short), flags (short),
+ *      document count (int) and string count (int)</li>
+ *  <li>Fixed-width columns of ints: ids, versions, file sizes, titles, file names and file
+ *      extensions. The string columns hold indexes in the string table (-1 for null)</li>
+ *  <li>A column of bytes with the type ordinals (-1 for null), padded to a multiple of 4 bytes</li>
+ *  <li>The string table: the offset of every string in the string data (int) followed by
+ *      the end offset, then the UTF-8 data. Every distinct string is stored once</li>
+ * </ul>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #write(IProject, Path)}: Writes a project to a file</li>
+ *  <li>{@link #map(Path)}: Maps a project file to a read-only project decoded on access</li>
+ *  <li>{@link #read(Path)}: Reads a project file into a new project</li>
+ *  <li>{@link #read(Path, AdmissionPolicy)}: Reads a project file into a new project with an admission policy</li>
+ * </ul>
+ *
+ * <h3>ProjectFile</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see MappedProject
+ */
+public final class ProjectFile {
+    /**
+     * The magic number of a project file ("DMPF")
+     */
+    static final int MAGIC = 0x444D5046;
+    /**
+     * The current version of the format
+     */
+    static final short FORMAT_VERSION = 1;
+    /**
+     * The size of the header in bytes
+     */
+    static final int HEADER_SIZE = 16;
+    /**
+     * The size of the buffer used to write a file
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Not instantiable.
+     */
+    private ProjectFile() {
+    }
+
+    /**
+     * Writes a project to a file, replacing it if it exists. The file is first written
+     * next to the target and then moved over it, so a failed write never leaves a
+     * truncated project file behind. The directory is forced after the move, so the
+     * new file survives a crash once this method returns.
+     *
+     * @param project the project to be written
+     * @param path the path of the file
+     * @throws NullPointerException if the project or the path is null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(IProject project, Path path) throws NullPointerException, IOException {
+        if (project == null) throw new NullPointerException("Project is null");
+        if (path == null) throw new NullPointerException("Path is null");
+
+        IDocument[] documents = project.toArray();
+        int count = documents.length;
+        int[] ids = new int[count], versions = new int[count], fileSizes = new int[count];
+        int[] titles = new int[count], fileNames = new int[count], extensions = new int[count];
+        byte[] types = new byte[count];
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids[i] = documents[i].getId();
+            versions[i] = documents[i].getVersion();
+            fileSizes[i] = documents[i].getFileSizeMb();
+            titles[i] = intern(documents[i].getTitle(), stringIndexes, strings);
+            fileNames[i] = intern(documents[i].getFileName(), stringIndexes, strings);
+            extensions[i] = intern(documents[i].getFileExtension(), stringIndexes, strings);
+            types[i] = (byte) ((documents[i].getType() == null) ? -1 : documents[i].getType().ordinal());
+        }
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) 0).putInt(count).putInt(strings.size());
+            for (int[] column : new int[][] { ids, versions, fileSizes, titles, fileNames, extensions }) {
+                for (int value : column) {
+                    if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+                    buffer.putInt(value);
+                }
+            }
+            for (int i = 0; i < padded(count); i++) {
+                if (!buffer.hasRemaining()) flush(channel, buffer);
+                buffer.put((i < count) ? types[i] : 0);
+            }
+            int offset = 0;
+            for (int i = 0; i <= strings.size(); i++) {
+                if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+                buffer.putInt(offset);
+                if (i < strings.size()) offset += strings.get(i).length;
+            }
+            for (byte[] string : strings) {
+                if (buffer.remaining() < string.length) flush(channel, buffer);
+                if (buffer.remaining() < string.length) {
+                    ByteBuffer large = ByteBuffer.wrap(string);
+                    while (large.hasRemaining()) channel.write(large);
+                } else {
+                    buffer.put(string);
+                }
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Maps a project file to a read-only project. Only the header is validated when the file is mapped,
+     * the documents are decoded and checked from the mapped columns when they are accessed (see
+     * {@link MappedProject#verify()} to check the whole file up front).
+     *
+     * @param path the path of the file
+     * @return a read-only project backed by the file
+     * @throws NullPointerException if the path is null
+     * @throws InvalidProjectFileException if the file isn't a valid project file
+     * @throws IOException if an I/O error occurs
+     */
+    public static MappedProject map(Path path) throws NullPointerException, IOException {
+        if (path == null) throw new NullPointerException("Path is null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new InvalidProjectFileException("Project file is too large to be mapped");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return new MappedProject(buffer);
+        }
+    }
+
+    /**
+     * Reads a project file into a new project with the {@link AdmissionPolicy#standard() standard}
+     * admission policy.
+     *
+     * @param path the path of the file
+     * @return a new project with the documents of the file
+     * @throws NullPointerException if the path is null
+     * @throws InvalidProjectFileException if the file isn't a valid project file or has documents the policy rejects
+     * @throws IOException if an I/O error occurs
+     */
+    public static Project read(Path path) throws NullPointerException, IOException {
+        return read(path, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Reads a project file into a new project with the specified admission policy, which every
+     * document of the file must follow.
+     *
+     * @param path the path of the file
+     * @param policy the rules the documents must follow to be added to the project
+     * @return a new project with the documents of the file
+     * @throws NullPointerException if the path or the policy is null
+     * @throws InvalidProjectFileException if the file isn't a valid project file or has documents the policy rejects
+     * @throws IOException if an I/O error occurs
+     */
+    public static Project read(Path path, AdmissionPolicy policy) throws NullPointerException, IOException {
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        MappedProject mapped = map(path);
+        mapped.verify();
+        IDocument[] documents = mapped.toArray();
+        Project project = new Project(documents.length, policy);
+        BatchResult result = project.addAll(documents);
+        if (result.hasFailures()) throw new InvalidProjectFileException("Project file has invalid documents: " + result.getFailures()[0].getMessage());
+
+        return project;
+    }
+
+    /**
+     * Returns the number of bytes of a byte column padded to a multiple of 4 bytes.
+     *
+     * @param count the number of bytes in the column
+     * @return the padded number of bytes
+     */
+    static int padded(int count) {
+        return (count + 3) & ~3;
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so the files created or moved in it survive a crash.
+     * Nothing is forced on the platforms that can't open a directory (e.g. Windows), where
+     * the file system persists the entries on its own.
+     *
+     * @param directory the directory
+     * @throws IOException if an I/O error occurs while forcing the directory
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Returns the index of a string in the string table, adding it if it's new.
+     *
+     * @param string the string
+     * @param stringIndexes the indexes of the strings already in the table
+     * @param strings the UTF-8 encoded strings of the table
+     * @return the index of the string or -1 if it's null
+     */
+    private static int intern(String string, Map<String, Integer> stringIndexes, List<byte[]> strings) {
+        if (string == null) return -1;
+
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            stringIndexes.put(string, index);
+            strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return index;
+    }
+
+    /**
+     * Writes the content of a buffer to a channel and clears the buffer.
+     *
+     * @param channel the channel
+     * @param buffer the buffer
+     * @throws IOException if an I/O error occurs
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
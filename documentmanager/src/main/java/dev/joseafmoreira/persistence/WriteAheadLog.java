@@ -0,0 +1,359 @@
+package dev.joseafmoreira.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+
+/**
+ * Append-only log of checksummed records with group commit. <p>
+ *
+ * Every record is framed by its length and the CRC32C of its payload, so a torn write at
+ * the end of the log is detected and discarded when the log is replayed. {@link #append(byte[])}
+ * only buffers a record and returns its position, {@link #sync(long)} blocks until that position
+ * is on disk. The first thread that needs a sync writes and forces everything appended so far,
+ * and the threads arriving meanwhile wait for the next write, so concurrent writers share fsyncs. <p>
+ *
+ * The log starts with a header holding an epoch, used to tell which snapshot the records apply to.
+ * An existing log must be replayed before appending to it, so a torn tail is discarded first.
+ * The positions never decrease, not even when {@link #reset(long)} discards the records and
+ * starts a new epoch, so a thread syncing a record written before a reset returns normally. <p>
+ *
+ * Once a write fails, the log is unusable: every later sync rethrows the error, which
+ * {@link #checkFailure()} lets the writers check before changing anything.
+ *
+ * <h3>WriteAheadLog</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see DurableProject
+ */
+public class WriteAheadLog implements Closeable {
+    /**
+     * The magic number of a log file ("DMWL")
+     */
+    private static final int MAGIC = 0x444D574C;
+    /**
+     * The current version of the format
+     */
+    private static final short FORMAT_VERSION = 1;
+    /**
+     * The size of the header in bytes
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * The size of the frame (length and checksum) of a record in bytes
+     */
+    private static final int FRAME_SIZE = 8;
+    /**
+     * The maximum size of a record payload in bytes
+     */
+    private static final int MAX_RECORD_SIZE = 1 << 24;
+    /**
+     * The channel of the log file
+     */
+    private final FileChannel channel;
+    /**
+     * The lock guarding the buffered records and the positions
+     */
+    private final ReentrantLock lock;
+    /**
+     * Signalled after each write of the buffered records
+     */
+    private final Condition synced;
+    /**
+     * The records appended but not yet written
+     */
+    private ByteBuffer pending;
+    /**
+     * The spare buffer swapped with the pending records while they are written
+     */
+    private ByteBuffer spare;
+    /**
+     * The position of the start of the file, which grows on every reset so the positions never decrease
+     */
+    private long base;
+    /**
+     * The position after the last appended record
+     */
+    private long appendedPosition;
+    /**
+     * The position up to which the log is on disk
+     */
+    private long syncedPosition;
+    /**
+     * Whether a thread is writing the buffered records
+     */
+    private boolean syncing;
+    /**
+     * The error of the last failed write, rethrown to every waiting thread
+     */
+    private IOException failure;
+    /**
+     * The epoch of this log
+     */
+    private long epoch;
+
+    /**
+     * Opens a log file, creating it with the specified epoch if it doesn't exist.
+     *
+     * @param path the path of the log file
+     * @param epoch the epoch of a new log
+     * @throws NullPointerException if the path is null
+     * @throws InvalidProjectFileException if the file isn't a valid log
+     * @throws IOException if an I/O error occurs
+     */
+    public WriteAheadLog(Path path, long epoch) throws NullPointerException, IOException {
+        if (path == null) throw new NullPointerException("Path is null");
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lock = new ReentrantLock();
+        synced = lock.newCondition();
+        pending = ByteBuffer.allocate(1 << 16);
+        spare = ByteBuffer.allocate(1 << 16);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(epoch);
+                ProjectFile.forceDirectory(path.toAbsolutePath().getParent());
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0);
+                header.flip();
+                if (header.getInt() != MAGIC) throw new InvalidProjectFileException("Not a log file");
+                if (header.getShort() != FORMAT_VERSION) throw new InvalidProjectFileException("Unsupported log file version");
+                header.getShort();
+                this.epoch = header.getLong();
+            }
+            base = 0;
+            appendedPosition = syncedPosition = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the epoch of this log.
+     *
+     * @return the epoch of this log
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Reads every valid record of this log, in order, and positions this log after the last one.
+     * The records after the first torn or corrupted one are discarded from the file.
+     *
+     * @param consumer the consumer of the record payloads
+     * @return the number of records read
+     * @throws IOException if an I/O error occurs
+     */
+    public int replay(Consumer<ByteBuffer> consumer) throws IOException {
+        lock.lock();
+        try {
+            long position = HEADER_SIZE, size = channel.size();
+            int records = 0;
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+            CRC32C checksum = new CRC32C();
+            while (position + FRAME_SIZE <= size) {
+                frame.clear();
+                readFully(frame, position);
+                int length = frame.getInt(0), expectedChecksum = frame.getInt(4);
+                if (length < 0 || length > MAX_RECORD_SIZE || position + FRAME_SIZE + length > size) break;
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(payload, position + FRAME_SIZE);
+                checksum.reset();
+                checksum.update(payload.array(), 0, length);
+                if ((int) checksum.getValue() != expectedChecksum) break;
+
+                consumer.accept(payload.flip().asReadOnlyBuffer());
+                position += FRAME_SIZE + length;
+                records++;
+            }
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(false);
+            }
+            appendedPosition = syncedPosition = base + position;
+
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Buffers a record at the end of this log. The record is only durable after
+     * a {@link #sync(long)} with the returned position.
+     *
+     * @param payload the payload of the record
+     * @return the position after the record
+     * @throws NullPointerException if the payload is null
+     * @throws IllegalArgumentException if the payload is too large
+     */
+    public long append(byte[] payload) throws NullPointerException, IllegalArgumentException {
+        if (payload == null) throw new NullPointerException("Payload is null");
+        if (payload.length > MAX_RECORD_SIZE) throw new IllegalArgumentException("Record is too large");
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload, 0, payload.length);
+        lock.lock();
+        try {
+            if (pending.remaining() < FRAME_SIZE + payload.length) pending = grow(pending, FRAME_SIZE + payload.length);
+            pending.putInt(payload.length).putInt((int) checksum.getValue()).put(payload);
+            appendedPosition += FRAME_SIZE + payload.length;
+
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until this log is on disk up to the specified position. Only one thread writes
+     * at a time, and it writes every record appended until then.
+     *
+     * @param position the position returned by {@link #append(byte[])}
+     * @throws IOException if an I/O error occurs while writing the log
+     */
+    public void sync(long position) throws IOException {
+        lock.lock();
+        try {
+            while (syncedPosition < position) {
+                if (failure != null) throw failure;
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+
+                syncing = true;
+                ByteBuffer batch = pending;
+                pending = spare;
+                spare = batch;
+                long target = appendedPosition, writePosition = syncedPosition - base;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) writePosition += channel.write(batch, writePosition);
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    batch.clear();
+                    lock.lock();
+                }
+                syncing = false;
+                if (error != null) failure = error;
+                else syncedPosition = target;
+                synced.signalAll();
+            }
+            if (failure != null) throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Throws the error of the last failed write of this log, if any.
+     *
+     * @throws IOException if a write of this log failed
+     */
+    public void checkFailure() throws IOException {
+        lock.lock();
+        try {
+            if (failure != null) throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards every record of this log and starts a new epoch. Must not be called while other
+     * threads append to this log, but they may still be syncing: the records appended so far are
+     * written first, so the threads waiting for them return normally, and the positions carry on
+     * from the last one.
+     *
+     * @param epoch the new epoch
+     * @throws IOException if an I/O error occurs
+     */
+    public void reset(long epoch) throws IOException {
+        lock.lock();
+        try {
+            sync(appendedPosition);
+            channel.truncate(HEADER_SIZE);
+            writeHeader(epoch);
+            base = syncedPosition - HEADER_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the records appended so far and closes this log.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (failure == null) sync(appendedPosition);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes and forces the header of this log.
+     *
+     * @param epoch the epoch
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeHeader(long epoch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) 0).putLong(epoch).flip();
+        long position = 0;
+        while (header.hasRemaining()) position += channel.write(header, position);
+        channel.force(true);
+        this.epoch = epoch;
+    }
+
+    /**
+     * Fills a buffer from the log file.
+     *
+     * @param buffer the buffer
+     * @param position the position in the file
+     * @throws IOException if an I/O error occurs
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new InvalidProjectFileException("Truncated log file");
+            position += read;
+        }
+    }
+
+    /**
+     * Returns a copy of a buffer with room for at least the specified number of bytes.
+     *
+     * @param buffer the buffer
+     * @param needed the number of bytes needed
+     * @return the copy
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+
+        return grown.put(buffer);
+    }
+}
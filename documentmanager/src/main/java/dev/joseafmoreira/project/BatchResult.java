@@ -0,0 +1,159 @@
+package dev.joseafmoreira.project;
+
+import java.util.Arrays;
+
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * The outcome of a batch operation on a project. <p>
+ *
+ * A batch doesn't stop on the first failure, so the result counts the documents that
+ * succeeded and keeps, for each failed document, its position in the batch and the
+ * exception that would have been thrown by the single document operation. <p>
+ *
+ * The available operations are: <p>
+ * <ul>
+ *  <li>{@link #addSuccess()}: Records a document that succeeded</li>
+ *  <li>{@link #addFailure(int, IDocument, RuntimeException)}: Records a document that failed</li>
+ *  <li>{@link #getSucceeded()}: Returns the number of documents that succeeded</li>
+ *  <li>{@link #getFailed()}: Returns the number of documents that failed</li>
+ *  <li>{@link #hasFailures()}: Checks if any document failed</li>
+ *  <li>{@link #getFailedIndexes()}: Returns the positions in the batch of the failed documents</li>
+ *  <li>{@link #getFailedDocuments()}: Returns the failed documents</li>
+ *  <li>{@link #getFailures()}: Returns the exceptions of the failed documents</li>
+ *  <li>{@link #toString()}: Returns a string representation of this result</li>
+ * </ul>
+ *
+ * <h3>BatchResult</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ManagedProject#addAll(IDocument[])
+ * @see ManagedProject#removeAll(IDocument[])
+ */
+public class BatchResult {
+    /**
+     * The number of documents that succeeded
+     */
+    private int succeeded;
+    /**
+     * The number of documents that failed
+     */
+    private int failed;
+    /**
+     * The positions in the batch of the failed documents
+     */
+    private int[] failedIndexes;
+    /**
+     * The failed documents
+     */
+    private IDocument[] failedDocuments;
+    /**
+     * The exceptions of the failed documents
+     */
+    private RuntimeException[] failures;
+
+    /**
+     * Constructs an empty BatchResult.
+     */
+    public BatchResult() {
+        succeeded = 0;
+        failed = 0;
+        failedIndexes = new int[0];
+        failedDocuments = new IDocument[0];
+        failures = new RuntimeException[0];
+    }
+
+    /**
+     * Records a document that succeeded.
+     */
+    public void addSuccess() {
+        succeeded++;
+    }
+
+    /**
+     * Records a document that failed.
+     *
+     * @param index the position of the document in the batch
+     * @param document the document
+     * @param failure the exception explaining the failure
+     */
+    public void addFailure(int index, IDocument document, RuntimeException failure) {
+        if (failed == failures.length) {
+            int capacity = Math.max(4, failed * 2);
+            failedIndexes = Arrays.copyOf(failedIndexes, capacity);
+            failedDocuments = Arrays.copyOf(failedDocuments, capacity);
+            failures = Arrays.copyOf(failures, capacity);
+        }
+        failedIndexes[failed] = index;
+        failedDocuments[failed] = document;
+        failures[failed++] = failure;
+    }
+
+    /**
+     * Returns the number of documents that succeeded.
+     *
+     * @return the number of documents that succeeded
+     */
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Returns the number of documents that failed.
+     *
+     * @return the number of documents that failed
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Checks if any document failed.
+     *
+     * @return true if at least one document failed, false otherwise
+     */
+    public boolean hasFailures() {
+        return failed > 0;
+    }
+
+    /**
+     * Returns the positions in the batch of the failed documents.
+     *
+     * @return the positions in the batch of the failed documents
+     */
+    public int[] getFailedIndexes() {
+        return Arrays.copyOf(failedIndexes, failed);
+    }
+
+    /**
+     * Returns the failed documents, in the same order as {@link #getFailedIndexes()}.
+     *
+     * @return the failed documents
+     */
+    public IDocument[] getFailedDocuments() {
+        return Arrays.copyOf(failedDocuments, failed);
+    }
+
+    /**
+     * Returns the exceptions of the failed documents, in the same order as {@link #getFailedIndexes()}.
+     *
+     * @return the exceptions of the failed documents
+     */
+    public RuntimeException[] getFailures() {
+        return Arrays.copyOf(failures, failed);
+    }
+
+    /**
+     * Returns a string representation of this result.
+     *
+     * @return a string representation of this result
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("BatchResult [succeeded=" + succeeded + ", failed=" + failed + "]");
+        for (int i = 0; i < failed; i++) result.append("\n\t").append(failedIndexes[i]).append(": ").append(failures[i].getMessage());
+
+        return result.toString();
+    }
+}
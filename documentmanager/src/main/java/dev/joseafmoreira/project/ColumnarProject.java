@@ -0,0 +1,765 @@
+package dev.joseafmoreira.project;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.exceptions.EmptyProjectException;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeEvent;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.util.IntIntHashMap;
+import dev.joseafmoreira.util.StringDictionary;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Implementation of the {@code IProject} interface that stores the documents column by column. <p>
+ *
+ * Instead of keeping a {@code Document} object per document, each attribute is stored in a
+ * primitive array (struct of arrays) and the strings are dictionary encoded, so a document
+ * costs a few dozen bytes of heap and no object header. The strings of the removed documents
+ * and of the replaced titles leave the dictionary, so it only holds the strings in use. The added
+ * documents are copied into the columns: changing them afterwards doesn't change this project. <p>
+ *
+ * The documents returned by this project are lightweight views created on demand. A view
+ * reads and writes the columns of its document, so {@link IDocument#setTitle(String)} and
+ * {@link IDocument#setType(DocumentType)} on a view change this project, and using a view
+ * of a document removed from this project throws an {@code IllegalStateException}. <p>
+ *
+ * Like {@link Project}, removed documents leave tombstones that are compacted in batches
+ * and an id index links the versions of each id. The changes are published to the
+ * {@link ChangeFeed} returned by {@link #getChangeFeed()}, created on the first call. The
+ * documents of the events are detached copies, built only while the feed has subscriptions.
+ *
+ * <h3>ColumnarProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IProject
+ * @see Project
+ */
+public class ColumnarProject implements ManagedProject {
+    /**
+     * The default capacity of this project columns
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+    /**
+     * The type of a tombstone
+     */
+    private static final byte REMOVED = -2;
+    /**
+     * The type of a document without type
+     */
+    private static final byte NO_TYPE = -1;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The ids of the documents
+     */
+    private int[] ids;
+    /**
+     * The versions of the documents
+     */
+    private int[] versions;
+    /**
+     * The file sizes in MB of the documents
+     */
+    private int[] fileSizes;
+    /**
+     * The type ordinals of the documents ({@link #NO_TYPE} or {@link #REMOVED})
+     */
+    private byte[] types;
+    /**
+     * The dictionary codes of the titles
+     */
+    private int[] titles;
+    /**
+     * The dictionary codes of the file names
+     */
+    private int[] fileNames;
+    /**
+     * The dictionary codes of the file extensions
+     */
+    private int[] fileExtensions;
+    /**
+     * The serial numbers of the documents, telling apart documents added with the same id and version
+     */
+    private int[] serials;
+    /**
+     * The slot of the previous version of the document in each slot
+     */
+    private int[] previousVersions;
+    /**
+     * The index mapping each document id to the slot of its latest version
+     */
+    private final IntIntHashMap latestVersions;
+    /**
+     * The dictionary of the strings of the documents
+     */
+    private final StringDictionary strings;
+    /**
+     * The rules the documents must follow to be added to this project
+     */
+    private final AdmissionPolicy policy;
+    /**
+     * The number of documents in this project
+     */
+    private int size;
+    /**
+     * The number of used slots (documents and tombstones)
+     */
+    private int end;
+    /**
+     * The serial number of the next added document
+     */
+    private int nextSerial;
+    /**
+     * The number of compactions, used by the views to know when their slot may have moved
+     */
+    private int compactions;
+    /**
+     * The feed the changes are published to, created on the first request (null before)
+     */
+    private ChangeFeed changeFeed;
+
+    /**
+     * Constructs an empty ColumnarProject with a default capacity.
+     */
+    public ColumnarProject() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty ColumnarProject with a specified initial capacity.
+     *
+     * @param initialCapacity the initial capacity (Minimum value is 0)
+     */
+    public ColumnarProject(int initialCapacity) {
+        this(initialCapacity, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Constructs an empty ColumnarProject with a specified initial capacity and admission policy.
+     *
+     * @param initialCapacity the initial capacity (Minimum value is 0)
+     * @param policy the rules the documents must follow to be added to this project
+     * @throws NullPointerException if the policy is null
+     */
+    public ColumnarProject(int initialCapacity, AdmissionPolicy policy) throws NullPointerException {
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        this.policy = policy;
+        allocate((initialCapacity < 0) ? 0 : initialCapacity);
+        latestVersions = new IntIntHashMap(ids.length);
+        strings = new StringDictionary();
+        size = 0;
+        end = 0;
+        nextSerial = 0;
+        compactions = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        policy.checkAttributes(document);
+        int latest = latestVersions.get(document.getId());
+        policy.checkVersion(document, (latest == IntIntHashMap.NO_VALUE) ? AdmissionPolicy.NO_VERSION : versions[latest]);
+
+        if (end == ids.length) {
+            if (end - size > ids.length / 4) compact();
+            else resize((ids.length < 2) ? ids.length + 1 : ids.length + (ids.length / 2));
+        }
+        ids[end] = document.getId();
+        versions[end] = document.getVersion();
+        fileSizes[end] = document.getFileSizeMb();
+        types[end] = (document.getType() == null) ? NO_TYPE : (byte) document.getType().ordinal();
+        titles[end] = strings.encode(document.getTitle());
+        fileNames[end] = strings.encode(document.getFileName());
+        fileExtensions[end] = strings.encode(document.getFileExtension());
+        serials[end] = nextSerial++;
+        previousVersions[end] = latestVersions.put(document.getId(), end);
+        end++;
+        size++;
+        if (changeFeed != null && changeFeed.hasSubscribers()) {
+            int previous = previousVersions[end - 1];
+            if (previous == IntIntHashMap.NO_VALUE) changeFeed.publish(ChangeEvent.Kind.ADDED, copyOf(end - 1), null, 1);
+            else changeFeed.publish(ChangeEvent.Kind.SUPERSEDED, copyOf(end - 1), copyOf(previous), 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeOldVersions() {
+        int removedVersions = 0;
+        for (int i = 0; i < end; i++) {
+            if (types[i] == REMOVED) continue;
+
+            if (latestVersions.get(ids[i]) != i) {
+                releaseStrings(i);
+                types[i] = REMOVED;
+                removedVersions++;
+            } else {
+                previousVersions[i] = IntIntHashMap.NO_VALUE;
+            }
+        }
+        size -= removedVersions;
+        if (removedVersions > 0) compact();
+        if (changeFeed != null && removedVersions > 0) changeFeed.publish(ChangeEvent.Kind.COMPACTED, null, null, removedVersions);
+
+        return removedVersions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (isEmpty()) throw new EmptyProjectException();
+
+        int slot = latestVersions.get(document.getId()), newerSlot = IntIntHashMap.NO_VALUE;
+        while (slot != IntIntHashMap.NO_VALUE) {
+            if (matches(slot, document)) {
+                if (newerSlot != IntIntHashMap.NO_VALUE) previousVersions[newerSlot] = previousVersions[slot];
+                else if (previousVersions[slot] != IntIntHashMap.NO_VALUE) latestVersions.put(ids[slot], previousVersions[slot]);
+                else latestVersions.remove(ids[slot]);
+                IDocument removed = (changeFeed != null && changeFeed.hasSubscribers()) ? copyOf(slot) : null;
+                releaseStrings(slot);
+                types[slot] = REMOVED;
+                size--;
+                if (end - size > size) compact();
+                if (removed != null) changeFeed.publish(ChangeEvent.Kind.REMOVED, removed, null, 1);
+
+                return;
+            }
+            newerSlot = slot;
+            slot = previousVersions[slot];
+        }
+
+        throw new NoSuchElementException("Document not found");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        int latest = latestVersions.get(id);
+        if (latest == IntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
+
+        return new DocumentView(latest);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        byte ordinal = (byte) type.ordinal();
+        int count = 0;
+        for (int i = 0; i < end; i++) if (types[i] == ordinal) count++;
+        IDocument[] result = new IDocument[count];
+        for (int i = 0, j = 0; j < count; i++) if (types[i] == ordinal) result[j++] = new DocumentView(i);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        IDocument[] resultDocuments = new IDocument[size];
+        for (int i = 0, j = 0; j < size; i++) if (types[i] != REMOVED) resultDocuments[j++] = new DocumentView(i);
+
+        return resultDocuments;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        for (int slot = latestVersions.get(document.getId()); slot != IntIntHashMap.NO_VALUE; slot = previousVersions[slot])
+            if (matches(slot, document)) return true;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        int removedDocuments = size;
+        allocate(0);
+        latestVersions.clear();
+        strings.clear();
+        size = 0;
+        end = 0;
+        compactions++;
+        if (changeFeed != null && removedDocuments > 0) changeFeed.publish(ChangeEvent.Kind.CLEARED, null, null, removedDocuments);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The feed is created on the first call. Like the other methods of this project, it must
+     * not race with the changes to this project.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        if (changeFeed == null) changeFeed = new ChangeFeed();
+
+        return changeFeed;
+    }
+
+    /**
+     * Returns the rules the documents must follow to be added to this project.
+     *
+     * @return the admission policy
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this project in bytes: the columns, the id index
+     * and the string dictionary. The views handed out by this project aren't included.
+     *
+     * @return the estimated number of bytes
+     */
+    public long memoryFootprint() {
+        // 8 int columns, 1 byte column, the id index tables and the array headers
+        return ids.length * 33L + latestVersions.capacity() * 8L + 11 * 16L + strings.memoryFootprint();
+    }
+
+    /**
+     * Returns an estimate of the heap used by each document of this project in bytes.
+     *
+     * @return the estimated number of bytes per document (0 if this project is empty)
+     */
+    public double bytesPerDocument() {
+        return (size == 0) ? 0 : (double) memoryFootprint() / size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        for (int i = 0; i < end; i++) if (types[i] != REMOVED) result = prime * result + hashCodeOf(i);
+        result = prime * result + size;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        ColumnarProject otherProject = (ColumnarProject) obj;
+        if (size != otherProject.size) return false;
+        for (int i = 0, j = 0, k = 0; k < size; i++, j++, k++) {
+            while (types[i] == REMOVED) i++;
+            while (otherProject.types[j] == REMOVED) j++;
+            if (ids[i] != otherProject.ids[j] || versions[i] != otherProject.versions[j]
+                    || fileSizes[i] != otherProject.fileSizes[j] || types[i] != otherProject.types[j]
+                    || !equalStrings(strings.decode(titles[i]), otherProject.strings.decode(otherProject.titles[j]))
+                    || !equalStrings(strings.decode(fileNames[i]), otherProject.strings.decode(otherProject.fileNames[j]))
+                    || !equalStrings(strings.decode(fileExtensions[i]), otherProject.strings.decode(otherProject.fileExtensions[j])))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("(" + size + ")[");
+        for (int i = 0, j = 0; j < size; i++) {
+            if (types[i] == REMOVED) continue;
+            result.append(new DocumentView(i)).append((++j == size) ? "" : ", ");
+        }
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Allocates empty columns with the specified capacity.
+     *
+     * @param capacity the capacity
+     */
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        versions = new int[capacity];
+        fileSizes = new int[capacity];
+        types = new byte[capacity];
+        titles = new int[capacity];
+        fileNames = new int[capacity];
+        fileExtensions = new int[capacity];
+        serials = new int[capacity];
+        previousVersions = new int[capacity];
+    }
+
+    /**
+     * Copies the columns to new columns with the specified capacity.
+     *
+     * @param capacity the new capacity
+     */
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        fileSizes = Arrays.copyOf(fileSizes, capacity);
+        types = Arrays.copyOf(types, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        fileNames = Arrays.copyOf(fileNames, capacity);
+        fileExtensions = Arrays.copyOf(fileExtensions, capacity);
+        serials = Arrays.copyOf(serials, capacity);
+        previousVersions = Arrays.copyOf(previousVersions, capacity);
+    }
+
+    /**
+     * Removes the tombstones from the columns, keeping the documents in the same order,
+     * and rebuilds the id index.
+     */
+    private void compact() {
+        int newEnd = 0;
+        latestVersions.clear();
+        for (int i = 0; i < end; i++) {
+            if (types[i] == REMOVED) continue;
+
+            ids[newEnd] = ids[i];
+            versions[newEnd] = versions[i];
+            fileSizes[newEnd] = fileSizes[i];
+            types[newEnd] = types[i];
+            titles[newEnd] = titles[i];
+            fileNames[newEnd] = fileNames[i];
+            fileExtensions[newEnd] = fileExtensions[i];
+            serials[newEnd] = serials[i];
+            previousVersions[newEnd] = latestVersions.put(ids[i], newEnd);
+            newEnd++;
+        }
+        end = newEnd;
+        compactions++;
+    }
+
+    /**
+     * Checks if the document in a slot has the same attributes as the specified document.
+     *
+     * @param slot the slot
+     * @param document the document
+     * @return true if the attributes are the same, false otherwise
+     */
+    private boolean matches(int slot, IDocument document) {
+        if (document instanceof DocumentView && ((DocumentView) document).project() == this)
+            return ((DocumentView) document).locate() == slot;
+
+        return hasAttributesOf(slot, document);
+    }
+
+    /**
+     * Checks if the document in a slot has the same attributes as the specified document,
+     * even if it's a view of the same document.
+     *
+     * @param slot the slot
+     * @param document the document
+     * @return true if the attributes are the same, false otherwise
+     */
+    private boolean hasAttributesOf(int slot, IDocument document) {
+        return ids[slot] == document.getId() && versions[slot] == document.getVersion()
+                && fileSizes[slot] == document.getFileSizeMb()
+                && types[slot] == ((document.getType() == null) ? NO_TYPE : document.getType().ordinal())
+                && equalStrings(strings.decode(titles[slot]), document.getTitle())
+                && equalStrings(strings.decode(fileNames[slot]), document.getFileName())
+                && equalStrings(strings.decode(fileExtensions[slot]), document.getFileExtension());
+    }
+
+    /**
+     * Drops the references of the document in a slot to its strings, before it's removed.
+     *
+     * @param slot the slot
+     */
+    private void releaseStrings(int slot) {
+        strings.release(titles[slot]);
+        strings.release(fileNames[slot]);
+        strings.release(fileExtensions[slot]);
+    }
+
+    /**
+     * Returns the hash code of the document in a slot, computed like {@code Document.hashCode()}.
+     *
+     * @param slot the slot
+     * @return the hash code
+     */
+    private int hashCodeOf(int slot) {
+        final int prime = 31;
+        String fileName = strings.decode(fileNames[slot]), fileExtension = strings.decode(fileExtensions[slot]);
+        String title = strings.decode(titles[slot]);
+        int result = 1;
+        result = prime * result + ids[slot];
+        result = prime * result + versions[slot];
+        result = prime * result + fileSizes[slot];
+        result = prime * result + ((fileName == null) ? 0 : fileName.hashCode());
+        result = prime * result + ((fileExtension == null) ? 0 : fileExtension.hashCode());
+        result = prime * result + ((title == null) ? 0 : title.hashCode());
+        result = prime * result + ((types[slot] == NO_TYPE) ? 0 : TYPES[types[slot]].hashCode());
+
+        return result;
+    }
+
+    /**
+     * Compares two nullable strings.
+     *
+     * @param first the first string
+     * @param second the second string
+     * @return true if both are null or equal, false otherwise
+     */
+    private static boolean equalStrings(String first, String second) {
+        return (first == null) ? second == null : first.equals(second);
+    }
+
+    /**
+     * Copies the document in a slot to a new document, detached from this project.
+     *
+     * @param slot the slot
+     * @return a new document with the attributes stored in the slot
+     */
+    private IDocument copyOf(int slot) {
+        return new Document(ids[slot], strings.decode(titles[slot]), versions[slot], strings.decode(fileNames[slot]),
+                (types[slot] < 0) ? null : TYPES[types[slot]], fileSizes[slot], strings.decode(fileExtensions[slot]));
+    }
+
+    /**
+     * Flyweight document backed by a slot of the columns of this project.
+     */
+    private final class DocumentView implements IDocument {
+        /**
+         * The id of the document
+         */
+        private final int id;
+        /**
+         * The version of the document
+         */
+        private final int version;
+        /**
+         * The serial number of the document
+         */
+        private final int serial;
+        /**
+         * The last known slot of the document
+         */
+        private int slot;
+        /**
+         * The number of compactions of the project when the slot was found
+         */
+        private int compactionsSeen;
+
+        /**
+         * Constructs a view of the document in a slot.
+         *
+         * @param slot the slot
+         */
+        private DocumentView(int slot) {
+            this.slot = slot;
+            id = ids[slot];
+            version = versions[slot];
+            serial = serials[slot];
+            compactionsSeen = compactions;
+        }
+
+        /**
+         * Returns the project of this view.
+         *
+         * @return the project of this view
+         */
+        private ColumnarProject project() {
+            return ColumnarProject.this;
+        }
+
+        /**
+         * Returns the current slot of the document, finding it again if the columns were compacted.
+         *
+         * @return the slot of the document or {@link IntIntHashMap#NO_VALUE} if it was removed from the project
+         */
+        private int locate() {
+            if (compactionsSeen != compactions) {
+                slot = latestVersions.get(id);
+                while (slot != IntIntHashMap.NO_VALUE && serials[slot] != serial) slot = previousVersions[slot];
+                compactionsSeen = compactions;
+            }
+            if (slot == IntIntHashMap.NO_VALUE || slot >= end || types[slot] == REMOVED) return IntIntHashMap.NO_VALUE;
+
+            return slot;
+        }
+
+        /**
+         * Returns the current slot of the document.
+         *
+         * @return the slot of the document
+         * @throws IllegalStateException if the document was removed from the project
+         */
+        private int slot() throws IllegalStateException {
+            int current = locate();
+            if (current == IntIntHashMap.NO_VALUE) throw new IllegalStateException("Document was removed from the project");
+
+            return current;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getTitle() {
+            return strings.decode(titles[slot()]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setTitle(String title) {
+            int current = slot(), oldTitle = titles[current];
+            titles[current] = strings.encode(title);
+            strings.release(oldTitle);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getFileName() {
+            return strings.decode(fileNames[slot()]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DocumentType getType() {
+            byte type = types[slot()];
+            return (type == NO_TYPE) ? null : TYPES[type];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setType(DocumentType type) {
+            types[slot()] = (type == null) ? NO_TYPE : (byte) type.ordinal();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getFileSizeMb() {
+            return fileSizes[slot()];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getFileExtension() {
+            return strings.decode(fileExtensions[slot()]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hashCodeOf(slot());
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Like {@code Document.equals(Object)}, a view is equal to any document with the same attributes.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof IDocument)) return false;
+
+            return hasAttributesOf(slot(), (IDocument) obj);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Document [id=" + id + ", version=" + version + ", fileSizeMb=" + getFileSizeMb() + ", filename=" + getFileName()
+                    + ", fileExtension=" + getFileExtension() + ", title=" + getTitle() + ", type=" + getType() + "]";
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package dev.joseafmoreira.project;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.document.DocumentListener;
+import dev.joseafmoreira.exceptions.EmptyProjectException;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeEvent;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Thread-safe implementation of the {@code IProject} interface. <p>
+ *
+ * The writes are serialized per document id by a fixed set of locks (stripes), so the version
+ * check of {@link #add(IDocument)} can't be raced by another writer of the same id, while
+ * writers of different ids rarely wait for each other. The reads don't lock: the versions of
+ * each id are kept in immutable arrays that are replaced on every write, and the insertion
+ * order is kept by concurrent skip lists, so {@link #toArray()} and
+ * {@link #getDocumentsByType(DocumentType)} are weakly consistent. <p>
+ *
+ * Like in {@link Project}, the type index follows the type changes of {@code Document} instances
+ * and type queries scan the documents while other implementations are in this project.
+ * The documents themselves aren't thread-safe, so their setters must not race with each other. <p>
+ *
+ * The changes are published to the {@link ChangeFeed} of this project by the writers, while
+ * holding the locks of the changed ids, so the events of each id follow the order of its writes.
+ *
+ * <h3>ConcurrentProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IProject
+ * @see Project
+ */
+public class ConcurrentProject implements ManagedProject {
+    /**
+     * The default number of write locks
+     */
+    private static final int DEFAULT_STRIPES = 64;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The locks serializing the writes of the ids that map to them
+     */
+    private final ReentrantLock[] stripes;
+    /**
+     * The versions of each id in ascending order
+     */
+    private final ConcurrentHashMap<Integer, Entry[]> versions;
+    /**
+     * The documents of this project by insertion sequence
+     */
+    private final ConcurrentSkipListMap<Long, IDocument> documents;
+    /**
+     * The documents of each type by insertion sequence, indexed by type ordinal
+     */
+    private final ConcurrentSkipListMap<Long, IDocument>[] documentsByType;
+    /**
+     * The next insertion sequence
+     */
+    private final AtomicLong sequence;
+    /**
+     * The number of documents in this project
+     */
+    private final AtomicInteger size;
+    /**
+     * The number of documents whose type changes can't be observed by this project
+     */
+    private final AtomicInteger unobservedDocuments;
+    /**
+     * The listener keeping the type index in sync with the documents of this project
+     */
+    private final DocumentListener observer;
+    /**
+     * The rules the documents must follow to be added to this project
+     */
+    private final AdmissionPolicy policy;
+    /**
+     * The feed the changes are published to
+     */
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Constructs an empty ConcurrentProject with a default number of write locks.
+     */
+    public ConcurrentProject() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs an empty ConcurrentProject with a specified number of write locks.
+     *
+     * @param concurrencyLevel the expected number of concurrent writers (Minimum value is 1),
+     * rounded up to a power of two
+     */
+    public ConcurrentProject(int concurrencyLevel) {
+        this(concurrencyLevel, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Constructs an empty ConcurrentProject with a specified number of write locks and admission policy.
+     * The policy is shared by the writers, so its custom rules must be thread-safe.
+     *
+     * @param concurrencyLevel the expected number of concurrent writers (Minimum value is 1),
+     * rounded up to a power of two
+     * @param policy the rules the documents must follow to be added to this project
+     * @throws NullPointerException if the policy is null
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentProject(int concurrencyLevel, AdmissionPolicy policy) throws NullPointerException {
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        this.policy = policy;
+        int stripeCount = 1;
+        while (stripeCount < concurrencyLevel && stripeCount < (1 << 16)) stripeCount <<= 1;
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+        versions = new ConcurrentHashMap<>();
+        documents = new ConcurrentSkipListMap<>();
+        documentsByType = (ConcurrentSkipListMap<Long, IDocument>[]) new ConcurrentSkipListMap<?, ?>[TYPES.length];
+        for (int i = 0; i < documentsByType.length; i++) documentsByType[i] = new ConcurrentSkipListMap<>();
+        sequence = new AtomicLong();
+        size = new AtomicInteger();
+        unobservedDocuments = new AtomicInteger();
+        observer = new TypeObserver();
+        changeFeed = new ChangeFeed();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        policy.checkAttributes(document);
+
+        ReentrantLock lock = stripeOf(document.getId());
+        lock.lock();
+        try {
+            Entry[] entries = versions.get(document.getId());
+            policy.checkVersion(document, (entries == null) ? AdmissionPolicy.NO_VERSION : entries[entries.length - 1].document.getVersion());
+
+            Entry entry = new Entry(sequence.incrementAndGet(), document);
+            Entry[] newEntries = (entries == null) ? new Entry[1] : Arrays.copyOf(entries, entries.length + 1);
+            newEntries[newEntries.length - 1] = entry;
+            documents.put(entry.sequence, document);
+            if (document.getType() != null) documentsByType[document.getType().ordinal()].put(entry.sequence, document);
+            versions.put(document.getId(), newEntries);
+            size.incrementAndGet();
+            if (document instanceof Document) ((Document) document).addListener(observer);
+            else unobservedDocuments.incrementAndGet();
+            if (entries == null) changeFeed.publish(ChangeEvent.Kind.ADDED, document, null, 1);
+            else changeFeed.publish(ChangeEvent.Kind.SUPERSEDED, document, entries[entries.length - 1].document, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeOldVersions() {
+        int removedVersions = 0;
+        for (Integer id : versions.keySet()) {
+            ReentrantLock lock = stripeOf(id);
+            lock.lock();
+            try {
+                Entry[] entries = versions.get(id);
+                if (entries == null || entries.length == 1) continue;
+
+                for (int i = 0; i < entries.length - 1; i++) unindex(entries[i]);
+                versions.put(id, new Entry[] { entries[entries.length - 1] });
+                removedVersions += entries.length - 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removedVersions > 0) changeFeed.publish(ChangeEvent.Kind.COMPACTED, null, null, removedVersions);
+
+        return removedVersions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (isEmpty()) throw new EmptyProjectException();
+
+        ReentrantLock lock = stripeOf(document.getId());
+        lock.lock();
+        try {
+            Entry[] entries = versions.get(document.getId());
+            for (int i = 0; entries != null && i < entries.length; i++) {
+                if (entries[i].document.equals(document)) {
+                    unindex(entries[i]);
+                    if (entries.length == 1) {
+                        versions.remove(document.getId());
+                    } else {
+                        Entry[] newEntries = new Entry[entries.length - 1];
+                        System.arraycopy(entries, 0, newEntries, 0, i);
+                        System.arraycopy(entries, i + 1, newEntries, i, newEntries.length - i);
+                        versions.put(document.getId(), newEntries);
+                    }
+                    changeFeed.publish(ChangeEvent.Kind.REMOVED, entries[i].document, null, 1);
+
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        throw new NoSuchElementException("Document not found");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        Entry[] entries = versions.get(id);
+        if (entries == null) throw new NoSuchElementException("Document not found");
+
+        return entries[entries.length - 1].document;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        if (unobservedDocuments.get() > 0)
+            return documents.values().stream().filter(document -> document.getType() == type).toArray(IDocument[]::new);
+        return documentsByType[type.ordinal()].values().toArray(new IDocument[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        return documents.values().toArray(new IDocument[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The spliterator is weakly consistent: it never throws a {@code ConcurrentModificationException}
+     * and may or may not reflect the changes made while traversing.
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return documents.values().spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        Entry[] entries = versions.get(document.getId());
+        for (int i = 0; entries != null && i < entries.length; i++) if (entries[i].document.equals(document)) return true;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        for (ReentrantLock lock : stripes) lock.lock();
+        try {
+            int removedDocuments = 0;
+            for (Map.Entry<Integer, Entry[]> entries : versions.entrySet()) {
+                for (Entry entry : entries.getValue()) unindex(entry);
+                removedDocuments += entries.getValue().length;
+            }
+            versions.clear();
+            if (removedDocuments > 0) changeFeed.publish(ChangeEvent.Kind.CLEARED, null, null, removedDocuments);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) stripes[i].unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        IDocument[] snapshot = toArray();
+        int result = 1;
+        for (IDocument document : snapshot) result = prime * result + document.hashCode();
+        result = prime * result + snapshot.length;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        ConcurrentProject otherProject = (ConcurrentProject) obj;
+        return Arrays.equals(toArray(), otherProject.toArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        IDocument[] snapshot = toArray();
+        StringBuilder result = new StringBuilder("(" + snapshot.length + ")[");
+        for (int i = 0; i < snapshot.length; i++) result.append(snapshot[i]).append((i == snapshot.length - 1) ? "" : ", ");
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Returns the rules the documents must follow to be added to this project.
+     *
+     * @return the admission policy
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the lock serializing the writes of the specified id.
+     *
+     * @param id the document id
+     * @return the lock of the id
+     */
+    private ReentrantLock stripeOf(int id) {
+        return stripes[(id ^ (id >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Removes the document of an entry from the document and type indexes.
+     * Must be called while holding the lock of the document id.
+     *
+     * @param entry the entry
+     */
+    private void unindex(Entry entry) {
+        documents.remove(entry.sequence);
+        for (ConcurrentSkipListMap<Long, IDocument> typeDocuments : documentsByType) typeDocuments.remove(entry.sequence);
+        size.decrementAndGet();
+        if (entry.document instanceof Document) ((Document) entry.document).removeListener(observer);
+        else unobservedDocuments.decrementAndGet();
+    }
+
+    /**
+     * A document of this project and its insertion sequence.
+     */
+    private static final class Entry {
+        /**
+         * The insertion sequence of the document
+         */
+        private final long sequence;
+        /**
+         * The document
+         */
+        private final IDocument document;
+
+        /**
+         * Constructs an entry with an insertion sequence and a document.
+         *
+         * @param sequence the insertion sequence
+         * @param document the document
+         */
+        private Entry(long sequence, IDocument document) {
+            this.sequence = sequence;
+            this.document = document;
+        }
+    }
+
+    /**
+     * Moves the documents of this project between the type indexes when their type changes.
+     */
+    private class TypeObserver implements DocumentListener {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void titleChanged(IDocument document, String oldTitle) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void typeChanged(IDocument document, DocumentType oldType) {
+            ReentrantLock lock = stripeOf(document.getId());
+            lock.lock();
+            try {
+                Entry[] entries = versions.get(document.getId());
+                for (int i = 0; entries != null && i < entries.length; i++) {
+                    if (entries[i].document != document) continue;
+
+                    if (oldType != null) documentsByType[oldType.ordinal()].remove(entries[i].sequence);
+                    if (document.getType() != null) documentsByType[document.getType().ordinal()].put(entries[i].sequence, document);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
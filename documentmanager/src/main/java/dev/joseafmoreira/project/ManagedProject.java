@@ -0,0 +1,129 @@
+package dev.joseafmoreira.project;
+
+import java.util.Collection;
+
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.search.TextQuery;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * A managed project extends the {@code IProject} interface with the operations of this library,
+ * which every project of this library implements. <p>
+ *
+ * The expected operations for a managed project, besides those of {@code IProject}, include: <p>
+ * <ul>
+ *  <li>{@link #addAll(IDocument[])}: Adds a batch of documents to this project</li>
+ *  <li>{@link #addAll(Collection)}: Adds a collection of documents to this project</li>
+ *  <li>{@link #removeAll(IDocument[])}: Removes a batch of documents from this project</li>
+ *  <li>{@link #removeAll(Collection)}: Removes a collection of documents from this project</li>
+ *  <li>{@link #search(String)}: Searches the titles and file names of the documents in this project</li>
+ *  <li>{@link #getChangeFeed()}: Returns the feed of the changes to this project</li>
+ * </ul>
+ *
+ * <h3>ManagedProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IProject
+ * @see BatchResult
+ * @see TextQuery
+ * @see ChangeFeed
+ */
+public interface ManagedProject extends IProject {
+    /**
+     * Adds a batch of documents to this project, in order. A document that can't be added
+     * doesn't stop the batch: its failure is recorded in the result instead of being thrown.
+     *
+     * @param documents the documents to be added
+     * @return the result of the batch
+     * @throws NullPointerException if the batch is null
+     */
+    default BatchResult addAll(IDocument[] documents) {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                add(documents[i]);
+                result.addSuccess();
+            } catch (RuntimeException e) {
+                result.addFailure(i, documents[i], e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a collection of documents to this project, in iteration order.
+     *
+     * @param documents the documents to be added
+     * @return the result of the batch
+     * @throws NullPointerException if the collection is null
+     * @see #addAll(IDocument[])
+     */
+    default BatchResult addAll(Collection<? extends IDocument> documents) {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        return addAll(documents.toArray(new IDocument[0]));
+    }
+
+    /**
+     * Removes a batch of documents from this project, in order. A document that can't be removed
+     * doesn't stop the batch: its failure is recorded in the result instead of being thrown.
+     *
+     * @param documents the documents to be removed
+     * @return the result of the batch
+     * @throws NullPointerException if the batch is null
+     */
+    default BatchResult removeAll(IDocument[] documents) {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                remove(documents[i]);
+                result.addSuccess();
+            } catch (RuntimeException e) {
+                result.addFailure(i, documents[i], e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes a collection of documents from this project, in iteration order.
+     *
+     * @param documents the documents to be removed
+     * @return the result of the batch
+     * @throws NullPointerException if the collection is null
+     * @see #removeAll(IDocument[])
+     */
+    default BatchResult removeAll(Collection<? extends IDocument> documents) {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        return removeAll(documents.toArray(new IDocument[0]));
+    }
+
+    /**
+     * Searches the titles and file names of the documents in this project, see {@link TextQuery}.
+     * The default implementation scores every document, implementations should use an index instead.
+     *
+     * @param query the text of the query
+     * @return the matching documents, from the best match to the worst (in the order of {@link #toArray()} on ties)
+     * @throws NullPointerException if the query is null
+     */
+    default IDocument[] search(String query) throws NullPointerException {
+        return new TextQuery(query).rank(toArray());
+    }
+
+    /**
+     * Returns the feed of the changes to the documents of this project, see {@link ChangeFeed}.
+     * A read-only project returns a feed that never publishes.
+     *
+     * @return the change feed
+     */
+    ChangeFeed getChangeFeed();
+}
@@ -0,0 +1,833 @@
+package dev.joseafmoreira.project;
+
+import java.nio.ByteBuffer;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.exceptions.EmptyProjectException;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeEvent;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.util.DirectIntIntHashMap;
+import dev.joseafmoreira.util.DirectMemory;
+import dev.joseafmoreira.util.DirectStringTable;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Implementation of the {@code IProject} interface that stores the documents off-heap. <p>
+ *
+ * Each document is a fixed-size record in a direct buffer, the strings are stored once each in
+ * an off-heap {@link DirectStringTable} and the id index is an off-heap {@link DirectIntIntHashMap},
+ * so the heap only holds a handful of objects whatever the number of documents, and the garbage
+ * collector never scans them. The added documents are copied into the records: changing them
+ * afterwards doesn't change this project. <p>
+ *
+ * Like the ones of {@link ColumnarProject}, the documents returned by this project are lightweight
+ * views that decode their record on each access. {@link IDocument#setTitle(String)} and
+ * {@link IDocument#setType(DocumentType)} on a view write the record, and using a view of a
+ * document removed from this project, or after {@link #close()}, throws an {@code IllegalStateException}. <p>
+ *
+ * Like {@link ColumnarProject}, removed documents leave tombstones that are compacted in batches
+ * and the records link the versions of each id. The strings of removed documents stay in the
+ * string table until the next compaction, which copies the strings still in use to a new table
+ * and frees the old one, and so do the titles replaced through a view. The changes are published
+ * to the {@link ChangeFeed} returned by {@link #getChangeFeed()}, created on the first call, with
+ * detached copies of the documents decoded only while the feed has subscriptions. {@link #close()} frees the off-heap memory right away,
+ * after which every operation throws an {@code IllegalStateException}. This project isn't thread-safe.
+ *
+ * <h3>OffHeapProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IProject
+ * @see ColumnarProject
+ */
+public class OffHeapProject implements ManagedProject, AutoCloseable {
+    /**
+     * The default capacity of this project records
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+    /**
+     * The bytes of a record
+     */
+    private static final int RECORD_BYTES = 36;
+    /**
+     * The maximum number of records
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_BYTES;
+    /**
+     * The position of the id in a record
+     */
+    private static final int ID = 0;
+    /**
+     * The position of the version in a record
+     */
+    private static final int VERSION = 4;
+    /**
+     * The position of the file size in a record
+     */
+    private static final int FILE_SIZE = 8;
+    /**
+     * The position of the title code in a record
+     */
+    private static final int TITLE = 12;
+    /**
+     * The position of the file name code in a record
+     */
+    private static final int FILE_NAME = 16;
+    /**
+     * The position of the file extension code in a record
+     */
+    private static final int FILE_EXTENSION = 20;
+    /**
+     * The position of the slot of the previous version in a record
+     */
+    private static final int PREVIOUS_VERSION = 24;
+    /**
+     * The position of the type ordinal in a record
+     */
+    private static final int TYPE = 28;
+    /**
+     * The position of the serial number in a record, telling apart documents added with the same id and version
+     */
+    private static final int SERIAL = 32;
+    /**
+     * The type byte of a document without type
+     */
+    private static final byte NO_TYPE = -1;
+    /**
+     * The type byte of a removed document (tombstone)
+     */
+    private static final byte REMOVED = -2;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The records of the documents
+     */
+    private ByteBuffer records;
+    /**
+     * The number of records that fit in the buffer
+     */
+    private int capacity;
+    /**
+     * The index mapping each document id to the slot of its latest version
+     */
+    private DirectIntIntHashMap latestVersions;
+    /**
+     * The strings of the documents
+     */
+    private DirectStringTable strings;
+    /**
+     * The rules the documents must follow to be added to this project
+     */
+    private final AdmissionPolicy policy;
+    /**
+     * The number of documents in this project
+     */
+    private int size;
+    /**
+     * The number of used slots (documents and tombstones)
+     */
+    private int end;
+    /**
+     * Whether the off-heap memory was freed
+     */
+    private boolean closed;
+    /**
+     * The number of modifications to the records, used by the spliterators to fail fast
+     */
+    private int modCount;
+    /**
+     * The number of compactions, used by the views to know when their slot may have moved
+     */
+    private int compactions;
+    /**
+     * The serial number of the next added document
+     */
+    private int nextSerial;
+    /**
+     * The feed the changes are published to, created on the first request (null before)
+     */
+    private ChangeFeed changeFeed;
+
+    /**
+     * Constructs an empty OffHeapProject with a default capacity.
+     */
+    public OffHeapProject() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty OffHeapProject with a specified initial capacity.
+     *
+     * @param initialCapacity the initial capacity (Minimum value is 0)
+     */
+    public OffHeapProject(int initialCapacity) {
+        this(initialCapacity, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Constructs an empty OffHeapProject with a specified initial capacity and admission policy.
+     *
+     * @param initialCapacity the initial capacity (Minimum value is 0)
+     * @param policy the rules the documents must follow to be added to this project
+     * @throws NullPointerException if the policy is null
+     */
+    public OffHeapProject(int initialCapacity, AdmissionPolicy policy) throws NullPointerException {
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        this.policy = policy;
+        capacity = Math.min(MAX_CAPACITY, Math.max(0, initialCapacity));
+        records = DirectMemory.allocate(capacity * RECORD_BYTES);
+        latestVersions = new DirectIntIntHashMap(capacity);
+        strings = new DirectStringTable();
+        size = 0;
+        end = 0;
+        closed = false;
+        modCount = 0;
+        compactions = 0;
+        nextSerial = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     * @throws IllegalStateException if this project is closed or full
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        checkOpen();
+        policy.checkAttributes(document);
+        int latest = latestVersions.get(document.getId());
+        policy.checkVersion(document, (latest == DirectIntIntHashMap.NO_VALUE) ? AdmissionPolicy.NO_VERSION : intAt(latest, VERSION));
+
+        if (end == capacity) {
+            if (end - size > capacity / 4) compact();
+            else grow();
+        }
+        int record = end * RECORD_BYTES;
+        records.putInt(record + ID, document.getId());
+        records.putInt(record + VERSION, document.getVersion());
+        records.putInt(record + FILE_SIZE, document.getFileSizeMb());
+        records.putInt(record + TITLE, strings.encode(document.getTitle()));
+        records.putInt(record + FILE_NAME, strings.encode(document.getFileName()));
+        records.putInt(record + FILE_EXTENSION, strings.encode(document.getFileExtension()));
+        records.put(record + TYPE, (document.getType() == null) ? NO_TYPE : (byte) document.getType().ordinal());
+        records.putInt(record + SERIAL, nextSerial++);
+        records.putInt(record + PREVIOUS_VERSION, latestVersions.put(document.getId(), end));
+        end++;
+        size++;
+        modCount++;
+        if (changeFeed != null && changeFeed.hasSubscribers()) {
+            int previous = intAt(end - 1, PREVIOUS_VERSION);
+            if (previous == DirectIntIntHashMap.NO_VALUE) changeFeed.publish(ChangeEvent.Kind.ADDED, copyOf(end - 1), null, 1);
+            else changeFeed.publish(ChangeEvent.Kind.SUPERSEDED, copyOf(end - 1), copyOf(previous), 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public int removeOldVersions() {
+        checkOpen();
+
+        int removedVersions = 0;
+        for (int i = 0; i < end; i++) {
+            if (typeAt(i) == REMOVED) continue;
+
+            if (latestVersions.get(intAt(i, ID)) != i) {
+                records.put(i * RECORD_BYTES + TYPE, REMOVED);
+                removedVersions++;
+            }
+        }
+        size -= removedVersions;
+        if (removedVersions > 0) {
+            modCount++;
+            compact();
+        }
+        if (changeFeed != null && removedVersions > 0) changeFeed.publish(ChangeEvent.Kind.COMPACTED, null, null, removedVersions);
+
+        return removedVersions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        checkOpen();
+        if (document == null) throw new NullPointerException("Document is null");
+        if (isEmpty()) throw new EmptyProjectException();
+
+        int slot = latestVersions.get(document.getId()), newerSlot = DirectIntIntHashMap.NO_VALUE;
+        while (slot != DirectIntIntHashMap.NO_VALUE) {
+            int previousSlot = intAt(slot, PREVIOUS_VERSION);
+            if (matches(slot, document)) {
+                if (newerSlot != DirectIntIntHashMap.NO_VALUE) records.putInt(newerSlot * RECORD_BYTES + PREVIOUS_VERSION, previousSlot);
+                else if (previousSlot != DirectIntIntHashMap.NO_VALUE) latestVersions.put(document.getId(), previousSlot);
+                else latestVersions.remove(document.getId());
+                IDocument removed = (changeFeed != null && changeFeed.hasSubscribers()) ? copyOf(slot) : null;
+                records.put(slot * RECORD_BYTES + TYPE, REMOVED);
+                size--;
+                modCount++;
+                if (end - size > size) compact();
+                if (removed != null) changeFeed.publish(ChangeEvent.Kind.REMOVED, removed, null, 1);
+
+                return;
+            }
+            newerSlot = slot;
+            slot = previousSlot;
+        }
+
+        throw new NoSuchElementException("Document not found");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        checkOpen();
+        int latest = latestVersions.get(id);
+        if (latest == DirectIntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
+
+        return new DocumentView(latest);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the type is null
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        checkOpen();
+        if (type == null) throw new NullPointerException("Type is null");
+
+        byte ordinal = (byte) type.ordinal();
+        int count = 0;
+        for (int i = 0; i < end; i++) if (typeAt(i) == ordinal) count++;
+        IDocument[] result = new IDocument[count];
+        for (int i = 0, j = 0; j < count; i++) if (typeAt(i) == ordinal) result[j++] = new DocumentView(i);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public IDocument[] toArray() {
+        checkOpen();
+        IDocument[] resultDocuments = new IDocument[size];
+        for (int i = 0, j = 0; j < size; i++) if (typeAt(i) != REMOVED) resultDocuments[j++] = new DocumentView(i);
+
+        return resultDocuments;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The documents are decoded lazily as they are traversed. The spliterator throws a
+     * {@code ConcurrentModificationException} if this project is modified or closed while traversing.
+     *
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        checkOpen();
+
+        int expectedModCount = modCount;
+        return IntStream.range(0, end).filter(slot -> {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return typeAt(slot) != REMOVED;
+        }).mapToObj(slot -> (IDocument) new DocumentView(slot)).spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        checkOpen();
+        if (document == null) throw new NullPointerException("Document is null");
+
+        for (int slot = latestVersions.get(document.getId()); slot != DirectIntIntHashMap.NO_VALUE; slot = intAt(slot, PREVIOUS_VERSION))
+            if (matches(slot, document)) return true;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The off-heap memory is kept for the next documents.
+     *
+     * @throws IllegalStateException if this project is closed
+     */
+    @Override
+    public void clear() {
+        checkOpen();
+        int removedDocuments = size;
+        latestVersions.clear();
+        strings.clear();
+        size = 0;
+        end = 0;
+        modCount++;
+        compactions++;
+        if (changeFeed != null && removedDocuments > 0) changeFeed.publish(ChangeEvent.Kind.CLEARED, null, null, removedDocuments);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The feed is created on the first call and outlives {@link #close()}, which publishes
+     * nothing. Like the other methods of this project, it must not race with the changes to this project.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        if (changeFeed == null) changeFeed = new ChangeFeed();
+
+        return changeFeed;
+    }
+
+    /**
+     * Frees the off-heap memory of this project. Closing a closed project has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        closed = true;
+        modCount++;
+        DirectMemory.free(records);
+        latestVersions.free();
+        strings.free();
+        records = null;
+        latestVersions = null;
+        strings = null;
+        size = 0;
+        end = 0;
+    }
+
+    /**
+     * Checks if the off-heap memory of this project was freed.
+     *
+     * @return true if this project is closed, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of off-heap bytes used by this project: the records, the id index and the strings.
+     *
+     * @return the number of bytes (0 if this project is closed)
+     */
+    public long memoryFootprint() {
+        if (closed) return 0;
+
+        return records.capacity() + latestVersions.memoryFootprint() + strings.memoryFootprint();
+    }
+
+    /**
+     * Returns the rules the documents must follow to be added to this project.
+     *
+     * @return the admission policy
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return policy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        if (closed) return 0;
+
+        final int prime = 31;
+        int result = 1;
+        for (int i = 0; i < end; i++) if (typeAt(i) != REMOVED) result = prime * result + copyOf(i).hashCode();
+        result = prime * result + size;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        OffHeapProject otherProject = (OffHeapProject) obj;
+        if (closed || otherProject.closed) return false;
+        if (size != otherProject.size) return false;
+        for (int i = 0, j = 0, k = 0; k < size; i++, j++, k++) {
+            while (typeAt(i) == REMOVED) i++;
+            while (otherProject.typeAt(j) == REMOVED) j++;
+            if (!copyOf(i).equals(otherProject.copyOf(j))) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (closed) return "(closed)";
+
+        StringBuilder result = new StringBuilder("(" + size + ")[");
+        for (int i = 0, j = 0; j < size; i++) {
+            if (typeAt(i) == REMOVED) continue;
+            result.append(copyOf(i)).append((++j == size) ? "" : ", ");
+        }
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Throws if the off-heap memory of this project was freed.
+     *
+     * @throws IllegalStateException if this project is closed
+     */
+    private void checkOpen() throws IllegalStateException {
+        if (closed) throw new IllegalStateException("Project is closed");
+    }
+
+    /**
+     * Returns an {@code int} field of a record.
+     *
+     * @param slot the slot of the record
+     * @param field the position of the field in the record
+     * @return the value of the field
+     */
+    private int intAt(int slot, int field) {
+        return records.getInt(slot * RECORD_BYTES + field);
+    }
+
+    /**
+     * Returns the type byte of a record.
+     *
+     * @param slot the slot of the record
+     * @return the type ordinal, {@link #NO_TYPE} or {@link #REMOVED}
+     */
+    private byte typeAt(int slot) {
+        return records.get(slot * RECORD_BYTES + TYPE);
+    }
+
+    /**
+     * Decodes the document in a slot to a new document, detached from this project.
+     *
+     * @param slot the slot
+     * @return a new document with the attributes stored in the slot
+     */
+    private IDocument copyOf(int slot) {
+        byte type = typeAt(slot);
+
+        return new Document(intAt(slot, ID), strings.decode(intAt(slot, TITLE)), intAt(slot, VERSION),
+                strings.decode(intAt(slot, FILE_NAME)), (type < 0) ? null : TYPES[type],
+                intAt(slot, FILE_SIZE), strings.decode(intAt(slot, FILE_EXTENSION)));
+    }
+
+    /**
+     * Checks if the document in a slot has the same attributes as the specified document, without decoding it.
+     *
+     * @param slot the slot
+     * @param document the document
+     * @return true if the attributes are the same, false otherwise
+     */
+    private boolean matches(int slot, IDocument document) {
+        if (document instanceof DocumentView && ((DocumentView) document).project() == this)
+            return ((DocumentView) document).locate() == slot;
+
+        return hasAttributesOf(slot, document);
+    }
+
+    /**
+     * Checks if the document in a slot has the same attributes as the specified document,
+     * even if it's a view of the same document.
+     *
+     * @param slot the slot
+     * @param document the document
+     * @return true if the attributes are the same, false otherwise
+     */
+    private boolean hasAttributesOf(int slot, IDocument document) {
+        return intAt(slot, ID) == document.getId() && intAt(slot, VERSION) == document.getVersion()
+                && intAt(slot, FILE_SIZE) == document.getFileSizeMb()
+                && typeAt(slot) == ((document.getType() == null) ? NO_TYPE : document.getType().ordinal())
+                && strings.matches(intAt(slot, TITLE), document.getTitle())
+                && strings.matches(intAt(slot, FILE_NAME), document.getFileName())
+                && strings.matches(intAt(slot, FILE_EXTENSION), document.getFileExtension());
+    }
+
+    /**
+     * Grows the records by half of their capacity (at least by one record).
+     *
+     * @throws IllegalStateException if the records reached their maximum capacity
+     */
+    private void grow() throws IllegalStateException {
+        if (capacity == MAX_CAPACITY) throw new IllegalStateException("Project is full");
+
+        capacity = (int) Math.min(MAX_CAPACITY, Math.max(capacity + 1L, capacity + (capacity / 2L)));
+        records = DirectMemory.grow(records, capacity * RECORD_BYTES);
+    }
+
+    /**
+     * Removes the tombstones from the records, keeping the documents in the same order,
+     * and rebuilds the id index and the string table, so the strings of the removed
+     * documents are freed.
+     */
+    private void compact() {
+        int newEnd = 0;
+        DirectStringTable newStrings = new DirectStringTable();
+        latestVersions.clear();
+        for (int i = 0; i < end; i++) {
+            if (typeAt(i) == REMOVED) continue;
+
+            int record = newEnd * RECORD_BYTES;
+            if (newEnd != i) records.put(record, records, i * RECORD_BYTES, RECORD_BYTES);
+            records.putInt(record + TITLE, newStrings.copy(strings, intAt(newEnd, TITLE)));
+            records.putInt(record + FILE_NAME, newStrings.copy(strings, intAt(newEnd, FILE_NAME)));
+            records.putInt(record + FILE_EXTENSION, newStrings.copy(strings, intAt(newEnd, FILE_EXTENSION)));
+            records.putInt(record + PREVIOUS_VERSION, latestVersions.put(intAt(newEnd, ID), newEnd));
+            newEnd++;
+        }
+        strings.free();
+        strings = newStrings;
+        end = newEnd;
+        modCount++;
+        compactions++;
+    }
+
+    /**
+     * Flyweight document backed by a record of this project.
+     */
+    private final class DocumentView implements IDocument {
+        /**
+         * The id of the document
+         */
+        private final int id;
+        /**
+         * The version of the document
+         */
+        private final int version;
+        /**
+         * The serial number of the document
+         */
+        private final int serial;
+        /**
+         * The last known slot of the document
+         */
+        private int slot;
+        /**
+         * The number of compactions of the project when the slot was found
+         */
+        private int compactionsSeen;
+
+        /**
+         * Constructs a view of the document in a slot.
+         *
+         * @param slot the slot
+         */
+        private DocumentView(int slot) {
+            this.slot = slot;
+            id = intAt(slot, ID);
+            version = intAt(slot, VERSION);
+            serial = intAt(slot, SERIAL);
+            compactionsSeen = compactions;
+        }
+
+        /**
+         * Returns the project of this view.
+         *
+         * @return the project of this view
+         */
+        private OffHeapProject project() {
+            return OffHeapProject.this;
+        }
+
+        /**
+         * Returns the current slot of the document, finding it again if the records were compacted.
+         *
+         * @return the slot of the document or {@link DirectIntIntHashMap#NO_VALUE} if it was removed from the project
+         */
+        private int locate() {
+            if (closed) return DirectIntIntHashMap.NO_VALUE;
+            if (compactionsSeen != compactions) {
+                slot = latestVersions.get(id);
+                while (slot != DirectIntIntHashMap.NO_VALUE && intAt(slot, SERIAL) != serial) slot = intAt(slot, PREVIOUS_VERSION);
+                compactionsSeen = compactions;
+            }
+            if (slot == DirectIntIntHashMap.NO_VALUE || slot >= end || typeAt(slot) == REMOVED) return DirectIntIntHashMap.NO_VALUE;
+
+            return slot;
+        }
+
+        /**
+         * Returns the current slot of the document.
+         *
+         * @return the slot of the document
+         * @throws IllegalStateException if the project is closed or the document was removed from it
+         */
+        private int slot() throws IllegalStateException {
+            checkOpen();
+            int current = locate();
+            if (current == DirectIntIntHashMap.NO_VALUE) throw new IllegalStateException("Document was removed from the project");
+
+            return current;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getTitle() {
+            return strings.decode(intAt(slot(), TITLE));
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The old title stays in the string table until the next compaction.
+         */
+        @Override
+        public void setTitle(String title) {
+            int current = slot();
+            records.putInt(current * RECORD_BYTES + TITLE, strings.encode(title));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getFileName() {
+            return strings.decode(intAt(slot(), FILE_NAME));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DocumentType getType() {
+            byte type = typeAt(slot());
+            return (type == NO_TYPE) ? null : TYPES[type];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setType(DocumentType type) {
+            records.put(slot() * RECORD_BYTES + TYPE, (type == null) ? NO_TYPE : (byte) type.ordinal());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getFileSizeMb() {
+            return intAt(slot(), FILE_SIZE);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getFileExtension() {
+            return strings.decode(intAt(slot(), FILE_EXTENSION));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return copyOf(slot()).hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Like {@code Document.equals(Object)}, a view is equal to any document with the same attributes.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof IDocument)) return false;
+
+            return hasAttributesOf(slot(), (IDocument) obj);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return copyOf(slot()).toString();
+        }
+    }
+}
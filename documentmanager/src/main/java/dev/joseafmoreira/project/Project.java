@@ -1,15 +1,64 @@
 package dev.joseafmoreira.project;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.document.DocumentListener;
 import dev.joseafmoreira.exceptions.EmptyProjectException;
 import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import dev.joseafmoreira.feed.ChangeEvent;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.search.TextIndex;
+import dev.joseafmoreira.search.TextQuery;
+import dev.joseafmoreira.util.ChunkedExecution;
+import dev.joseafmoreira.util.IntIntHashMap;
+import dev.joseafmoreira.validation.AdmissionPolicy;
 import pt.ipp.estg.fpoo.document.DocumentType;
 import pt.ipp.estg.fpoo.document.IDocument;
 import pt.ipp.estg.fpoo.project.IProject;
 
 /**
- * Concrete implementation of the {@code IProject} interface.
+ * Concrete implementation of the {@code IProject} interface. <p>
+ * 
+ * The documents are kept in insertion order in an array. An id index maps each document id
+ * to the slot of its latest version and every slot links to the slot of the previous version
+ * of the same id, so {@link #get(int)} and the version check of {@link #add(IDocument)}
+ * run in amortized constant time. A second index keeps the slots of the documents of each
+ * type, so {@link #getDocumentsByType(DocumentType)} only visits the matching documents. <p>
+ * 
+ * {@link #remove(IDocument)} finds the slot of a document through the version links of its id
+ * and leaves an empty slot (tombstone) behind instead of shifting the following documents.
+ * The tombstones are compacted in batches, when they outnumber the documents or when the
+ * array is full, so the insertion order is preserved at an amortized constant cost. <p>
+ * 
+ * The hash code of this project is the sum of the hash codes of its documents, kept up to date
+ * on every change, so {@link #hashCode()} runs in constant time and {@link #equals(Object)}
+ * rejects most different projects without comparing their documents. <p>
+ * 
+ * In parallel mode (see {@link #parallel()}), the linear passes over the array ({@link #removeOldVersions()},
+ * the compaction of the tombstones, {@link #equals(Object)} and the type scans used when some documents
+ * can't be observed) are split in chunks run in a {@code ForkJoinPool}, once the array reaches a threshold. <p>
+ * 
+ * {@link #snapshot()} returns a read-only view of this project in constant time. The snapshot shares
+ * the array of this project: appending documents doesn't touch the slots it sees, and the first
+ * change to those slots (a removal or a compaction) copies the array instead of changing it. <p>
+ * 
+ * {@link #search(String)} uses a {@link TextIndex} of the titles and file names, built on the
+ * first search and kept up to date on every change. <p>
+ * 
+ * The changes are published to the {@link ChangeFeed} returned by {@link #getChangeFeed()}, created
+ * on the first call, by the thread changing this project. Until then, and while the feed has no
+ * subscriptions, no event is built. <p>
+ * 
+ * The documents are checked against an {@link AdmissionPolicy} before being added, by default
+ * {@link AdmissionPolicy#standard()} (up to 2 MB, pdf files and newer versions).
  * 
  * <h3>Project</h3>
  * @since 1.0
@@ -17,19 +66,112 @@ import pt.ipp.estg.fpoo.project.IProject;
  * @author joseafmoreira
  * @see IProject
  */
-public class Project implements IProject {
+public class Project implements ManagedProject {
     /**
      * The default capacity of this project array
      */
     private static final int DEFAULT_CAPACITY = 10;
+    /**
+     * The default number of slots from which the linear passes run in parallel
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+    /**
+     * The bytes of a slot across the array and the slot tables, assuming compressed references
+     */
+    private static final int SLOT_BYTES = 4 + 4 + 1 + 4;
     /**
      * The array containing the elements of this project
      */
     private IDocument[] array;
+    /**
+     * Whether the array is shared with a snapshot, so it must be copied before its used slots are changed
+     */
+    private boolean arrayShared;
+    /**
+     * The type ordinal indexed for the document in each slot (-1 if it has no type)
+     */
+    private byte[] slotTypes;
+    /**
+     * The hash code of the document in each slot
+     */
+    private int[] slotHashes;
+    /**
+     * The slot of the previous version of the document in each slot
+     * ({@link IntIntHashMap#NO_VALUE} if it's the oldest version)
+     */
+    private int[] previousVersions;
+    /**
+     * The index mapping each document id to the slot of its latest version
+     */
+    private final IntIntHashMap latestVersions;
+    /**
+     * The slots of the documents of each type in ascending order, indexed by type ordinal
+     */
+    private final int[][] typeSlots;
+    /**
+     * The number of slots (including tombstones) in the type index of each type, indexed by type ordinal
+     */
+    private final int[] typeEnds;
+    /**
+     * The number of documents of each type, indexed by type ordinal
+     */
+    private final int[] typeCounts;
+    /**
+     * The number of documents whose changes can't be observed by this project
+     */
+    private int unobservedDocuments;
+    /**
+     * The sum of the hash codes of the documents in this project
+     */
+    private int documentsHash;
+    /**
+     * The listener keeping the type index and the hash codes in sync with the documents of this project
+     */
+    private final DocumentListener observer;
+    /**
+     * The number of modifications to the indexes, used by the views to fail fast
+     */
+    private int modCount;
+    /**
+     * The rules the documents must follow to be added to this project
+     */
+    private final AdmissionPolicy policy;
+    /**
+     * The full-text index of the titles and file names, built on the first search (null before)
+     */
+    private TextIndex textIndex;
+    /**
+     * The feed the changes are published to, created on the first request (null before)
+     */
+    private ChangeFeed changeFeed;
+    /**
+     * The pool running the linear passes in parallel mode (null in sequential mode)
+     */
+    private ForkJoinPool pool;
+    /**
+     * The number of slots from which the linear passes run in parallel
+     */
+    private int parallelThreshold;
+    /**
+     * The number of times the storage was reallocated to grow
+     */
+    private long resizes;
+    /**
+     * The number of bytes copied by the reallocations of the storage and the copies of shared arrays
+     */
+    private long copiedBytes;
     /**
      * The number of documents in this list
      */
     private int size;
+    /**
+     * The number of used slots in the array (documents and tombstones)
+     */
+    private int end;
 
     /**
      * Constructs an empty Project with a default capacity.
@@ -44,8 +186,43 @@ public class Project implements IProject {
      * @param initialCapacity the initial capacity (Minimum value is 0)
      */
     public Project(int initialCapacity) {
+        this(initialCapacity, AdmissionPolicy.standard());
+    }
+
+    /**
+     * Constructs an empty Project with a default capacity and the specified admission policy.
+     * 
+     * @param policy the rules the documents must follow to be added to this project
+     * @throws NullPointerException if the policy is null
+     */
+    public Project(AdmissionPolicy policy) throws NullPointerException {
+        this(DEFAULT_CAPACITY, policy);
+    }
+
+    /**
+     * Constructs an empty Project with a specified initial capacity and admission policy.
+     * 
+     * @param initialCapacity the initial capacity (Minimum value is 0)
+     * @param policy the rules the documents must follow to be added to this project
+     * @throws NullPointerException if the policy is null
+     */
+    public Project(int initialCapacity, AdmissionPolicy policy) throws NullPointerException {
+        if (policy == null) throw new NullPointerException("Policy is null");
+
+        this.policy = policy;
         array = new IDocument[(initialCapacity < 0) ? 0 : initialCapacity];
+        previousVersions = new int[array.length];
+        slotTypes = new byte[array.length];
+        slotHashes = new int[array.length];
+        latestVersions = new IntIntHashMap(array.length);
+        typeSlots = new int[TYPES.length][0];
+        typeEnds = new int[TYPES.length];
+        typeCounts = new int[TYPES.length];
+        observer = new DocumentObserver();
+        documentsHash = 0;
+        parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
         size = 0;
+        end = 0;
     }
 
     /**
@@ -56,44 +233,78 @@ public class Project implements IProject {
      */
     @Override
     public void add(IDocument document) throws NullPointerException {
-        if (document == null) throw new NullPointerException("Document is null");
-        if (document.getFileSizeMb() > 2) throw new InvalidDocumentException("Document can't have more than 2 MB");
-        if (!document.getFileExtension().equals("pdf")) throw new InvalidDocumentException("Document file extension needs to be pdf");
-        for (int i = 0; i < size(); i++) {
-            if (array[i].getId() == document.getId() && 
-                array[i].getVersion() >= document.getVersion())
-                    throw new InvalidDocumentException("There's already a newer or equal version of this document in this project");
-        }
+        validate(document);
 
-        if (size == array.length) expandCapacity();
-        array[size++] = document;
+        if (end == array.length) {
+            // Reuses the tombstones when they take a good part of the array
+            if (end - size() > array.length / 4) compact();
+            else expandCapacity();
+        }
+        append(document);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The storage is resized at most once for the whole batch and every document is validated
+     * against the documents of this project and the previous documents of the batch.
+     * 
+     * @throws NullPointerException if the batch is null
      */
     @Override
-    public int removeOldVersions() {
-        boolean[] latestDocuments = new boolean[size()];
-        for (int i = 0; i < size(); i++) {
-            latestDocuments[i] = true;
-            for (int j = 0; j < size(); j++) {
-                if (i != j && array[i].getId() == array[j].getId() && array[i].getVersion() < array[j].getVersion()) {
-                    latestDocuments[i] = false;
-                    break;
-                }
+    public BatchResult addAll(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        ensureCapacity(documents.length);
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                validate(documents[i]);
+                append(documents[i]);
+                result.addSuccess();
+            } catch (RuntimeException e) {
+                result.addFailure(i, documents[i], e);
             }
         }
-        IDocument[] newArray = new IDocument[array.length];
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeOldVersions() {
+        unshare();
+        if (runsInParallel()) return removeOldVersionsInParallel();
+
         int newSize = 0, removedVersions;
-        for (int i = 0; i < size(); i++) {
-            if (latestDocuments[i]) {
-                newArray[newSize++] = array[i];
+        Arrays.fill(typeEnds, 0);
+        Arrays.fill(typeCounts, 0);
+        for (int i = 0; i < end; i++) {
+            if (array[i] == null) continue;
+
+            int id = array[i].getId();
+            // Only the latest version of each id is indexed, the others are dropped
+            if (latestVersions.get(id) != i) {
+                unwatch(array[i]);
+                documentsHash -= slotHashes[i];
+                continue;
             }
+
+            array[newSize] = array[i];
+            slotHashes[newSize] = slotHashes[i];
+            previousVersions[newSize] = IntIntHashMap.NO_VALUE;
+            latestVersions.put(id, newSize);
+            indexType(newSize, array[newSize].getType());
+            newSize++;
         }
-        array = newArray;
+        for (int i = newSize; i < end; i++) array[i] = null;
         removedVersions = size() - newSize;
         size = newSize;
+        end = newSize;
+        modCount++;
+        if (changeFeed != null && removedVersions > 0) changeFeed.publish(ChangeEvent.Kind.COMPACTED, null, null, removedVersions);
 
         return removedVersions;
     }
@@ -107,33 +318,33 @@ public class Project implements IProject {
      */
     @Override
     public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
-        if (document == null) throw new NullPointerException("Document is null");
-        if (isEmpty()) throw new EmptyProjectException();
-
-        if (array[0].equals(document)) {
-            for (int i = 0; i < size() - 1; i++) array[i] = array[i + 1];
-            array[--size] = null;
+        unlink(document);
+        if (end - size() > size()) compact();
+    }
 
-            return;
-        } else if (array[size() - 1].equals(document)) {
-            array[--size] = null;
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The tombstones left by the removed documents are compacted at most once for the whole batch.
+     * 
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult removeAll(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
 
-            return;
-        } else {
-            for (int i = 1; i < size() - 1; i++) {
-                if (array[i].equals(document)) {
-                    array[i] = null;
-                    for (int j = i; j < size() - 1; j++) {
-                        array[j] = array[j + 1];
-                    }
-                    array[--size] = null;
-    
-                    return;
-                }
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                unlink(documents[i]);
+                result.addSuccess();
+            } catch (RuntimeException e) {
+                result.addFailure(i, documents[i], e);
             }
-        }   
+        }
+        if (end - size() > size()) compact();
 
-        throw new NoSuchElementException("Document not found");
+        return result;
     }
 
     /**
@@ -143,14 +354,10 @@ public class Project implements IProject {
      */
     @Override
     public IDocument get(int id) throws NoSuchElementException {
-        IDocument document = null;
-        for (int i = 0; i < size; i++)
-            if (array[i].getId() == id && 
-                (document == null || array[i].getVersion() > document.getVersion())) 
-                    document = array[i];
-        if (document == null) throw new NoSuchElementException("Document not found");
+        int latest = latestVersions.get(id);
+        if (latest == IntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
 
-        return document;
+        return array[latest];
     }
 
     /**
@@ -162,30 +369,84 @@ public class Project implements IProject {
     public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
         if (type == null) throw new NullPointerException("Type is null");
 
-        IDocument[] tempArray = new IDocument[size()];
-        int tempSize = 0;
-        for (int i = 0; i < size(); i++) {
-            if (array[i].getType().equals(type)) {
-                tempArray[tempSize++] = array[i];
-            }
+        IDocument[] result;
+        if (unobservedDocuments > 0 && runsInParallel()) {
+            result = scanInParallel(type);
+        } else if (unobservedDocuments > 0) {
+            int count = 0;
+            for (int i = 0; i < end; i++) if (array[i] != null && array[i].getType() == type) count++;
+            result = new IDocument[count];
+            for (int i = 0, j = 0; j < count; i++) if (array[i] != null && array[i].getType() == type) result[j++] = array[i];
+        } else {
+            int[] slots = typeSlots[type.ordinal()];
+            result = new IDocument[typeCounts[type.ordinal()]];
+            for (int i = 0, j = 0; j < result.length; i++) if (array[slots[i]] != null) result[j++] = array[slots[i]];
         }
-        IDocument[] result = new IDocument[tempSize];
-        for (int i = 0; i < tempSize; i++) result[i] = tempArray[i];
 
         return result;
     }
 
+    /**
+     * Returns a read-only view of the documents in this project of a certain type.
+     * Unlike {@link #getDocumentsByType(DocumentType)}, no array is copied. The iterators
+     * of the view throw a {@code ConcurrentModificationException} if this project or the type
+     * of one of its documents is modified while iterating.
+     * 
+     * @param type the document type
+     * @return a read-only view of the documents with the specified type
+     * @throws NullPointerException if the type is null
+     */
+    public Iterable<IDocument> viewDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        return () -> new TypeIterator(type);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public IDocument[] toArray() {
         IDocument[] resultDocuments = new IDocument[size()];
-        for (int i = 0; i < size(); i++) resultDocuments[i] = array[i];
+        for (int i = 0, j = 0; j < size(); i++) if (array[i] != null) resultDocuments[j++] = array[i];
 
         return resultDocuments;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The spliterator traverses the array of this project without copying it and throws a
+     * {@code ConcurrentModificationException} if this project is modified while traversing.
+     * It's always {@code SIZED}, and also {@code SUBSIZED} when the array has no tombstones.
+     * Otherwise the sizes of its splits are estimates.
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return new DocumentSpliterator(0, end, size(), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The text index is built on the first search and kept up to date afterwards. While some
+     * documents can't be observed, their titles may change unnoticed and every document is scored instead.
+     * 
+     * @throws NullPointerException if the query is null
+     */
+    @Override
+    public IDocument[] search(String query) throws NullPointerException {
+        TextQuery textQuery = new TextQuery(query);
+        if (unobservedDocuments > 0) return textQuery.rank(toArray());
+
+        if (textIndex == null) {
+            textIndex = new TextIndex();
+            for (int i = 0; i < end; i++) if (array[i] != null) textIndex.add(array[i]);
+        }
+
+        return textIndex.search(textQuery);
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -195,7 +456,8 @@ public class Project implements IProject {
     public boolean contains(IDocument document) throws NullPointerException {
         if (document == null) throw new NullPointerException("Document is null");
 
-        for (int i = 0; i < size(); i++) if (array[i].equals(document)) return true;
+        for (int slot = latestVersions.get(document.getId()); slot != IntIntHashMap.NO_VALUE; slot = previousVersions[slot])
+            if (array[slot].equals(document)) return true;
         return false;
     }
 
@@ -220,18 +482,34 @@ public class Project implements IProject {
      */
     @Override
     public void clear() {
+        int removedDocuments = size();
+        textIndex = null;
+        for (int i = 0; i < end; i++) if (array[i] != null) unwatch(array[i]);
         size = 0;
+        end = 0;
         array = new IDocument[size()];
+        arrayShared = false;
+        previousVersions = new int[size()];
+        slotTypes = new byte[size()];
+        slotHashes = new int[size()];
+        documentsHash = 0;
+        latestVersions.clear();
+        Arrays.fill(typeEnds, 0);
+        Arrays.fill(typeCounts, 0);
+        modCount++;
+        if (changeFeed != null && removedDocuments > 0) changeFeed.publish(ChangeEvent.Kind.CLEARED, null, null, removedDocuments);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Runs in constant time, unless this project holds documents whose changes it can't observe.
      */
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        for (int i = 0; i < size(); i++) result = prime * result + array[i].hashCode();
+        result = prime * result + documentsHash();
         result = prime * result + size();
 
         return result;
@@ -247,7 +525,13 @@ public class Project implements IProject {
 
         Project otherProject = (Project) obj;
         if (size() != otherProject.size()) return false;
-        for (int i = 0; i < size(); i++) if (!array[i].equals(otherProject.array[i])) return false;
+        if (documentsHash() != otherProject.documentsHash()) return false;
+        if (runsInParallel() && end == size() && otherProject.end == otherProject.size()) return equalsInParallel(otherProject);
+        for (int i = 0, j = 0, k = 0; k < size(); i++, j++, k++) {
+            while (array[i] == null) i++;
+            while (otherProject.array[j] == null) j++;
+            if (!array[i].equals(otherProject.array[j])) return false;
+        }
         
         return true;
     }
@@ -258,12 +542,124 @@ public class Project implements IProject {
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder("(" + size() + ")[");
-        for (int i = 0; i < size(); i++) result.append(array[i]).append((i == size() - 1) ? "" : ", ");
+        for (int i = 0, j = 0; j < size(); i++) {
+            if (array[i] == null) continue;
+            result.append(array[i]).append((++j == size()) ? "" : ", ");
+        }
         result.append("]");
 
         return result.toString();
     }
 
+    /**
+     * Returns the number of times the storage of this project was reallocated to grow.
+     * 
+     * @return the number of reallocations
+     */
+    public long getResizeCount() {
+        return resizes;
+    }
+
+    /**
+     * Returns the number of bytes copied by the reallocations of the storage of this project and
+     * by the copies of the array shared with a snapshot, assuming compressed references.
+     * 
+     * @return the number of copied bytes
+     */
+    public long getCopiedBytes() {
+        return copiedBytes;
+    }
+
+    /**
+     * Returns the rules the documents must follow to be added to this project.
+     * 
+     * @return the admission policy
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return policy;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The feed is created on the first call. Like the other methods of this project, it must
+     * not race with the changes to this project.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        if (changeFeed == null) changeFeed = new ChangeFeed();
+
+        return changeFeed;
+    }
+
+    /**
+     * Returns a read-only snapshot of the documents in this project, in constant time. <p>
+     * 
+     * The snapshot keeps the documents and the order of this project at the time it's taken,
+     * whatever is added to or removed from this project afterwards, and can be read by other
+     * threads while this project keeps changing. The documents themselves are shared, so the
+     * changes to their title or type are seen by the snapshot.
+     * 
+     * @return a snapshot of this project
+     */
+    public ManagedProject snapshot() {
+        arrayShared = true;
+
+        return new ProjectSnapshot(array, end, size());
+    }
+
+    /**
+     * Switches this project to parallel mode, running the linear passes over an array of at least
+     * {@link #DEFAULT_PARALLEL_THRESHOLD} slots in the common {@code ForkJoinPool}.
+     * 
+     * @return this project
+     */
+    public Project parallel() {
+        return parallel(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Switches this project to parallel mode, running the linear passes over an array of at least
+     * the specified number of slots in the specified pool. Below the threshold the passes run
+     * sequentially, since splitting them costs more than it saves. <p>
+     * 
+     * Parallel mode doesn't make this project thread-safe: the operations still have to be
+     * called by one thread at a time.
+     * 
+     * @param pool the pool running the linear passes
+     * @param threshold the number of slots from which the linear passes run in parallel (Minimum value is 1)
+     * @return this project
+     * @throws NullPointerException if the pool is null
+     */
+    public Project parallel(ForkJoinPool pool, int threshold) throws NullPointerException {
+        if (pool == null) throw new NullPointerException("Pool is null");
+
+        this.pool = pool;
+        this.parallelThreshold = Math.max(1, threshold);
+
+        return this;
+    }
+
+    /**
+     * Switches this project to sequential mode, the default.
+     * 
+     * @return this project
+     */
+    public Project sequential() {
+        pool = null;
+
+        return this;
+    }
+
+    /**
+     * Checks if this project is in parallel mode.
+     * 
+     * @return true if this project is in parallel mode, false otherwise
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
     /**
      * Expands the capacity of the array used to store the documents in this project.
      * If the current array length is 0 or 1, a new array with a capacity of the old length + 1 is created.
@@ -271,8 +667,624 @@ public class Project implements IProject {
      * The elements from the current array are copied to the new array.
      */
     protected void expandCapacity() {
-        IDocument[] newArray = new IDocument[(array.length < 2) ? array.length + 1 : array.length + (array.length / 2)];
-        for (int i = 0; i < size(); i++) newArray[i] = array[i];
+        countCopy(SLOT_BYTES, true);
+        array = Arrays.copyOf(array, (array.length < 2) ? array.length + 1 : array.length + (array.length / 2));
+        arrayShared = false;
+        previousVersions = Arrays.copyOf(previousVersions, array.length);
+        slotTypes = Arrays.copyOf(slotTypes, array.length);
+        slotHashes = Arrays.copyOf(slotHashes, array.length);
+    }
+
+    /**
+     * Validates a document to be added to this project.
+     * 
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document can't be added to this project
+     */
+    private void validate(IDocument document) throws NullPointerException {
+        policy.checkAttributes(document);
+        int latest = latestVersions.get(document.getId());
+        policy.checkVersion(document, (latest == IntIntHashMap.NO_VALUE) ? AdmissionPolicy.NO_VERSION : array[latest].getVersion());
+    }
+
+    /**
+     * Appends a validated document to the array and indexes it. The array must have a free slot at the end.
+     * 
+     * @param document the document
+     */
+    private void append(IDocument document) {
+        previousVersions[end] = latestVersions.put(document.getId(), end);
+        indexType(end, document.getType());
+        slotHashes[end] = document.hashCode();
+        documentsHash += slotHashes[end];
+        array[end++] = document;
+        size++;
+        watch(document);
+        modCount++;
+        if (changeFeed != null) {
+            int previous = previousVersions[end - 1];
+            if (previous == IntIntHashMap.NO_VALUE) changeFeed.publish(ChangeEvent.Kind.ADDED, document, null, 1);
+            else changeFeed.publish(ChangeEvent.Kind.SUPERSEDED, document, array[previous], 1);
+        }
+    }
+
+    /**
+     * Replaces a document with a tombstone and removes it from the indexes, without compacting the array.
+     * 
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    private void unlink(IDocument document) throws NullPointerException, NoSuchElementException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (isEmpty()) throw new EmptyProjectException();
+
+        int slot = latestVersions.get(document.getId()), newerSlot = IntIntHashMap.NO_VALUE;
+        while (slot != IntIntHashMap.NO_VALUE) {
+            if (array[slot].equals(document)) {
+                // Unlinks the slot from the versions of its id
+                if (newerSlot != IntIntHashMap.NO_VALUE) previousVersions[newerSlot] = previousVersions[slot];
+                else if (previousVersions[slot] != IntIntHashMap.NO_VALUE) latestVersions.put(document.getId(), previousVersions[slot]);
+                else latestVersions.remove(document.getId());
+                if (slotTypes[slot] >= 0) typeCounts[slotTypes[slot]]--;
+                documentsHash -= slotHashes[slot];
+                IDocument removed = array[slot];
+                unwatch(removed);
+                unshare();
+                array[slot] = null;
+                size--;
+                modCount++;
+                if (changeFeed != null) changeFeed.publish(ChangeEvent.Kind.REMOVED, removed, null, 1);
+
+                return;
+            }
+            newerSlot = slot;
+            slot = previousVersions[slot];
+        }
+
+        throw new NoSuchElementException("Document not found");
+    }
+
+    /**
+     * Makes room for the specified number of documents at the end of the array, compacting the
+     * tombstones when they take a good part of the array and growing it at most once.
+     * 
+     * @param additional the number of documents
+     */
+    private void ensureCapacity(int additional) {
+        if (end + additional <= array.length) return;
+        if (end - size() > array.length / 4) compact();
+        if (end + additional <= array.length) return;
+
+        int capacity = Math.max(end + additional, array.length + (array.length / 2));
+        countCopy(SLOT_BYTES, true);
+        array = Arrays.copyOf(array, capacity);
+        arrayShared = false;
+        previousVersions = Arrays.copyOf(previousVersions, capacity);
+        slotTypes = Arrays.copyOf(slotTypes, capacity);
+        slotHashes = Arrays.copyOf(slotHashes, capacity);
+    }
+
+    /**
+     * Removes the tombstones from the array, keeping the documents in the same order.
+     */
+    private void compact() {
+        if (runsInParallel()) {
+            compactInParallel();
+            return;
+        }
+
+        unshare();
+        int newEnd = 0;
+        for (int i = 0; i < end; i++) {
+            if (array[i] == null) continue;
+
+            slotHashes[newEnd] = slotHashes[i];
+            array[newEnd++] = array[i];
+        }
+        for (int i = newEnd; i < end; i++) array[i] = null;
+        end = newEnd;
+        rebuildIndex();
+    }
+
+    /**
+     * Counts a copy of the storage.
+     * 
+     * @param bytesPerSlot the bytes copied per slot of the array
+     * @param resize whether the copy grows the storage
+     */
+    private void countCopy(int bytesPerSlot, boolean resize) {
+        if (resize) resizes++;
+        copiedBytes += (long) array.length * bytesPerSlot;
+    }
+
+    /**
+     * Copies the array if it's shared with a snapshot, before changing its used slots.
+     */
+    private void unshare() {
+        if (!arrayShared) return;
+
+        countCopy(4, false);
+        array = array.clone();
+        arrayShared = false;
+    }
+
+    /**
+     * Checks if the linear passes over the array should run in parallel.
+     * 
+     * @return true if this project is in parallel mode and the array reached the threshold
+     */
+    private boolean runsInParallel() {
+        return pool != null && end >= parallelThreshold;
+    }
+
+    /**
+     * Parallel version of {@link #removeOldVersions()}. Each chunk of the array drops its old versions
+     * and counts its latest versions, then the latest versions of each chunk are moved to their final
+     * position, computed from the counts of the previous chunks. The indexes are rebuilt sequentially.
+     * 
+     * @return the number of removed versions
+     */
+    private int removeOldVersionsInParallel() {
+        int chunks = ChunkedExecution.chunkCount(pool, end);
+        int[] kept = new int[chunks + 1], unobservedDropped = new int[chunks], droppedHashes = new int[chunks];
+        ChunkedExecution.forEachChunk(pool, end, chunks, (chunk, from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (array[i] == null) continue;
+
+                if (latestVersions.get(array[i].getId()) == i) {
+                    count++;
+                } else {
+                    // Unobserved documents are only counted here, the counter isn't thread-safe
+                    if (array[i] instanceof Document) ((Document) array[i]).removeListener(observer);
+                    else unobservedDropped[chunk]++;
+                    droppedHashes[chunk] += slotHashes[i];
+                    array[i] = null;
+                }
+            }
+            kept[chunk + 1] = count;
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            kept[chunk + 1] += kept[chunk];
+            unobservedDocuments -= unobservedDropped[chunk];
+            documentsHash -= droppedHashes[chunk];
+        }
+        // The dropped documents aren't known here, the text index is rebuilt on the next search
+        textIndex = null;
+        moveInParallel(chunks, kept);
+
+        int removedVersions = size() - kept[chunks];
+        size = kept[chunks];
+        end = kept[chunks];
+        Arrays.fill(typeEnds, 0);
+        Arrays.fill(typeCounts, 0);
+        for (int i = 0; i < end; i++) {
+            previousVersions[i] = IntIntHashMap.NO_VALUE;
+            latestVersions.put(array[i].getId(), i);
+            indexType(i, array[i].getType());
+        }
+        modCount++;
+        if (changeFeed != null && removedVersions > 0) changeFeed.publish(ChangeEvent.Kind.COMPACTED, null, null, removedVersions);
+
+        return removedVersions;
+    }
+
+    /**
+     * Parallel version of {@link #compact()}. Each chunk of the array counts its documents, then
+     * the documents of each chunk are moved to their final position, computed from the counts of
+     * the previous chunks. The indexes are rebuilt sequentially.
+     */
+    private void compactInParallel() {
+        int chunks = ChunkedExecution.chunkCount(pool, end);
+        int[] kept = new int[chunks + 1];
+        ChunkedExecution.forEachChunk(pool, end, chunks, (chunk, from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) if (array[i] != null) count++;
+            kept[chunk + 1] = count;
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) kept[chunk + 1] += kept[chunk];
+        moveInParallel(chunks, kept);
+        end = kept[chunks];
+        rebuildIndex();
+    }
+
+    /**
+     * Moves the documents of each chunk of the array, and their hash codes, to new arrays of the
+     * same capacity, starting at the position of the chunk.
+     * 
+     * @param chunks the number of chunks
+     * @param positions the position of the first document of each chunk
+     */
+    private void moveInParallel(int chunks, int[] positions) {
+        IDocument[] newArray = new IDocument[array.length];
+        int[] newSlotHashes = new int[slotHashes.length];
+        ChunkedExecution.forEachChunk(pool, end, chunks, (chunk, from, to) -> {
+            for (int i = from, j = positions[chunk]; i < to; i++) {
+                if (array[i] == null) continue;
+
+                newSlotHashes[j] = slotHashes[i];
+                newArray[j++] = array[i];
+            }
+        });
         array = newArray;
+        arrayShared = false;
+        slotHashes = newSlotHashes;
+    }
+
+    /**
+     * Parallel version of the type scan of {@link #getDocumentsByType(DocumentType)}.
+     * 
+     * @param type the document type
+     * @return the documents with the specified type
+     */
+    private IDocument[] scanInParallel(DocumentType type) {
+        int chunks = ChunkedExecution.chunkCount(pool, end);
+        int[] matches = new int[chunks + 1];
+        ChunkedExecution.forEachChunk(pool, end, chunks, (chunk, from, to) -> {
+            int count = 0;
+            for (int i = from; i < to; i++) if (array[i] != null && array[i].getType() == type) count++;
+            matches[chunk + 1] = count;
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) matches[chunk + 1] += matches[chunk];
+
+        IDocument[] result = new IDocument[matches[chunks]];
+        ChunkedExecution.forEachChunk(pool, end, chunks, (chunk, from, to) -> {
+            for (int i = from, j = matches[chunk]; i < to && j < matches[chunk + 1]; i++)
+                if (array[i] != null && array[i].getType() == type) result[j++] = array[i];
+        });
+
+        return result;
+    }
+
+    /**
+     * Parallel version of the document comparison of {@link #equals(Object)}. Both arrays must have no tombstones.
+     * 
+     * @param otherProject the other project
+     * @return true if the documents are equal, false otherwise
+     */
+    private boolean equalsInParallel(Project otherProject) {
+        AtomicBoolean different = new AtomicBoolean();
+        ChunkedExecution.forEachChunk(pool, end, ChunkedExecution.chunkCount(pool, end), (chunk, from, to) -> {
+            for (int i = from; i < to && !different.get(); i++) {
+                if (!array[i].equals(otherProject.array[i])) {
+                    different.set(true);
+                    return;
+                }
+            }
+        });
+
+        return !different.get();
+    }
+
+    /**
+     * Rebuilds the indexes and the version links from the documents in the array.
+     * Since {@link #add(IDocument)} only accepts newer versions, the versions of an id
+     * appear in ascending order in the array and the last one seen is the latest.
+     */
+    private void rebuildIndex() {
+        latestVersions.clear();
+        Arrays.fill(typeEnds, 0);
+        Arrays.fill(typeCounts, 0);
+        for (int i = 0; i < end; i++) {
+            previousVersions[i] = latestVersions.put(array[i].getId(), i);
+            indexType(i, array[i].getType());
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns the sum of the hash codes of the documents in this project, computing it again
+     * if some of the documents can't be observed.
+     * 
+     * @return the sum of the hash codes of the documents
+     */
+    private int documentsHash() {
+        if (unobservedDocuments == 0) return documentsHash;
+
+        int result = 0;
+        for (int i = 0; i < end; i++) if (array[i] != null) result += array[i].hashCode();
+
+        return result;
+    }
+
+    /**
+     * Returns the slot of the specified document instance by following the version links of its id.
+     * 
+     * @param document the document
+     * @return the slot of the document or {@link IntIntHashMap#NO_VALUE} if it isn't in this project
+     */
+    private int slotOf(IDocument document) {
+        int slot = latestVersions.get(document.getId());
+        while (slot != IntIntHashMap.NO_VALUE && array[slot] != document) slot = previousVersions[slot];
+
+        return slot;
+    }
+
+    /**
+     * Appends a slot to the type index. The slot must be greater than the slots already indexed.
+     * 
+     * @param slot the slot
+     * @param type the type of the document in the slot
+     */
+    private void indexType(int slot, DocumentType type) {
+        slotTypes[slot] = (byte) ((type == null) ? -1 : type.ordinal());
+        if (type == null) return;
+
+        int ordinal = type.ordinal();
+        if (typeEnds[ordinal] == typeSlots[ordinal].length)
+            typeSlots[ordinal] = Arrays.copyOf(typeSlots[ordinal], Math.max(4, typeEnds[ordinal] * 2));
+        typeSlots[ordinal][typeEnds[ordinal]++] = slot;
+        typeCounts[ordinal]++;
+    }
+
+    /**
+     * Inserts a slot in the type index, keeping the slots in ascending order.
+     * 
+     * @param ordinal the ordinal of the document type
+     * @param slot the slot
+     */
+    private void insertTypeSlot(int ordinal, int slot) {
+        int position = -Arrays.binarySearch(typeSlots[ordinal], 0, typeEnds[ordinal], slot) - 1;
+        if (typeEnds[ordinal] == typeSlots[ordinal].length)
+            typeSlots[ordinal] = Arrays.copyOf(typeSlots[ordinal], Math.max(4, typeEnds[ordinal] * 2));
+        System.arraycopy(typeSlots[ordinal], position, typeSlots[ordinal], position + 1, typeEnds[ordinal]++ - position);
+        typeSlots[ordinal][position] = slot;
+        typeCounts[ordinal]++;
+    }
+
+    /**
+     * Removes a slot from the type index.
+     * 
+     * @param ordinal the ordinal of the document type
+     * @param slot the slot
+     */
+    private void removeTypeSlot(int ordinal, int slot) {
+        int position = Arrays.binarySearch(typeSlots[ordinal], 0, typeEnds[ordinal], slot);
+        if (position < 0) return;
+        System.arraycopy(typeSlots[ordinal], position + 1, typeSlots[ordinal], position, --typeEnds[ordinal] - position);
+        typeCounts[ordinal]--;
+    }
+
+    /**
+     * Starts observing the changes of a document added to this project.
+     * 
+     * @param document the document
+     */
+    private void watch(IDocument document) {
+        if (document instanceof Document) ((Document) document).addListener(observer);
+        else unobservedDocuments++;
+        if (textIndex != null) textIndex.add(document);
+    }
+
+    /**
+     * Stops observing the changes of a document removed from this project.
+     * 
+     * @param document the document
+     */
+    private void unwatch(IDocument document) {
+        if (document instanceof Document) ((Document) document).removeListener(observer);
+        else unobservedDocuments--;
+        if (textIndex != null) textIndex.remove(document);
+    }
+
+    /**
+     * Updates the hash codes of the documents of this project when they change, moves them
+     * between the type index buckets when their type changes and reindexes their title.
+     */
+    private class DocumentObserver implements DocumentListener {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void titleChanged(IDocument document, String oldTitle) {
+            int slot = slotOf(document);
+            if (slot == IntIntHashMap.NO_VALUE) return;
+
+            rehash(slot);
+            if (textIndex != null) textIndex.update(document);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void typeChanged(IDocument document, DocumentType oldType) {
+            int slot = slotOf(document);
+            if (slot == IntIntHashMap.NO_VALUE) return;
+
+            if (slotTypes[slot] >= 0) removeTypeSlot(slotTypes[slot], slot);
+            slotTypes[slot] = (byte) ((document.getType() == null) ? -1 : document.getType().ordinal());
+            if (slotTypes[slot] >= 0) insertTypeSlot(slotTypes[slot], slot);
+            rehash(slot);
+            modCount++;
+        }
+
+        /**
+         * Replaces the hash code of the document in a slot with its current hash code.
+         * 
+         * @param slot the slot
+         */
+        private void rehash(int slot) {
+            int newHash = array[slot].hashCode();
+            documentsHash += newHash - slotHashes[slot];
+            slotHashes[slot] = newHash;
+        }
+    }
+
+    /**
+     * Read-only iterator over the documents of this project of a certain type.
+     */
+    private class TypeIterator implements Iterator<IDocument> {
+        /**
+         * The document type
+         */
+        private final DocumentType type;
+        /**
+         * Whether the documents are found by scanning the array instead of the type index
+         */
+        private final boolean scan;
+        /**
+         * The modification count of this project when the iterator was created
+         */
+        private final int expectedModCount;
+        /**
+         * The position of the next document (in the type index or in the array)
+         */
+        private int cursor;
+
+        /**
+         * Constructs an iterator over the documents of a certain type.
+         * 
+         * @param type the document type
+         */
+        private TypeIterator(DocumentType type) {
+            this.type = type;
+            scan = unobservedDocuments > 0;
+            expectedModCount = modCount;
+            cursor = 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!scan) {
+                int[] slots = typeSlots[type.ordinal()];
+                while (cursor < typeEnds[type.ordinal()] && array[slots[cursor]] == null) cursor++;
+                return cursor < typeEnds[type.ordinal()];
+            }
+
+            while (cursor < end && (array[cursor] == null || array[cursor].getType() != type)) cursor++;
+            return cursor < end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public IDocument next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            return scan ? array[cursor++] : array[typeSlots[type.ordinal()][cursor++]];
+        }
+    }
+
+    /**
+     * Spliterator over a range of the array of this project, skipping the tombstones.
+     */
+    private class DocumentSpliterator implements Spliterator<IDocument> {
+        /**
+         * The next slot to traverse
+         */
+        private int index;
+        /**
+         * The slot after the last slot of the range
+         */
+        private final int fence;
+        /**
+         * The number of documents left to traverse, or an upper bound if this spliterator isn't sized
+         */
+        private long remaining;
+        /**
+         * Whether the number of documents left is exact
+         */
+        private boolean sized;
+        /**
+         * Whether the range has no tombstones, so every split is sized
+         */
+        private final boolean dense;
+        /**
+         * The modification count of the project when this spliterator was created
+         */
+        private final int expectedModCount;
+
+        /**
+         * Constructs a spliterator over a range of slots.
+         * 
+         * @param origin the first slot of the range
+         * @param fence the slot after the last slot of the range
+         * @param remaining the number of documents in the range, or an upper bound
+         * @param sized whether the number of documents is exact
+         */
+        private DocumentSpliterator(int origin, int fence, long remaining, boolean sized) {
+            this.index = origin;
+            this.fence = fence;
+            this.remaining = remaining;
+            this.sized = sized;
+            this.dense = sized && remaining == fence - origin;
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super IDocument> action) {
+            if (action == null) throw new NullPointerException("Action is null");
+
+            while (index < fence) {
+                IDocument document = array[index++];
+                if (document == null) continue;
+
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                remaining--;
+                action.accept(document);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super IDocument> action) {
+            if (action == null) throw new NullPointerException("Action is null");
+
+            IDocument[] documents = array;
+            for (; index < fence; index++) if (documents[index] != null) action.accept(documents[index]);
+            remaining = 0;
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Spliterator<IDocument> trySplit() {
+            int origin = index, middle = (origin + fence) >>> 1;
+            if (origin >= middle) return null;
+
+            index = middle;
+            if (dense) {
+                remaining -= middle - origin;
+                return new DocumentSpliterator(origin, middle, middle - origin, true);
+            }
+            sized = false;
+            remaining = fence - middle;
+
+            return new DocumentSpliterator(origin, middle, middle - origin, false);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL | (sized ? Spliterator.SIZED : 0) | (dense ? Spliterator.SUBSIZED : 0);
+        }
     }
 }
@@ -0,0 +1,297 @@
+package dev.joseafmoreira.project;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.util.IntIntHashMap;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Read-only implementation of the {@code IProject} interface holding a snapshot of a {@link Project}. <p>
+ *
+ * The snapshot shares the array of the project it was taken from, limited to the slots used at the
+ * time. The project never changes those slots afterwards (it copies the array first), so the snapshot
+ * can be read by any number of threads without locking. The id index is built on the first
+ * {@link #get(int)} or {@link #contains(IDocument)}, and every mutator of this project throws an
+ * {@code UnsupportedOperationException}.
+ *
+ * <h3>ProjectSnapshot</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see Project#snapshot()
+ */
+public class ProjectSnapshot implements ManagedProject {
+    /**
+     * The array of the project (tombstones are null)
+     */
+    private final IDocument[] array;
+    /**
+     * The number of used slots of the array
+     */
+    private final int end;
+    /**
+     * The number of documents in this snapshot
+     */
+    private final int size;
+    /**
+     * The id index, built on first use
+     */
+    private volatile Index index;
+    /**
+     * The feed of this project, which never publishes (built on first use)
+     */
+    private volatile ChangeFeed changeFeed;
+
+    /**
+     * Constructs a snapshot of the used slots of a project array.
+     *
+     * @param array the array of the project
+     * @param end the number of used slots
+     * @param size the number of documents
+     */
+    ProjectSnapshot(IDocument[] array, int end, int size) {
+        this.array = array;
+        this.end = end;
+        this.size = size;
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(IDocument document) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Project snapshot is read-only");
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int removeOldVersions() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Project snapshot is read-only");
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void remove(IDocument document) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Project snapshot is read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NoSuchElementException if the document with this id isn't on this project
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        int latest = index().latestVersions.get(id);
+        if (latest == IntIntHashMap.NO_VALUE) throw new NoSuchElementException("Document not found");
+
+        return array[latest];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        int count = 0;
+        for (int i = 0; i < end; i++) if (array[i] != null && array[i].getType() == type) count++;
+        IDocument[] result = new IDocument[count];
+        for (int i = 0, j = 0; j < count; i++) if (array[i] != null && array[i].getType() == type) result[j++] = array[i];
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        if (end == size) return Arrays.copyOf(array, size);
+
+        IDocument[] resultDocuments = new IDocument[size];
+        for (int i = 0, j = 0; j < size; i++) if (array[i] != null) resultDocuments[j++] = array[i];
+
+        return resultDocuments;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The spliterator traverses the shared array without copying it.
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        if (end == size) return Spliterators.spliterator(array, 0, end, characteristics);
+
+        return Arrays.stream(array, 0, end).filter(Objects::nonNull).spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        Index current = index();
+        for (int slot = current.latestVersions.get(document.getId()); slot != IntIntHashMap.NO_VALUE; slot = current.previousVersions[slot])
+            if (array[slot].equals(document)) return true;
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Not supported, this project is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Project snapshot is read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This project is read-only, so the feed never publishes an event. It's created on the first call.
+     */
+    @Override
+    public ChangeFeed getChangeFeed() {
+        ChangeFeed feed = changeFeed;
+        if (feed == null) changeFeed = feed = new ChangeFeed(2);
+
+        return feed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Computed like {@link Project#hashCode()}, so a snapshot has the hash code its project had when it was taken.
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int documentsHash = 0, result = 1;
+        for (int i = 0; i < end; i++) if (array[i] != null) documentsHash += array[i].hashCode();
+        result = prime * result + documentsHash;
+        result = prime * result + size;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        ProjectSnapshot otherProject = (ProjectSnapshot) obj;
+        if (size != otherProject.size) return false;
+        for (int i = 0, j = 0, k = 0; k < size; i++, j++, k++) {
+            while (array[i] == null) i++;
+            while (otherProject.array[j] == null) j++;
+            if (!array[i].equals(otherProject.array[j])) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("(" + size + ")[");
+        for (int i = 0, j = 0; j < size; i++) {
+            if (array[i] == null) continue;
+            result.append(array[i]).append((++j == size) ? "" : ", ");
+        }
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Returns the id index, building it on first use. Concurrent first uses may build it more than once.
+     *
+     * @return the id index
+     */
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            current = new Index(new IntIntHashMap(size), new int[end]);
+            for (int i = 0; i < end; i++)
+                if (array[i] != null) current.previousVersions[i] = current.latestVersions.put(array[i].getId(), i);
+            index = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Index mapping each document id to the slot of its latest version, with the links
+     * from each slot to the slot of the previous version of the same id.
+     */
+    private static final class Index {
+        /**
+         * The slot of the latest version of each id
+         */
+        private final IntIntHashMap latestVersions;
+        /**
+         * The slot of the previous version of the document in each slot
+         */
+        private final int[] previousVersions;
+
+        /**
+         * Constructs an index.
+         *
+         * @param latestVersions the slot of the latest version of each id
+         * @param previousVersions the slot of the previous version of the document in each slot
+         */
+        private Index(IntIntHashMap latestVersions, int[] previousVersions) {
+            this.latestVersions = latestVersions;
+            this.previousVersions = previousVersions;
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package dev.joseafmoreira.project;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import dev.joseafmoreira.exceptions.EmptyProjectException;
+import dev.joseafmoreira.feed.ChangeEvent;
+import dev.joseafmoreira.feed.ChangeFeed;
+import dev.joseafmoreira.feed.ChangeListener;
+import dev.joseafmoreira.search.TextQuery;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+import pt.ipp.estg.fpoo.project.IProject;
+
+/**
+ * Implementation of the {@code IProject} interface that partitions its documents across several shards. <p>
+ *
+ * Each shard is a {@code ManagedProject} of its own and every version of a document id lives in the same
+ * shard, chosen by a hash of the id, so the version rules of the shards apply to the whole project.
+ * The operations on a single id ({@link #add(IDocument)}, {@link #remove(IDocument)}, {@link #get(int)}
+ * and {@link #contains(IDocument)}) only touch the shard of the id. The operations on every document
+ * ({@link #getDocumentsByType(DocumentType)}, {@link #removeOldVersions()}, {@link #toArray()},
+ * {@link #clear()} and the batches) run on every shard in parallel and merge their results. <p>
+ *
+ * The documents are ordered by shard and then by the order of each shard. This project is as
+ * thread-safe as its shards: a shard is only touched by one task of a parallel operation. <p>
+ *
+ * The feed of this project merges the feeds of the shards: the first call to {@link #getChangeFeed()}
+ * subscribes to every shard and each event is forwarded by the thread that published it, in the
+ * order of its shard. The operations on every shard publish one event per shard, and the events a
+ * shard publishes while its forwarding is more than a whole feed behind are lost.
+ *
+ * <h3>ShardedProject</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IProject
+ */
+public class ShardedProject implements ManagedProject {
+    /**
+     * The shards
+     */
+    private final ManagedProject[] shards;
+    /**
+     * The executor running the operations on every shard
+     */
+    private final Executor executor;
+    /**
+     * The feed merging the feeds of the shards, created on the first request (null before)
+     */
+    private volatile ChangeFeed changeFeed;
+
+    /**
+     * Constructs a ShardedProject with the specified number of shards.
+     *
+     * @param shardCount the number of shards (Minimum value is 1)
+     * @param shardFactory the factory of the empty shards
+     * @param executor the executor running the operations on every shard
+     * @throws NullPointerException if the factory, a shard or the executor is null
+     */
+    public ShardedProject(int shardCount, Supplier<? extends ManagedProject> shardFactory, Executor executor) throws NullPointerException {
+        if (shardFactory == null) throw new NullPointerException("Shard factory is null");
+        if (executor == null) throw new NullPointerException("Executor is null");
+
+        shards = new ManagedProject[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = shardFactory.get();
+            if (shards[i] == null) throw new NullPointerException("Shard is null");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public void add(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        shardOf(document.getId()).add(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is split by shard and the shards add their documents in parallel.
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult addAll(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        return runBatch(documents, ManagedProject::addAll);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The shards remove their old versions in parallel.
+     */
+    @Override
+    public int removeOldVersions() {
+        int removedVersions = 0;
+        for (Integer shardRemovedVersions : forEachShard(ManagedProject::removeOldVersions, Integer[]::new))
+            removedVersions += shardRemovedVersions;
+
+        return removedVersions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     * @throws EmptyProjectException is this project is empty
+     * @throws NoSuchElementException if the document isn't on this project
+     */
+    @Override
+    public void remove(IDocument document) throws NullPointerException, NoSuchElementException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (isEmpty()) throw new EmptyProjectException();
+
+        ManagedProject shard = shardOf(document.getId());
+        // The shard of the document may be empty while other shards aren't
+        if (shard.isEmpty()) throw new NoSuchElementException("Document not found");
+        shard.remove(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is split by shard and the shards remove their documents in parallel.
+     *
+     * @throws NullPointerException if the batch is null
+     */
+    @Override
+    public BatchResult removeAll(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        if (isEmpty()) return runBatch(documents, ManagedProject::removeAll);
+
+        BatchResult result = runBatch(documents, ManagedProject::removeAll), mapped = new BatchResult();
+        int[] failedIndexes = result.getFailedIndexes();
+        RuntimeException[] failures = result.getFailures();
+        // An empty shard doesn't mean this project was empty
+        for (int i = 0, j = 0; i < documents.length; i++) {
+            if (j == failedIndexes.length || failedIndexes[j] != i) {
+                mapped.addSuccess();
+                continue;
+            }
+            RuntimeException failure = failures[j++];
+            mapped.addFailure(i, documents[i], (failure instanceof EmptyProjectException) ? new NoSuchElementException("Document not found") : failure);
+        }
+
+        return mapped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument get(int id) throws NoSuchElementException {
+        return shardOf(id).get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The shards are queried in parallel.
+     *
+     * @throws NullPointerException if the type is null
+     */
+    @Override
+    public IDocument[] getDocumentsByType(DocumentType type) throws NullPointerException {
+        if (type == null) throw new NullPointerException("Type is null");
+
+        return concat(forEachShard(shard -> shard.getDocumentsByType(type), IDocument[][]::new));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDocument[] toArray() {
+        return concat(forEachShard(ManagedProject::toArray, IDocument[][]::new));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the query is null
+     */
+    @Override
+    public IDocument[] search(String query) throws NullPointerException {
+        TextQuery textQuery = new TextQuery(query);
+
+        return textQuery.rank(concat(forEachShard(shard -> shard.search(query), IDocument[][]::new)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<IDocument> spliterator() {
+        return Arrays.stream(shards).flatMap(ManagedProject::stream).spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the document is null
+     */
+    @Override
+    public boolean contains(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        return shardOf(document.getId()).contains(document);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        for (ManagedProject shard : shards) if (!shard.isEmpty()) return false;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The sizes of the shards are read in the calling thread, since each one takes constant time.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (ManagedProject shard : shards) size += shard.size();
+
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        forEachShard(shard -> {
+            shard.clear();
+            return null;
+        }, Void[]::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The feed is created on the first call, which subscribes to the feed of every shard.
+     */
+    @Override
+    public synchronized ChangeFeed getChangeFeed() {
+        if (changeFeed == null) {
+            ChangeFeed feed = new ChangeFeed();
+            ChangeFeed[] shardFeeds = new ChangeFeed[shards.length];
+            for (int i = 0; i < shards.length; i++) shardFeeds[i] = shards[i].getChangeFeed();
+            for (ChangeFeed shardFeed : shardFeeds) shardFeed.subscribe(new Forwarder(feed), Runnable::run);
+            changeFeed = feed;
+        }
+
+        return changeFeed;
+    }
+
+    /**
+     * Returns the number of shards of this project.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(shards);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        ShardedProject otherProject = (ShardedProject) obj;
+        return Arrays.equals(shards, otherProject.shards);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        IDocument[] documents = toArray();
+        StringBuilder result = new StringBuilder("(" + documents.length + ")[");
+        for (int i = 0; i < documents.length; i++) result.append(documents[i]).append((i == documents.length - 1) ? "" : ", ");
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Returns the index of the shard of a document id.
+     *
+     * @param id the document id
+     * @return the index of the shard
+     */
+    private int shardIndex(int id) {
+        int hash = id * 0x9E3779B9;
+
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    /**
+     * Returns the shard of a document id.
+     *
+     * @param id the document id
+     * @return the shard
+     */
+    private ManagedProject shardOf(int id) {
+        return shards[shardIndex(id)];
+    }
+
+    /**
+     * Runs an operation on every shard in parallel and waits for all of them.
+     * The exception thrown by the first failed shard is rethrown.
+     *
+     * @param <T> the type of the result of the operation
+     * @param operation the operation
+     * @param arrayFactory the factory of the array of results
+     * @return the results of the shards, indexed by shard
+     */
+    private <T> T[] forEachShard(Function<ManagedProject, T> operation, IntFunction<T[]> arrayFactory) {
+        T[] results = arrayFactory.apply(shards.length);
+        if (shards.length == 1) {
+            results[0] = operation.apply(shards[0]);
+            return results;
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T>[] futures = (CompletableFuture<T>[]) new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            ManagedProject shard = shards[i];
+            futures[i] = CompletableFuture.supplyAsync(() -> operation.apply(shard), executor);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            try {
+                results[i] = futures[i].join();
+            } catch (CompletionException e) {
+                // Waits for the other shards before failing, so no shard is still changing
+                CompletableFuture.allOf(futures).exceptionally(failure -> null).join();
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Splits a batch by shard, runs a batch operation on every shard in parallel
+     * and merges the results, with the failures in the order of the batch.
+     *
+     * @param documents the batch
+     * @param operation the batch operation
+     * @return the merged result
+     */
+    private BatchResult runBatch(IDocument[] documents, BatchOperation operation) {
+        int[] shardSizes = new int[shards.length];
+        for (IDocument document : documents) if (document != null) shardSizes[shardIndex(document.getId())]++;
+        IDocument[][] shardDocuments = new IDocument[shards.length][];
+        int[][] batchIndexes = new int[shards.length][];
+        for (int i = 0; i < shards.length; i++) {
+            shardDocuments[i] = new IDocument[shardSizes[i]];
+            batchIndexes[i] = new int[shardSizes[i]];
+        }
+        int[] filled = new int[shards.length];
+        for (int i = 0; i < documents.length; i++) {
+            if (documents[i] == null) continue;
+
+            int shard = shardIndex(documents[i].getId());
+            shardDocuments[shard][filled[shard]] = documents[i];
+            batchIndexes[shard][filled[shard]++] = i;
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            futures[i] = CompletableFuture.supplyAsync(() -> operation.apply(shards[shard], shardDocuments[shard]), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        // Places every failure at its position in the batch, then replays them in order
+        RuntimeException[] failures = new RuntimeException[documents.length];
+        for (int i = 0; i < documents.length; i++) if (documents[i] == null) failures[i] = new NullPointerException("Document is null");
+        for (int shard = 0; shard < shards.length; shard++) {
+            BatchResult shardResult = (BatchResult) futures[shard].join();
+            int[] failedIndexes = shardResult.getFailedIndexes();
+            RuntimeException[] shardFailures = shardResult.getFailures();
+            for (int i = 0; i < failedIndexes.length; i++) failures[batchIndexes[shard][failedIndexes[i]]] = shardFailures[i];
+        }
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < documents.length; i++) {
+            if (failures[i] == null) result.addSuccess();
+            else result.addFailure(i, documents[i], failures[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Listener forwarding the events of a shard to the feed of this project, while it has subscriptions.
+     */
+    private static final class Forwarder implements ChangeListener {
+        /**
+         * The feed the events are forwarded to
+         */
+        private final ChangeFeed feed;
+
+        /**
+         * Constructs a Forwarder to the specified feed.
+         *
+         * @param feed the feed the events are forwarded to
+         */
+        private Forwarder(ChangeFeed feed) {
+            this.feed = feed;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void changed(ChangeEvent[] events) {
+            if (!feed.hasSubscribers()) return;
+
+            for (ChangeEvent event : events) feed.publish(event.getKind(), event.getDocument(), event.getPrevious(), event.getCount());
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The lost events can't be forwarded, so they're dropped.
+         */
+        @Override
+        public void overrun(long lostEvents) {
+        }
+    }
+
+    /**
+     * A batch operation on a shard.
+     */
+    @FunctionalInterface
+    private interface BatchOperation {
+        /**
+         * Runs the batch operation.
+         *
+         * @param shard the shard
+         * @param documents the documents of the shard
+         * @return the result of the batch
+         */
+        BatchResult apply(ManagedProject shard, IDocument[] documents);
+    }
+
+    /**
+     * Concatenates the arrays returned by the shards.
+     *
+     * @param parts the arrays, indexed by shard
+     * @return the concatenated array
+     */
+    private static IDocument[] concat(IDocument[][] parts) {
+        int length = 0;
+        for (IDocument[] part : parts) length += part.length;
+        IDocument[] result = new IDocument[length];
+        for (int i = 0, position = 0; i < parts.length; position += parts[i].length, i++)
+            System.arraycopy(parts[i], 0, result, position, parts[i].length);
+
+        return result;
+    }
+}
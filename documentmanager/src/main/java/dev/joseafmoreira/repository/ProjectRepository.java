@@ -0,0 +1,183 @@
+package dev.joseafmoreira.repository;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import dev.joseafmoreira.project.ManagedProject;
+import dev.joseafmoreira.project.Project;
+import dev.joseafmoreira.project.ShardedProject;
+
+/**
+ * Registry of named projects. <p>
+ *
+ * A project is created with a number of shards: a project with a single shard is a plain project
+ * made by the shard factory, and a project with more shards is a {@link ShardedProject} that
+ * partitions its documents by id across that many projects made by the shard factory. The
+ * registry itself is thread-safe, the projects are as thread-safe as the factory makes them. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #create(String)}: Creates a project with a single shard</li>
+ *  <li>{@link #create(String, int)}: Creates a project partitioned across a number of shards</li>
+ *  <li>{@link #get(String)}: Returns a project by name</li>
+ *  <li>{@link #contains(String)}: Checks if a project exists</li>
+ *  <li>{@link #delete(String)}: Deletes a project</li>
+ *  <li>{@link #getNames()}: Returns the names of the projects</li>
+ *  <li>{@link #size()}: Returns the number of projects</li>
+ *  <li>{@link #getDocumentCount()}: Returns the number of documents of every project</li>
+ * </ul>
+ *
+ * <h3>ProjectRepository</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see ShardedProject
+ */
+public class ProjectRepository {
+    /**
+     * The projects, by name
+     */
+    private final ConcurrentHashMap<String, ManagedProject> projects;
+    /**
+     * The factory of the projects and shards
+     */
+    private final Supplier<? extends ManagedProject> shardFactory;
+    /**
+     * The executor running the operations on every shard of the sharded projects
+     */
+    private final Executor executor;
+
+    /**
+     * Constructs an empty ProjectRepository of {@link Project} shards, running the sharded
+     * operations in the common {@code ForkJoinPool}.
+     */
+    public ProjectRepository() {
+        this(Project::new, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an empty ProjectRepository.
+     *
+     * @param shardFactory the factory of the projects and shards
+     * @param executor the executor running the operations on every shard of the sharded projects
+     * @throws NullPointerException if the factory or the executor is null
+     */
+    public ProjectRepository(Supplier<? extends ManagedProject> shardFactory, Executor executor) throws NullPointerException {
+        if (shardFactory == null) throw new NullPointerException("Shard factory is null");
+        if (executor == null) throw new NullPointerException("Executor is null");
+
+        this.projects = new ConcurrentHashMap<>();
+        this.shardFactory = shardFactory;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a project with a single shard.
+     *
+     * @param name the name of the project
+     * @return the new project
+     * @throws NullPointerException if the name is null
+     * @throws IllegalArgumentException if a project with this name already exists
+     */
+    public ManagedProject create(String name) throws NullPointerException, IllegalArgumentException {
+        return create(name, 1);
+    }
+
+    /**
+     * Creates a project partitioned by document id across the specified number of shards.
+     *
+     * @param name the name of the project
+     * @param shards the number of shards (Minimum value is 1)
+     * @return the new project
+     * @throws NullPointerException if the name is null
+     * @throws IllegalArgumentException if a project with this name already exists
+     */
+    public ManagedProject create(String name, int shards) throws NullPointerException, IllegalArgumentException {
+        if (name == null) throw new NullPointerException("Name is null");
+
+        ManagedProject project = (shards <= 1) ? shardFactory.get() : new ShardedProject(shards, shardFactory, executor);
+        if (projects.putIfAbsent(name, project) != null) throw new IllegalArgumentException("Project " + name + " already exists");
+
+        return project;
+    }
+
+    /**
+     * Returns the project with the specified name.
+     *
+     * @param name the name of the project
+     * @return the project
+     * @throws NullPointerException if the name is null
+     * @throws NoSuchElementException if there's no project with this name
+     */
+    public ManagedProject get(String name) throws NullPointerException, NoSuchElementException {
+        if (name == null) throw new NullPointerException("Name is null");
+
+        ManagedProject project = projects.get(name);
+        if (project == null) throw new NoSuchElementException("Project not found");
+
+        return project;
+    }
+
+    /**
+     * Checks if a project with the specified name exists.
+     *
+     * @param name the name of the project
+     * @return true if the project exists, false otherwise
+     * @throws NullPointerException if the name is null
+     */
+    public boolean contains(String name) throws NullPointerException {
+        if (name == null) throw new NullPointerException("Name is null");
+
+        return projects.containsKey(name);
+    }
+
+    /**
+     * Deletes the project with the specified name.
+     *
+     * @param name the name of the project
+     * @return the deleted project
+     * @throws NullPointerException if the name is null
+     * @throws NoSuchElementException if there's no project with this name
+     */
+    public ManagedProject delete(String name) throws NullPointerException, NoSuchElementException {
+        if (name == null) throw new NullPointerException("Name is null");
+
+        ManagedProject project = projects.remove(name);
+        if (project == null) throw new NoSuchElementException("Project not found");
+
+        return project;
+    }
+
+    /**
+     * Returns the names of the projects, in no particular order.
+     *
+     * @return the names of the projects
+     */
+    public String[] getNames() {
+        return projects.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Returns the number of projects.
+     *
+     * @return the number of projects
+     */
+    public int size() {
+        return projects.size();
+    }
+
+    /**
+     * Returns the number of documents of every project.
+     *
+     * @return the number of documents
+     */
+    public long getDocumentCount() {
+        long count = 0;
+        for (ManagedProject project : projects.values()) count += project.size();
+
+        return count;
+    }
+}
@@ -0,0 +1,231 @@
+package dev.joseafmoreira.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Inverted index of the tokens of the titles and file names of a set of documents. <p>
+ *
+ * The tokens (see {@link TextQuery#tokenize(String)}) are kept in a sorted dictionary mapping
+ * each token to the documents containing it, so a query term finds the tokens equal to it or
+ * starting with it in logarithmic time, and only the documents with those tokens are scored.
+ * The documents are indexed by identity and keep the order they were added in, which breaks
+ * the ties between documents with the same score. <p>
+ *
+ * The index doesn't follow the documents by itself: {@link #update(IDocument)} must be called
+ * when the title of an indexed document changes. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #add(IDocument)}: Indexes a document</li>
+ *  <li>{@link #remove(IDocument)}: Removes a document from this index</li>
+ *  <li>{@link #update(IDocument)}: Indexes the current title and file name of a document</li>
+ *  <li>{@link #search(TextQuery)}: Returns the documents matching a query</li>
+ *  <li>{@link #size()}: Returns the number of indexed documents</li>
+ *  <li>{@link #tokenCount()}: Returns the number of distinct tokens</li>
+ *  <li>{@link #clear()}: Removes every document from this index</li>
+ * </ul>
+ *
+ * <h3>TextIndex</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see TextQuery
+ */
+public class TextIndex {
+    /**
+     * The entry of each indexed document
+     */
+    private final Map<IDocument, Entry> entries;
+    /**
+     * The entries of the documents containing each token
+     */
+    private final NavigableMap<String, Set<Entry>> postings;
+    /**
+     * The sequence of the next indexed document
+     */
+    private long nextSequence;
+
+    /**
+     * Constructs an empty TextIndex.
+     */
+    public TextIndex() {
+        entries = new IdentityHashMap<>();
+        postings = new TreeMap<>();
+        nextSequence = 0;
+    }
+
+    /**
+     * Indexes a document. Indexing an indexed document has no effect.
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     */
+    public void add(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (entries.containsKey(document)) return;
+
+        Entry entry = new Entry(document, nextSequence++);
+        entries.put(document, entry);
+        post(entry);
+    }
+
+    /**
+     * Removes a document from this index. Removing a document that isn't indexed has no effect.
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     */
+    public void remove(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        Entry entry = entries.remove(document);
+        if (entry != null) unpost(entry);
+    }
+
+    /**
+     * Indexes the current title and file name of an indexed document, keeping its order.
+     * Updating a document that isn't indexed has no effect.
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     */
+    public void update(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        Entry entry = entries.get(document);
+        if (entry == null) return;
+
+        unpost(entry);
+        entry.tokens = tokensOf(document);
+        post(entry);
+    }
+
+    /**
+     * Returns the indexed documents matching a query, from the highest score to the lowest and,
+     * on ties, in the order they were indexed in.
+     *
+     * @param query the query
+     * @return the matching documents
+     * @throws NullPointerException if the query is null
+     */
+    public IDocument[] search(TextQuery query) throws NullPointerException {
+        if (query == null) throw new NullPointerException("Query is null");
+
+        Set<Entry> candidates = new HashSet<>();
+        for (String term : query.getTerms()) {
+            for (Map.Entry<String, Set<Entry>> posting : postings.tailMap(term, true).entrySet()) {
+                if (!posting.getKey().startsWith(term)) break;
+                candidates.addAll(posting.getValue());
+            }
+        }
+        Entry[] sorted = candidates.toArray(new Entry[0]);
+        Arrays.sort(sorted, (first, second) -> Long.compare(first.sequence, second.sequence));
+        IDocument[] documents = new IDocument[sorted.length];
+        for (int i = 0; i < sorted.length; i++) documents[i] = sorted[i].document;
+
+        return query.rank(documents);
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     *
+     * @return the number of indexed documents
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of distinct tokens of the indexed documents.
+     *
+     * @return the number of tokens
+     */
+    public int tokenCount() {
+        return postings.size();
+    }
+
+    /**
+     * Removes every document from this index.
+     */
+    public void clear() {
+        entries.clear();
+        postings.clear();
+    }
+
+    /**
+     * Adds an entry to the postings of its tokens.
+     *
+     * @param entry the entry
+     */
+    private void post(Entry entry) {
+        for (String token : entry.tokens) postings.computeIfAbsent(token, key -> new HashSet<>()).add(entry);
+    }
+
+    /**
+     * Removes an entry from the postings of its tokens, dropping the tokens left without documents.
+     *
+     * @param entry the entry
+     */
+    private void unpost(Entry entry) {
+        for (String token : entry.tokens) {
+            Set<Entry> posting = postings.get(token);
+            posting.remove(entry);
+            if (posting.isEmpty()) postings.remove(token);
+        }
+    }
+
+    /**
+     * Returns the distinct tokens of the title and the file name of a document.
+     *
+     * @param document the document
+     * @return the tokens
+     */
+    private static String[] tokensOf(IDocument document) {
+        String[] titleTokens = TextQuery.tokenize(document.getTitle()), fileNameTokens = TextQuery.tokenize(document.getFileName());
+        String[] tokens = Arrays.copyOf(titleTokens, titleTokens.length + fileNameTokens.length);
+        System.arraycopy(fileNameTokens, 0, tokens, titleTokens.length, fileNameTokens.length);
+        Arrays.sort(tokens);
+        int count = 0;
+        for (int i = 0; i < tokens.length; i++) if (count == 0 || !tokens[i].equals(tokens[count - 1])) tokens[count++] = tokens[i];
+
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * An indexed document, with the order it was indexed in and the tokens it was posted under.
+     */
+    private static final class Entry {
+        /**
+         * The document
+         */
+        private final IDocument document;
+        /**
+         * The order the document was indexed in
+         */
+        private final long sequence;
+        /**
+         * The distinct tokens the document is posted under
+         */
+        private String[] tokens;
+
+        /**
+         * Constructs the entry of a document.
+         *
+         * @param document the document
+         * @param sequence the order the document was indexed in
+         */
+        private Entry(IDocument document, long sequence) {
+            this.document = document;
+            this.sequence = sequence;
+            this.tokens = tokensOf(document);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package dev.joseafmoreira.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * A full-text query over the title and the file name of the documents. <p>
+ *
+ * The query and the searched texts are split in tokens: the lower case runs of letters and digits.
+ * Each query term scores a document by its best match in the title and its best match in the
+ * file name, where a token equal to the term is worth more than a token starting with it and the
+ * title is worth more than the file name. The score of a document is the sum over the terms, and a
+ * document matches the query if its score is positive. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #tokenize(String)}: Splits a text in tokens</li>
+ *  <li>{@link #getTerms()}: Returns the terms of this query</li>
+ *  <li>{@link #score(IDocument)}: Returns the score of a document</li>
+ *  <li>{@link #rank(IDocument[])}: Returns the matching documents, from the best match to the worst</li>
+ * </ul>
+ *
+ * <h3>TextQuery</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see dev.joseafmoreira.project.ManagedProject#search(String)
+ */
+public final class TextQuery {
+    /**
+     * The score of a title token equal to a term
+     */
+    public static final int TITLE_MATCH = 4;
+    /**
+     * The score of a title token starting with a term
+     */
+    public static final int TITLE_PREFIX = 2;
+    /**
+     * The score of a file name token equal to a term
+     */
+    public static final int FILE_NAME_MATCH = 2;
+    /**
+     * The score of a file name token starting with a term
+     */
+    public static final int FILE_NAME_PREFIX = 1;
+    /**
+     * The distinct terms of this query
+     */
+    private final String[] terms;
+
+    /**
+     * Constructs a TextQuery.
+     *
+     * @param query the text of the query
+     * @throws NullPointerException if the query is null
+     */
+    public TextQuery(String query) throws NullPointerException {
+        if (query == null) throw new NullPointerException("Query is null");
+
+        String[] tokens = tokenize(query);
+        int count = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            boolean repeated = false;
+            for (int j = 0; j < count && !repeated; j++) repeated = tokens[j].equals(tokens[i]);
+            if (!repeated) tokens[count++] = tokens[i];
+        }
+        terms = Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * Splits a text in tokens: the runs of letters and digits, in lower case.
+     *
+     * @param text the text
+     * @return the tokens, in the order they appear (empty if the text is null)
+     */
+    public static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+
+        String[] tokens = new String[4];
+        int count = 0;
+        for (int i = 0; i < text.length(); ) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (start == i) continue;
+
+            if (count == tokens.length) tokens = Arrays.copyOf(tokens, count * 2);
+            tokens[count++] = text.substring(start, i).toLowerCase(Locale.ROOT);
+        }
+
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * Returns the distinct terms of this query.
+     *
+     * @return the terms
+     */
+    public String[] getTerms() {
+        return terms.clone();
+    }
+
+    /**
+     * Returns the score of a document for this query.
+     *
+     * @param document the document
+     * @return the score (0 if the document doesn't match)
+     * @throws NullPointerException if the document is null
+     */
+    public int score(IDocument document) throws NullPointerException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        String[] titleTokens = tokenize(document.getTitle()), fileNameTokens = tokenize(document.getFileName());
+        int score = 0;
+        for (String term : terms)
+            score += bestMatch(term, titleTokens, TITLE_MATCH, TITLE_PREFIX) + bestMatch(term, fileNameTokens, FILE_NAME_MATCH, FILE_NAME_PREFIX);
+
+        return score;
+    }
+
+    /**
+     * Returns the documents matching this query, from the highest score to the lowest. The documents
+     * with the same score keep their relative order.
+     *
+     * @param documents the documents
+     * @return the matching documents
+     * @throws NullPointerException if the documents are null
+     */
+    public IDocument[] rank(IDocument[] documents) throws NullPointerException {
+        if (documents == null) throw new NullPointerException("Documents are null");
+
+        int[] scores = new int[documents.length];
+        Integer[] order = new Integer[documents.length];
+        int count = 0;
+        for (int i = 0; i < documents.length; i++) {
+            scores[i] = score(documents[i]);
+            if (scores[i] > 0) order[count++] = i;
+        }
+        Arrays.sort(order, 0, count, (first, second) -> Integer.compare(scores[second], scores[first]));
+        IDocument[] result = new IDocument[count];
+        for (int i = 0; i < count; i++) result[i] = documents[order[i]];
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.join(" ", terms);
+    }
+
+    /**
+     * Returns the score of the best match of a term among some tokens.
+     *
+     * @param term the term
+     * @param tokens the tokens
+     * @param match the score of a token equal to the term
+     * @param prefix the score of a token starting with the term
+     * @return the score of the best match (0 if no token matches)
+     */
+    private static int bestMatch(String term, String[] tokens, int match, int prefix) {
+        int best = 0;
+        for (String token : tokens) {
+            if (token.equals(term)) return match;
+            if (token.startsWith(term)) best = prefix;
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,146 @@
+package dev.joseafmoreira.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an action over the chunks of a range of indexes in a {@code ForkJoinPool}. <p>
+ *
+ * The range {@code [0, length)} is split in contiguous chunks of about the same size and
+ * each chunk is processed by one fork-join task, so per-chunk results can be stored in arrays
+ * indexed by chunk and combined afterwards (e.g. prefix sums of per-chunk counts). <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #chunkCount(ForkJoinPool, int)}: Returns the number of chunks used for a range</li>
+ *  <li>{@link #forEachChunk(ForkJoinPool, int, int, ChunkAction)}: Runs an action over every chunk of a range</li>
+ * </ul>
+ *
+ * <h3>ChunkedExecution</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public final class ChunkedExecution {
+    /**
+     * The number of chunks per worker thread, so faster workers can steal the chunks of slower ones
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * An action over a chunk of a range of indexes.
+     */
+    @FunctionalInterface
+    public interface ChunkAction {
+        /**
+         * Processes a chunk.
+         *
+         * @param chunk the index of the chunk
+         * @param from the first index of the chunk (inclusive)
+         * @param to the last index of the chunk (exclusive)
+         */
+        void accept(int chunk, int from, int to);
+    }
+
+    /**
+     * ChunkedExecution isn't instantiable.
+     */
+    private ChunkedExecution() {
+    }
+
+    /**
+     * Returns the number of chunks used to process a range in the specified pool.
+     *
+     * @param pool the pool
+     * @param length the length of the range
+     * @return the number of chunks (at least 1)
+     */
+    public static int chunkCount(ForkJoinPool pool, int length) {
+        return Math.max(1, Math.min(length, pool.getParallelism() * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Runs an action over every chunk of a range and waits for all of them to finish.
+     * The first exception thrown by an action is rethrown.
+     *
+     * @param pool the pool running the actions
+     * @param length the length of the range
+     * @param chunks the number of chunks
+     * @param action the action
+     */
+    public static void forEachChunk(ForkJoinPool pool, int length, int chunks, ChunkAction action) {
+        pool.invoke(new ChunkTask(length, chunks, 0, chunks, action));
+    }
+
+    /**
+     * Task processing a range of chunks, split in half until a single chunk is left.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        /**
+         * The serial version UID
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * The length of the whole range
+         */
+        private final int length;
+        /**
+         * The number of chunks of the whole range
+         */
+        private final int chunks;
+        /**
+         * The first chunk of this task (inclusive)
+         */
+        private final int fromChunk;
+        /**
+         * The last chunk of this task (exclusive)
+         */
+        private final int toChunk;
+        /**
+         * The action
+         */
+        private final transient ChunkAction action;
+
+        /**
+         * Constructs a task processing a range of chunks.
+         *
+         * @param length the length of the whole range
+         * @param chunks the number of chunks of the whole range
+         * @param fromChunk the first chunk (inclusive)
+         * @param toChunk the last chunk (exclusive)
+         * @param action the action
+         */
+        private ChunkTask(int length, int chunks, int fromChunk, int toChunk, ChunkAction action) {
+            this.length = length;
+            this.chunks = chunks;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.action = action;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                action.accept(fromChunk, boundary(fromChunk), boundary(fromChunk + 1));
+                return;
+            }
+
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunkTask(length, chunks, fromChunk, middle, action),
+                    new ChunkTask(length, chunks, middle, toChunk, action));
+        }
+
+        /**
+         * Returns the first index of a chunk.
+         *
+         * @param chunk the chunk
+         * @return the first index of the chunk
+         */
+        private int boundary(int chunk) {
+            return (int) ((long) length * chunk / chunks);
+        }
+    }
+}
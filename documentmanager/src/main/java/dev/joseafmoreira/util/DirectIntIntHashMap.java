@@ -0,0 +1,257 @@
+package dev.joseafmoreira.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Open addressing hash map with primitive {@code int} keys and {@code int} values stored off-heap. <p>
+ *
+ * Works like {@link IntIntHashMap}, but each key and its value are stored next to each other in
+ * a direct buffer, so the tables take no space in the Java heap and a lookup touches a single
+ * cache line. The key {@code 0} marks free slots and is stored in a field instead. The memory
+ * is released by {@link #free()}, after which the map must not be used. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #get(int)}: Returns the value mapped to a key or {@link #NO_VALUE}</li>
+ *  <li>{@link #put(int, int)}: Maps a key to a value</li>
+ *  <li>{@link #remove(int)}: Removes the mapping of a key</li>
+ *  <li>{@link #size()}: Returns the number of mappings in this map</li>
+ *  <li>{@link #memoryFootprint()}: Returns the number of off-heap bytes of this map</li>
+ *  <li>{@link #clear()}: Removes all the mappings from this map</li>
+ *  <li>{@link #free()}: Frees the off-heap memory of this map</li>
+ * </ul>
+ *
+ * <h3>DirectIntIntHashMap</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see IntIntHashMap
+ */
+public class DirectIntIntHashMap {
+    /**
+     * The value returned when a key isn't mapped
+     */
+    public static final int NO_VALUE = -1;
+    /**
+     * The default number of slots of this map table
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * The key used to mark a free slot in the table
+     */
+    private static final int FREE_KEY = 0;
+    /**
+     * The bytes of a slot: the key followed by the value
+     */
+    private static final int SLOT_BYTES = 8;
+    /**
+     * The table of this map
+     */
+    private ByteBuffer table;
+    /**
+     * The mask used to wrap a slot around the table
+     */
+    private int mask;
+    /**
+     * The number of mappings stored in the table
+     */
+    private int size;
+    /**
+     * The maximum number of mappings before the table is resized
+     */
+    private int threshold;
+    /**
+     * Whether the free key is mapped
+     */
+    private boolean hasFreeKey;
+    /**
+     * The value mapped to the free key
+     */
+    private int freeKeyValue;
+
+    /**
+     * Constructs an empty DirectIntIntHashMap able to hold the expected number of
+     * mappings without being resized.
+     *
+     * @param expectedSize the expected number of mappings (Minimum value is 0)
+     */
+    public DirectIntIntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity >>> 1 < expectedSize && capacity < (1 << 27)) capacity <<= 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value mapped to the specified key.
+     *
+     * @param key the key
+     * @return the value mapped to the key or {@link #NO_VALUE} if the key isn't mapped
+     */
+    public int get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : NO_VALUE;
+
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int slotKey = table.getInt(i * SLOT_BYTES);
+            if (slotKey == key) return table.getInt(i * SLOT_BYTES + 4);
+            if (slotKey == FREE_KEY) return NO_VALUE;
+        }
+    }
+
+    /**
+     * Maps the specified key to the specified value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key or {@link #NO_VALUE} if the key wasn't mapped
+     */
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+
+            return previous;
+        }
+
+        int i = mix(key) & mask;
+        for (int slotKey; (slotKey = table.getInt(i * SLOT_BYTES)) != FREE_KEY; i = (i + 1) & mask) {
+            if (slotKey == key) {
+                int previous = table.getInt(i * SLOT_BYTES + 4);
+                table.putInt(i * SLOT_BYTES + 4, value);
+
+                return previous;
+            }
+        }
+        table.putInt(i * SLOT_BYTES, key);
+        table.putInt(i * SLOT_BYTES + 4, value);
+        if (++size > threshold) rehash((mask + 1) << 1);
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes the mapping of the specified key.
+     *
+     * @param key the key
+     * @return the value mapped to the key or {@link #NO_VALUE} if the key wasn't mapped
+     */
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return NO_VALUE;
+            hasFreeKey = false;
+            size--;
+
+            return freeKeyValue;
+        }
+
+        int i = mix(key) & mask;
+        for (int slotKey; (slotKey = table.getInt(i * SLOT_BYTES)) != key; i = (i + 1) & mask)
+            if (slotKey == FREE_KEY) return NO_VALUE;
+        int previous = table.getInt(i * SLOT_BYTES + 4);
+        shiftKeys(i);
+        size--;
+
+        return previous;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes of this map table.
+     *
+     * @return the number of bytes
+     */
+    public long memoryFootprint() {
+        return (table == null) ? 0 : table.capacity();
+    }
+
+    /**
+     * Removes all the mappings from this map, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i <= mask; i++) table.putInt(i * SLOT_BYTES, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Frees the off-heap memory of this map. The map must not be used afterwards.
+     */
+    public void free() {
+        DirectMemory.free(table);
+        table = null;
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving back the following
+     * keys of the same probe sequence (backward shift deletion).
+     *
+     * @param gap the slot of the removed key
+     */
+    private void shiftKeys(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            int key = table.getInt(i * SLOT_BYTES);
+            if (key == FREE_KEY) break;
+
+            int home = mix(key) & mask;
+            if ((gap <= i) ? (gap >= home || home > i) : (gap >= home && home > i)) {
+                table.putLong(gap * SLOT_BYTES, table.getLong(i * SLOT_BYTES));
+                gap = i;
+            }
+        }
+        table.putInt(gap * SLOT_BYTES, FREE_KEY);
+    }
+
+    /**
+     * Moves every mapping to a new table with the specified number of slots and frees the old one.
+     *
+     * @param capacity the new number of slots (power of two)
+     */
+    private void rehash(int capacity) {
+        ByteBuffer oldTable = table;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            int key = oldTable.getInt(i * SLOT_BYTES);
+            if (key == FREE_KEY) continue;
+
+            int j = mix(key) & mask;
+            while (table.getInt(j * SLOT_BYTES) != FREE_KEY) j = (j + 1) & mask;
+            table.putLong(j * SLOT_BYTES, oldTable.getLong(i * SLOT_BYTES));
+        }
+        DirectMemory.free(oldTable);
+    }
+
+    /**
+     * Allocates an empty table with the specified number of slots.
+     *
+     * @param capacity the number of slots (power of two)
+     */
+    private void allocate(int capacity) {
+        table = DirectMemory.allocate(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    /**
+     * Spreads the bits of a key so consecutive ids don't cluster in the table.
+     *
+     * @param key the key
+     * @return the mixed hash of the key
+     */
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,100 @@
+package dev.joseafmoreira.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates and frees off-heap memory as direct {@code ByteBuffer}s. <p>
+ *
+ * A direct buffer is normally freed only when the garbage collector finds it unreachable, which
+ * may take long since the buffer object itself is tiny. {@link #free(ByteBuffer)} releases the
+ * memory right away through the cleaner of the buffer, when the JVM exposes it (through
+ * {@code sun.misc.Unsafe}), and otherwise leaves it to the garbage collector. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #allocate(int)}: Allocates a zeroed buffer</li>
+ *  <li>{@link #grow(ByteBuffer, int)}: Copies a buffer to a larger one and frees it</li>
+ *  <li>{@link #free(ByteBuffer)}: Frees a buffer</li>
+ * </ul>
+ *
+ * <h3>DirectMemory</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public final class DirectMemory {
+    /**
+     * The method freeing the memory of a direct buffer (null if it isn't available)
+     */
+    private static final MethodHandle CLEANER = findCleaner();
+
+    /**
+     * DirectMemory isn't instantiable.
+     */
+    private DirectMemory() {
+    }
+
+    /**
+     * Allocates a zeroed off-heap buffer in the native byte order.
+     *
+     * @param capacity the capacity in bytes (Minimum value is 0)
+     * @return the buffer
+     */
+    public static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(Math.max(0, capacity)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copies the contents of a buffer to a new, larger one, and frees the old buffer.
+     *
+     * @param buffer the buffer
+     * @param capacity the capacity of the new buffer in bytes
+     * @return the new buffer
+     */
+    public static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = allocate(capacity);
+        grown.put(0, buffer, 0, Math.min(buffer.capacity(), capacity));
+        free(buffer);
+
+        return grown;
+    }
+
+    /**
+     * Frees the memory of a direct buffer. The buffer must not be used afterwards.
+     *
+     * @param buffer the buffer (ignored if it's null or not direct)
+     */
+    public static void free(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || CLEANER == null) return;
+
+        try {
+            CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            // Slices and duplicates can't be cleaned, their memory goes with the buffer they came from
+        }
+    }
+
+    /**
+     * Looks up {@code sun.misc.Unsafe.invokeCleaner(ByteBuffer)}.
+     *
+     * @return the method bound to the unsafe instance or null if it isn't available
+     */
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            MethodHandle cleaner = MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+
+            return cleaner.bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
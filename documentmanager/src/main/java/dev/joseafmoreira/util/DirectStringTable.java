@@ -0,0 +1,245 @@
+package dev.joseafmoreira.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary of strings stored off-heap as UTF-8. <p>
+ *
+ * Works like {@link StringDictionary}, but the strings are kept in a direct buffer, each one as
+ * its length followed by its bytes, and the code of a string is its position in the buffer.
+ * Equal strings get the same code through an off-heap hash table of the positions. Nothing is
+ * kept in the Java heap, so {@link #decode(int)} builds a new {@code String} on every call.
+ * Strings are never removed one by one: the owner reclaims the unused ones by copying the strings
+ * it still uses to a new table with {@link #copy(DirectStringTable, int)}. The memory is released by
+ * {@link #free()}, after which the table must not be used. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #encode(String)}: Returns the code of a string, storing it if it's new</li>
+ *  <li>{@link #copy(DirectStringTable, int)}: Returns the code of a string of another table, storing it if it's new</li>
+ *  <li>{@link #decode(int)}: Returns the string of a code</li>
+ *  <li>{@link #matches(int, String)}: Checks if a code is the code of a string</li>
+ *  <li>{@link #memoryFootprint()}: Returns the number of off-heap bytes of this table</li>
+ *  <li>{@link #clear()}: Removes every string from this table</li>
+ *  <li>{@link #free()}: Frees the off-heap memory of this table</li>
+ * </ul>
+ *
+ * <h3>DirectStringTable</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see StringDictionary
+ */
+public class DirectStringTable {
+    /**
+     * The code of the null string
+     */
+    public static final int NULL_CODE = -1;
+    /**
+     * The default number of bytes of the string data
+     */
+    private static final int DEFAULT_DATA_CAPACITY = 1 << 10;
+    /**
+     * The default number of slots of the hash table
+     */
+    private static final int DEFAULT_TABLE_CAPACITY = 64;
+    /**
+     * The bytes of a slot of the hash table: the hash of the string followed by its position + 1 (0 if free)
+     */
+    private static final int SLOT_BYTES = 8;
+    /**
+     * The strings, each one as its length followed by its UTF-8 bytes
+     */
+    private ByteBuffer data;
+    /**
+     * The number of used bytes of the string data
+     */
+    private int dataEnd;
+    /**
+     * The hash table of the positions of the strings
+     */
+    private ByteBuffer table;
+    /**
+     * The mask used to wrap a slot around the hash table
+     */
+    private int mask;
+    /**
+     * The number of strings in this table
+     */
+    private int size;
+
+    /**
+     * Constructs an empty DirectStringTable.
+     */
+    public DirectStringTable() {
+        data = DirectMemory.allocate(DEFAULT_DATA_CAPACITY);
+        table = DirectMemory.allocate(DEFAULT_TABLE_CAPACITY * SLOT_BYTES);
+        mask = DEFAULT_TABLE_CAPACITY - 1;
+        dataEnd = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the code of the specified string, storing it if it isn't in this table.
+     *
+     * @param string the string
+     * @return the code of the string or {@link #NULL_CODE} if it's null
+     * @throws IllegalStateException if the string data would exceed 2 GB
+     */
+    public int encode(String string) throws IllegalStateException {
+        if (string == null) return NULL_CODE;
+
+        return encode(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the code in this table of a string of another table, storing it if it isn't in this
+     * table. The bytes of the string are copied without decoding it.
+     *
+     * @param source the table of the string
+     * @param code the code of the string in the source table
+     * @return the code of the string in this table or {@link #NULL_CODE} if it's null
+     * @throws NullPointerException if the source table is null
+     * @throws IndexOutOfBoundsException if the code is outside the string data of the source table
+     * @throws IllegalStateException if the string data would exceed 2 GB
+     */
+    public int copy(DirectStringTable source, int code) throws NullPointerException, IndexOutOfBoundsException, IllegalStateException {
+        if (source == null) throw new NullPointerException("Source is null");
+        if (code == NULL_CODE) return NULL_CODE;
+        if (code < 0 || code >= source.dataEnd) throw new IndexOutOfBoundsException("Unknown string code " + code);
+
+        byte[] bytes = new byte[source.data.getInt(code)];
+        source.data.get(code + 4, bytes);
+
+        return encode(bytes);
+    }
+
+    /**
+     * Returns the string of the specified code.
+     *
+     * @param code the code
+     * @return a new string or null if the code is {@link #NULL_CODE}
+     * @throws IndexOutOfBoundsException if the code is outside the string data
+     */
+    public String decode(int code) throws IndexOutOfBoundsException {
+        if (code == NULL_CODE) return null;
+        if (code < 0 || code >= dataEnd) throw new IndexOutOfBoundsException("Unknown string code " + code);
+
+        byte[] bytes = new byte[data.getInt(code)];
+        data.get(code + 4, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks if the specified code is the code of the specified string, without decoding it.
+     *
+     * @param code the code
+     * @param string the string
+     * @return true if the code is the code of the string, false otherwise
+     */
+    public boolean matches(int code, String string) {
+        if (code == NULL_CODE || string == null) return code == NULL_CODE && string == null;
+
+        return equalsAt(code, string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the number of strings in this table.
+     *
+     * @return the number of strings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes of this table.
+     *
+     * @return the number of bytes
+     */
+    public long memoryFootprint() {
+        return (data == null) ? 0 : (long) data.capacity() + table.capacity();
+    }
+
+    /**
+     * Removes every string from this table, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i <= mask; i++) table.putInt(i * SLOT_BYTES + 4, 0);
+        dataEnd = 0;
+        size = 0;
+    }
+
+    /**
+     * Frees the off-heap memory of this table. The table must not be used afterwards.
+     */
+    public void free() {
+        DirectMemory.free(data);
+        DirectMemory.free(table);
+        data = null;
+        table = null;
+    }
+
+    /**
+     * Returns the code of the string with the specified UTF-8 bytes, storing it if it isn't in this table.
+     *
+     * @param bytes the UTF-8 bytes of the string
+     * @return the code of the string
+     * @throws IllegalStateException if the string data would exceed 2 GB
+     */
+    private int encode(byte[] bytes) throws IllegalStateException {
+        int hash = Arrays.hashCode(bytes), i = (hash ^ (hash >>> 16)) & mask;
+        for (int position; (position = table.getInt(i * SLOT_BYTES + 4)) != 0; i = (i + 1) & mask)
+            if (table.getInt(i * SLOT_BYTES) == hash && equalsAt(position - 1, bytes)) return position - 1;
+
+        long needed = (long) dataEnd + 4 + bytes.length;
+        if (needed > Integer.MAX_VALUE - 8) throw new IllegalStateException("String table is full");
+        if (needed > data.capacity()) data = DirectMemory.grow(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * data.capacity())));
+        int code = dataEnd;
+        data.putInt(code, bytes.length);
+        data.put(code + 4, bytes);
+        dataEnd += 4 + bytes.length;
+        table.putInt(i * SLOT_BYTES, hash);
+        table.putInt(i * SLOT_BYTES + 4, code + 1);
+        if (++size > (mask + 1) >>> 1) rehash((mask + 1) << 1);
+
+        return code;
+    }
+
+    /**
+     * Checks if the string at a position has the specified bytes.
+     *
+     * @param position the position of the string
+     * @param bytes the bytes
+     * @return true if the string has the bytes, false otherwise
+     */
+    private boolean equalsAt(int position, byte[] bytes) {
+        if (data.getInt(position) != bytes.length) return false;
+
+        for (int i = 0; i < bytes.length; i++) if (data.get(position + 4 + i) != bytes[i]) return false;
+        return true;
+    }
+
+    /**
+     * Moves every position to a new hash table with the specified number of slots and frees the old one.
+     *
+     * @param capacity the new number of slots (power of two)
+     */
+    private void rehash(int capacity) {
+        ByteBuffer oldTable = table;
+        int oldCapacity = mask + 1;
+        table = DirectMemory.allocate(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            if (oldTable.getInt(i * SLOT_BYTES + 4) == 0) continue;
+
+            int hash = oldTable.getInt(i * SLOT_BYTES), j = (hash ^ (hash >>> 16)) & mask;
+            while (table.getInt(j * SLOT_BYTES + 4) != 0) j = (j + 1) & mask;
+            table.putLong(j * SLOT_BYTES, oldTable.getLong(i * SLOT_BYTES));
+        }
+        DirectMemory.free(oldTable);
+    }
+}
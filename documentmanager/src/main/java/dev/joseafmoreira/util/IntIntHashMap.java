@@ -0,0 +1,291 @@
+package dev.joseafmoreira.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive {@code int} keys and {@code int} values. <p>
+ *
+ * Keys and values are stored in two parallel arrays and collisions are resolved with
+ * linear probing, so lookups and insertions don't allocate nor box their arguments.
+ * The key {@code 0} is used to mark free slots and is therefore stored outside of the tables. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #get(int)}: Returns the value mapped to a key or {@link #NO_VALUE}</li>
+ *  <li>{@link #containsKey(int)}: Checks if this map contains a key</li>
+ *  <li>{@link #put(int, int)}: Maps a key to a value</li>
+ *  <li>{@link #remove(int)}: Removes the mapping of a key</li>
+ *  <li>{@link #size()}: Returns the number of mappings in this map</li>
+ *  <li>{@link #capacity()}: Returns the number of slots of this map tables</li>
+ *  <li>{@link #clear()}: Removes all the mappings from this map</li>
+ * </ul>
+ *
+ * <h3>IntIntHashMap</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public class IntIntHashMap {
+    /**
+     * The value returned when a key isn't mapped
+     */
+    public static final int NO_VALUE = -1;
+    /**
+     * The default capacity of this map tables
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * The key used to mark a free slot in the tables
+     */
+    private static final int FREE_KEY = 0;
+    /**
+     * The keys of this map
+     */
+    private int[] keys;
+    /**
+     * The values of this map
+     */
+    private int[] values;
+    /**
+     * The mask used to wrap an index around the tables
+     */
+    private int mask;
+    /**
+     * The number of mappings stored in the tables
+     */
+    private int size;
+    /**
+     * The maximum number of mappings before the tables are resized
+     */
+    private int threshold;
+    /**
+     * Whether the free key is mapped
+     */
+    private boolean hasFreeKey;
+    /**
+     * The value mapped to the free key
+     */
+    private int freeKeyValue;
+
+    /**
+     * Constructs an empty IntIntHashMap with a default capacity.
+     */
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty IntIntHashMap able to hold the expected number of
+     * mappings without being resized.
+     *
+     * @param expectedSize the expected number of mappings (Minimum value is 0)
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to the specified key.
+     *
+     * @param key the key
+     * @return the value mapped to the key or {@link #NO_VALUE} if the key isn't mapped
+     */
+    public int get(int key) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : NO_VALUE;
+
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+            if (keys[i] == FREE_KEY) return NO_VALUE;
+        }
+    }
+
+    /**
+     * Checks if this map contains the specified key.
+     *
+     * @param key the key
+     * @return true if the key is mapped, false otherwise
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) return hasFreeKey;
+
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+            if (keys[i] == FREE_KEY) return false;
+        }
+    }
+
+    /**
+     * Maps the specified key to the specified value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key or {@link #NO_VALUE} if the key wasn't mapped
+     */
+    public int put(int key, int value) {
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+
+            return previous;
+        }
+
+        int i = mix(key) & mask;
+        while (keys[i] != FREE_KEY) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) rehash(keys.length << 1);
+
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes the mapping of the specified key.
+     *
+     * @param key the key
+     * @return the value mapped to the key or {@link #NO_VALUE} if the key wasn't mapped
+     */
+    public int remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return NO_VALUE;
+            hasFreeKey = false;
+            size--;
+
+            return freeKeyValue;
+        }
+
+        int i = mix(key) & mask;
+        while (keys[i] != key) {
+            if (keys[i] == FREE_KEY) return NO_VALUE;
+            i = (i + 1) & mask;
+        }
+        int previous = values[i];
+        shiftKeys(i);
+        size--;
+
+        return previous;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of this map tables. Each slot takes two {@code int}s.
+     *
+     * @return the number of slots of this map tables
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Checks if this map is empty.
+     *
+     * @return true if this map is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the mappings from this map, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving back the following
+     * keys of the same probe sequence (backward shift deletion).
+     *
+     * @param gap the index of the removed key
+     */
+    private void shiftKeys(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            int key = keys[i];
+            if (key == FREE_KEY) break;
+
+            int home = mix(key) & mask;
+            if ((gap <= i) ? (gap >= home || home > i) : (gap >= home && home > i)) {
+                keys[gap] = key;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = FREE_KEY;
+    }
+
+    /**
+     * Moves every mapping to new tables with the specified capacity.
+     *
+     * @param capacity the new capacity (power of two)
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys, oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE_KEY) continue;
+
+            int j = mix(oldKeys[i]) & mask;
+            while (keys[j] != FREE_KEY) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    /**
+     * Allocates empty tables with the specified capacity.
+     *
+     * @param capacity the capacity (power of two)
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    /**
+     * Returns the smallest power of two table size able to hold the expected number of mappings.
+     *
+     * @param expectedSize the expected number of mappings
+     * @return the table size
+     */
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity >>> 1 < expectedSize && capacity < (1 << 30)) capacity <<= 1;
+
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of a key so consecutive ids don't cluster in the tables.
+     *
+     * @param key the key
+     * @return the mixed hash of the key
+     */
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+
+        return hash ^ (hash >>> 16);
+    }
+}
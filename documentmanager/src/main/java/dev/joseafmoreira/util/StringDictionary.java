@@ -0,0 +1,187 @@
+package dev.joseafmoreira.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of strings. <p>
+ *
+ * Every distinct string gets a dense {@code int} code, so a column of repeated strings can be
+ * stored as a column of codes and each distinct string is kept only once. {@code null} is encoded
+ * as {@code -1}. <p>
+ *
+ * Every {@link #encode(String)} counts a reference to the code, and {@link #release(int)} drops
+ * one. A string whose references are all released leaves the dictionary and its code is reused by
+ * the next new string, so a dictionary whose users release the codes they stop storing only holds
+ * the strings still in use. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #encode(String)}: Returns the code of a string, assigning a new one if needed</li>
+ *  <li>{@link #release(int)}: Drops a reference to a code, removing its string if it was the last one</li>
+ *  <li>{@link #decode(int)}: Returns the string of a code</li>
+ *  <li>{@link #size()}: Returns the number of distinct strings</li>
+ *  <li>{@link #memoryFootprint()}: Returns an estimate of the heap used by this dictionary</li>
+ *  <li>{@link #clear()}: Removes every string from this dictionary</li>
+ * </ul>
+ *
+ * <h3>StringDictionary</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public class StringDictionary {
+    /**
+     * The code of a null string
+     */
+    public static final int NULL_CODE = -1;
+    /**
+     * The codes of the strings
+     */
+    private final Map<String, Integer> codes;
+    /**
+     * The strings, indexed by code
+     */
+    private String[] strings;
+    /**
+     * The number of references to each code (0 for a free code)
+     */
+    private int[] references;
+    /**
+     * The next free code of each free code, forming a stack
+     */
+    private int[] nextFreeCodes;
+    /**
+     * The most recently freed code ({@link #NULL_CODE} if no code is free)
+     */
+    private int freeCode;
+    /**
+     * The number of assigned codes, free or not
+     */
+    private int codeCount;
+    /**
+     * The number of distinct strings
+     */
+    private int size;
+    /**
+     * The number of characters of all the distinct strings
+     */
+    private long characters;
+
+    /**
+     * Constructs an empty StringDictionary.
+     */
+    public StringDictionary() {
+        codes = new HashMap<>();
+        strings = new String[16];
+        references = new int[16];
+        nextFreeCodes = new int[16];
+        freeCode = NULL_CODE;
+        codeCount = 0;
+        size = 0;
+        characters = 0;
+    }
+
+    /**
+     * Returns the code of the specified string, assigning a code if it isn't in this dictionary,
+     * and counts a reference to it.
+     *
+     * @param string the string
+     * @return the code of the string or {@link #NULL_CODE} if it's null
+     */
+    public int encode(String string) {
+        if (string == null) return NULL_CODE;
+
+        Integer code = codes.get(string);
+        if (code == null) {
+            if (freeCode != NULL_CODE) {
+                code = freeCode;
+                freeCode = nextFreeCodes[code];
+            } else {
+                if (codeCount == strings.length) {
+                    strings = Arrays.copyOf(strings, codeCount * 2);
+                    references = Arrays.copyOf(references, codeCount * 2);
+                    nextFreeCodes = Arrays.copyOf(nextFreeCodes, codeCount * 2);
+                }
+                code = codeCount++;
+            }
+            strings[code] = string;
+            codes.put(string, code);
+            characters += string.length();
+            size++;
+        }
+        references[code]++;
+
+        return code;
+    }
+
+    /**
+     * Drops a reference to the specified code. When its last reference is dropped, the string
+     * leaves this dictionary and the code may be assigned to another string.
+     *
+     * @param code the code ({@link #NULL_CODE} is ignored)
+     * @throws IndexOutOfBoundsException if the code isn't assigned by this dictionary
+     */
+    public void release(int code) throws IndexOutOfBoundsException {
+        if (code == NULL_CODE) return;
+        if (code < 0 || code >= codeCount || references[code] == 0) throw new IndexOutOfBoundsException("Unknown string code " + code);
+
+        if (--references[code] > 0) return;
+
+        codes.remove(strings[code]);
+        characters -= strings[code].length();
+        strings[code] = null;
+        nextFreeCodes[code] = freeCode;
+        freeCode = code;
+        size--;
+    }
+
+    /**
+     * Returns the string of the specified code.
+     *
+     * @param code the code
+     * @return the string or null if the code is {@link #NULL_CODE}
+     * @throws IndexOutOfBoundsException if the code wasn't assigned by this dictionary
+     */
+    public String decode(int code) throws IndexOutOfBoundsException {
+        if (code == NULL_CODE) return null;
+        if (code < 0 || code >= codeCount || references[code] == 0) throw new IndexOutOfBoundsException("Unknown string code " + code);
+
+        return strings[code];
+    }
+
+    /**
+     * Returns the number of distinct strings in this dictionary.
+     *
+     * @return the number of distinct strings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this dictionary in bytes, assuming compressed
+     * references and Latin-1 strings: the strings themselves, their map entries and the code tables.
+     *
+     * @return the estimated number of bytes
+     */
+    public long memoryFootprint() {
+        // String (24) + byte[] header (16) + HashMap.Node (32) + boxed code (16) + table references (8)
+        return size * 96L + characters + 12L * strings.length;
+    }
+
+    /**
+     * Removes every string from this dictionary.
+     */
+    public void clear() {
+        codes.clear();
+        strings = new String[16];
+        references = new int[16];
+        nextFreeCodes = new int[16];
+        freeCode = NULL_CODE;
+        codeCount = 0;
+        size = 0;
+        characters = 0;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.joseafmoreira.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, thread-safe pool of canonical strings. <p>
+ *
+ * {@link #intern(String)} returns a string equal to the given one, the same instance for equal
+ * strings as long as it stays in the pool, so the callers keeping the returned strings share a
+ * single copy of each repeated string. Unlike {@link String#intern()}, the pool has a fixed
+ * number of slots: each string hashes to a pair of slots holding the most recently interned
+ * strings of that pair, and a new string pushes out the older one. A string pushed out is only
+ * duplicated, never lost, so the pool works as a cache and never grows. <p>
+ *
+ * The slots are read and written without locking. Racing threads may both store an equal
+ * string, in which case one of the copies stays unshared. <p>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #intern(String)}: Returns the canonical instance of a string</li>
+ *  <li>{@link #getCapacity()}: Returns the number of slots of this pool</li>
+ *  <li>{@link #clear()}: Removes every string from this pool</li>
+ * </ul>
+ *
+ * <h3>StringInterner</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see StringDictionary
+ */
+public class StringInterner {
+    /**
+     * The default number of slots
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    /**
+     * The interned strings
+     */
+    private final AtomicReferenceArray<String> slots;
+    /**
+     * The mask used to wrap a hash around the slots
+     */
+    private final int mask;
+
+    /**
+     * Constructs an empty StringInterner with a default number of slots.
+     */
+    public StringInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty StringInterner with a specified number of slots.
+     *
+     * @param capacity the number of slots (Minimum value is 2), rounded up to a power of two
+     */
+    public StringInterner(int capacity) {
+        int slotCount = 2;
+        while (slotCount < capacity && slotCount < (1 << 30)) slotCount <<= 1;
+        slots = new AtomicReferenceArray<>(slotCount);
+        mask = slotCount - 1;
+    }
+
+    /**
+     * Returns the canonical instance of the specified string: the pooled string equal to it
+     * or, if none is pooled, the string itself, which is pooled.
+     *
+     * @param string the string
+     * @return a string equal to the string or null if it's null
+     */
+    public String intern(String string) {
+        if (string == null) return null;
+
+        int hash = string.hashCode(), first = (hash ^ (hash >>> 16)) & mask, second = first ^ 1;
+        String pooled = slots.get(first);
+        if (pooled != null && pooled.hashCode() == hash && pooled.equals(string)) return pooled;
+        String older = slots.get(second);
+        if (older != null && older.hashCode() == hash && older.equals(string)) return older;
+
+        // The first slot of the pair holds the most recent string, the previous one moves to the second
+        if (pooled != null) slots.set(second, pooled);
+        slots.set(first, string);
+
+        return string;
+    }
+
+    /**
+     * Returns the number of slots of this pool, the maximum number of pooled strings.
+     *
+     * @return the number of slots
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Removes every string from this pool.
+     */
+    public void clear() {
+        for (int i = 0; i <= mask; i++) slots.set(i, null);
+    }
+}
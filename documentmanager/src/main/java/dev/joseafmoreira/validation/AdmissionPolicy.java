@@ -0,0 +1,470 @@
+package dev.joseafmoreira.validation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.joseafmoreira.document.DocumentFilter;
+import dev.joseafmoreira.exceptions.InvalidDocumentException;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * The rules a document must follow to be added to a project. <p>
+ *
+ * A policy is immutable: the {@code with} methods return a new policy with one rule changed.
+ * The rules are compiled when the policy is made (the file size limit to an int, the allowed
+ * extensions to an array of interned strings, the allowed types to a table indexed by ordinal),
+ * so a check is a fixed sequence of comparisons. A policy can be shared by many projects, e.g. one
+ * per tenant, and counts the documents rejected by each of its rules across all of them:
+ * <pre>{@code
+ * AdmissionPolicy policy = AdmissionPolicy.standard().withMaxFileSize(10).withExtensions("pdf", "docx");
+ * IProject project = new Project(policy);
+ * ...
+ * long tooLarge = policy.getRejections(AdmissionPolicy.FILE_SIZE);
+ * }</pre>
+ *
+ * The available operations are the following: <p>
+ * <ul>
+ *  <li>{@link #standard()}: Returns the policy of a project made without one</li>
+ *  <li>{@link #unrestricted()}: Returns a policy only checking the versions</li>
+ *  <li>{@link #withMaxFileSize(int)}: Returns a copy of this policy with a file size limit</li>
+ *  <li>{@link #withExtensions(String...)}: Returns a copy of this policy with the allowed file extensions</li>
+ *  <li>{@link #withTypes(DocumentType...)}: Returns a copy of this policy with the allowed types</li>
+ *  <li>{@link #withVersionPolicy(VersionPolicy)}: Returns a copy of this policy with a version policy</li>
+ *  <li>{@link #withRule(String, DocumentFilter, String)}: Returns a copy of this policy with an extra rule</li>
+ *  <li>{@link #check(IDocument, int)}: Checks a document against every rule</li>
+ *  <li>{@link #checkAttributes(IDocument)}: Checks a document against the rules not depending on the project</li>
+ *  <li>{@link #checkVersion(IDocument, int)}: Checks the version of a document</li>
+ *  <li>{@link #getRuleNames()}: Returns the names of the rules</li>
+ *  <li>{@link #getRejections(String)}: Returns the number of documents rejected by a rule</li>
+ *  <li>{@link #resetRejections()}: Resets the rejection counters</li>
+ * </ul>
+ *
+ * <h3>AdmissionPolicy</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ */
+public final class AdmissionPolicy {
+    /**
+     * The latest version passed to the version check when the project has no version of the document
+     */
+    public static final int NO_VERSION = Integer.MIN_VALUE;
+    /**
+     * The name of the file size rule
+     */
+    public static final String FILE_SIZE = "fileSize";
+    /**
+     * The name of the file extension rule
+     */
+    public static final String FILE_EXTENSION = "fileExtension";
+    /**
+     * The name of the type rule
+     */
+    public static final String TYPE = "type";
+    /**
+     * The name of the version rule
+     */
+    public static final String VERSION = "version";
+    /**
+     * The counter index of the file size rule
+     */
+    private static final int FILE_SIZE_RULE = 0;
+    /**
+     * The counter index of the file extension rule
+     */
+    private static final int FILE_EXTENSION_RULE = 1;
+    /**
+     * The counter index of the type rule
+     */
+    private static final int TYPE_RULE = 2;
+    /**
+     * The counter index of the version rule
+     */
+    private static final int VERSION_RULE = 3;
+    /**
+     * The number of built-in rules, the counters of the extra rules follow theirs
+     */
+    private static final int BUILT_IN_RULES = 4;
+    /**
+     * The document types, indexed by ordinal
+     */
+    private static final DocumentType[] TYPES = DocumentType.values();
+
+    /**
+     * How the version of a document must relate to the latest version of the same id in the project.
+     */
+    public enum VersionPolicy {
+        /**
+         * The version must be newer than the latest version
+         */
+        NEWER,
+        /**
+         * The version must follow the latest version, and the first version must be 1
+         */
+        CONSECUTIVE
+    }
+
+    /**
+     * The maximum file size in MB ({@code Integer.MAX_VALUE} if there's no limit)
+     */
+    private final int maxFileSizeMb;
+    /**
+     * The allowed file extensions, interned (null if any extension is allowed)
+     */
+    private final String[] extensions;
+    /**
+     * Whether each type is allowed, indexed by ordinal (null if any type is allowed, including none)
+     */
+    private final boolean[] types;
+    /**
+     * The version policy
+     */
+    private final VersionPolicy versionPolicy;
+    /**
+     * The names of the extra rules
+     */
+    private final String[] ruleNames;
+    /**
+     * The conditions the documents must match to pass the extra rules
+     */
+    private final DocumentFilter[] rules;
+    /**
+     * The rejection messages of the extra rules
+     */
+    private final String[] ruleMessages;
+    /**
+     * The message of the file size rule
+     */
+    private final String fileSizeMessage;
+    /**
+     * The message of the file extension rule
+     */
+    private final String fileExtensionMessage;
+    /**
+     * The message of the type rule
+     */
+    private final String typeMessage;
+    /**
+     * The number of documents rejected by each rule, indexed by counter index
+     */
+    private final LongAdder[] rejections;
+
+    /**
+     * Constructs a policy, compiling the messages of its rules.
+     *
+     * @param maxFileSizeMb the maximum file size in MB ({@code Integer.MAX_VALUE} if there's no limit)
+     * @param extensions the allowed file extensions, interned (null if any extension is allowed)
+     * @param types whether each type is allowed (null if any type is allowed)
+     * @param versionPolicy the version policy
+     * @param ruleNames the names of the extra rules
+     * @param rules the conditions of the extra rules
+     * @param ruleMessages the rejection messages of the extra rules
+     */
+    private AdmissionPolicy(int maxFileSizeMb, String[] extensions, boolean[] types, VersionPolicy versionPolicy,
+            String[] ruleNames, DocumentFilter[] rules, String[] ruleMessages) {
+        this.maxFileSizeMb = maxFileSizeMb;
+        this.extensions = extensions;
+        this.types = types;
+        this.versionPolicy = versionPolicy;
+        this.ruleNames = ruleNames;
+        this.rules = rules;
+        this.ruleMessages = ruleMessages;
+        fileSizeMessage = "Document can't have more than " + maxFileSizeMb + " MB";
+        fileExtensionMessage = (extensions == null) ? null : (extensions.length == 1)
+                ? "Document file extension needs to be " + extensions[0]
+                : "Document file extension needs to be one of " + String.join(", ", extensions);
+        typeMessage = (types == null) ? null : "Document type needs to be one of " + allowedTypes(types);
+        rejections = new LongAdder[BUILT_IN_RULES + rules.length];
+        for (int i = 0; i < rejections.length; i++) rejections[i] = new LongAdder();
+    }
+
+    /**
+     * Returns the policy of a project made without one: documents up to 2 MB, pdf files and newer versions.
+     *
+     * @return a new policy
+     */
+    public static AdmissionPolicy standard() {
+        return unrestricted().withMaxFileSize(2).withExtensions("pdf");
+    }
+
+    /**
+     * Returns a policy only requiring newer versions.
+     *
+     * @return a new policy
+     */
+    public static AdmissionPolicy unrestricted() {
+        return new AdmissionPolicy(Integer.MAX_VALUE, null, null, VersionPolicy.NEWER, new String[0], new DocumentFilter[0], new String[0]);
+    }
+
+    /**
+     * Returns a copy of this policy with a file size limit.
+     *
+     * @param maxFileSizeMb the maximum file size in MB ({@code Integer.MAX_VALUE} for no limit)
+     * @return a new policy
+     */
+    public AdmissionPolicy withMaxFileSize(int maxFileSizeMb) {
+        return new AdmissionPolicy(maxFileSizeMb, extensions, types, versionPolicy, ruleNames, rules, ruleMessages);
+    }
+
+    /**
+     * Returns a copy of this policy allowing only the specified file extensions (compared case-sensitively).
+     *
+     * @param extensions the allowed file extensions (none to allow any extension)
+     * @return a new policy
+     * @throws NullPointerException if the extensions or one of them are null
+     */
+    public AdmissionPolicy withExtensions(String... extensions) throws NullPointerException {
+        if (extensions == null) throw new NullPointerException("Extensions are null");
+
+        String[] compiled = null;
+        if (extensions.length > 0) {
+            compiled = new String[extensions.length];
+            for (int i = 0; i < extensions.length; i++) {
+                if (extensions[i] == null) throw new NullPointerException("Extension is null");
+                compiled[i] = extensions[i].intern();
+            }
+        }
+
+        return new AdmissionPolicy(maxFileSizeMb, compiled, types, versionPolicy, ruleNames, rules, ruleMessages);
+    }
+
+    /**
+     * Returns a copy of this policy allowing only the specified types. Documents without a type are rejected
+     * unless no type is specified.
+     *
+     * @param types the allowed types (none to allow any type)
+     * @return a new policy
+     * @throws NullPointerException if the types or one of them are null
+     */
+    public AdmissionPolicy withTypes(DocumentType... types) throws NullPointerException {
+        if (types == null) throw new NullPointerException("Types are null");
+
+        boolean[] compiled = null;
+        if (types.length > 0) {
+            compiled = new boolean[TYPES.length];
+            for (DocumentType type : types) {
+                if (type == null) throw new NullPointerException("Type is null");
+                compiled[type.ordinal()] = true;
+            }
+        }
+
+        return new AdmissionPolicy(maxFileSizeMb, extensions, compiled, versionPolicy, ruleNames, rules, ruleMessages);
+    }
+
+    /**
+     * Returns a copy of this policy with a version policy.
+     *
+     * @param versionPolicy the version policy
+     * @return a new policy
+     * @throws NullPointerException if the version policy is null
+     */
+    public AdmissionPolicy withVersionPolicy(VersionPolicy versionPolicy) throws NullPointerException {
+        if (versionPolicy == null) throw new NullPointerException("Version policy is null");
+
+        return new AdmissionPolicy(maxFileSizeMb, extensions, types, versionPolicy, ruleNames, rules, ruleMessages);
+    }
+
+    /**
+     * Returns a copy of this policy with an extra rule, checked after the built-in rules (except the version rule).
+     *
+     * @param name the name of the rule
+     * @param rule the condition the documents must match
+     * @param message the message of the exception thrown for the documents not matching the condition
+     * @return a new policy
+     * @throws NullPointerException if the name, the condition or the message is null
+     * @throws IllegalArgumentException if this policy already has a rule with this name or it's the name of a built-in rule
+     */
+    public AdmissionPolicy withRule(String name, DocumentFilter rule, String message) throws NullPointerException, IllegalArgumentException {
+        if (name == null) throw new NullPointerException("Name is null");
+        if (rule == null) throw new NullPointerException("Rule is null");
+        if (message == null) throw new NullPointerException("Message is null");
+        if (name.equals(FILE_SIZE) || name.equals(FILE_EXTENSION) || name.equals(TYPE) || name.equals(VERSION) || indexOf(name) >= 0)
+            throw new IllegalArgumentException("Rule " + name + " already exists");
+
+        String[] newNames = Arrays.copyOf(ruleNames, ruleNames.length + 1);
+        DocumentFilter[] newRules = Arrays.copyOf(rules, rules.length + 1);
+        String[] newMessages = Arrays.copyOf(ruleMessages, ruleMessages.length + 1);
+        newNames[ruleNames.length] = name;
+        newRules[rules.length] = rule;
+        newMessages[ruleMessages.length] = message;
+
+        return new AdmissionPolicy(maxFileSizeMb, extensions, types, versionPolicy, newNames, newRules, newMessages);
+    }
+
+    /**
+     * Checks a document against every rule.
+     *
+     * @param document the document
+     * @param latestVersion the latest version of the same id in the project ({@link #NO_VERSION} if there's none)
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document breaks a rule
+     */
+    public void check(IDocument document, int latestVersion) throws NullPointerException, InvalidDocumentException {
+        checkAttributes(document);
+        checkVersion(document, latestVersion);
+    }
+
+    /**
+     * Checks a document against the rules that don't depend on the project (every rule except the version rule).
+     *
+     * @param document the document
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the document breaks a rule
+     */
+    public void checkAttributes(IDocument document) throws NullPointerException, InvalidDocumentException {
+        if (document == null) throw new NullPointerException("Document is null");
+        if (document.getFileSizeMb() > maxFileSizeMb) reject(FILE_SIZE_RULE, fileSizeMessage);
+        if (extensions != null && !isAllowed(document.getFileExtension())) reject(FILE_EXTENSION_RULE, fileExtensionMessage);
+        if (types != null && (document.getType() == null || !types[document.getType().ordinal()])) reject(TYPE_RULE, typeMessage);
+        for (int i = 0; i < rules.length; i++) if (!rules[i].test(document)) reject(BUILT_IN_RULES + i, ruleMessages[i]);
+    }
+
+    /**
+     * Checks the version of a document against the version policy.
+     *
+     * @param document the document
+     * @param latestVersion the latest version of the same id in the project ({@link #NO_VERSION} if there's none)
+     * @throws NullPointerException if the document is null
+     * @throws InvalidDocumentException if the version breaks the version policy
+     */
+    public void checkVersion(IDocument document, int latestVersion) throws NullPointerException, InvalidDocumentException {
+        if (document == null) throw new NullPointerException("Document is null");
+
+        int version = document.getVersion();
+        if (latestVersion != NO_VERSION && latestVersion >= version)
+            reject(VERSION_RULE, "There's already a newer or equal version of this document in this project");
+        if (versionPolicy == VersionPolicy.CONSECUTIVE && version != ((latestVersion == NO_VERSION) ? 1 : latestVersion + 1))
+            reject(VERSION_RULE, "Document version needs to be " + ((latestVersion == NO_VERSION) ? 1 : latestVersion + 1));
+    }
+
+    /**
+     * Returns the names of the rules of this policy, the built-in ones first (only those restricting something).
+     *
+     * @return the names of the rules
+     */
+    public String[] getRuleNames() {
+        String[] names = new String[BUILT_IN_RULES + ruleNames.length];
+        int count = 0;
+        if (maxFileSizeMb != Integer.MAX_VALUE) names[count++] = FILE_SIZE;
+        if (extensions != null) names[count++] = FILE_EXTENSION;
+        if (types != null) names[count++] = TYPE;
+        names[count++] = VERSION;
+        for (String name : ruleNames) names[count++] = name;
+
+        return Arrays.copyOf(names, count);
+    }
+
+    /**
+     * Returns the number of documents rejected by a rule of this policy.
+     *
+     * @param name the name of the rule
+     * @return the number of rejected documents
+     * @throws NullPointerException if the name is null
+     * @throws NoSuchElementException if this policy has no rule with this name
+     */
+    public long getRejections(String name) throws NullPointerException, NoSuchElementException {
+        if (name == null) throw new NullPointerException("Name is null");
+
+        int index = indexOf(name);
+        if (index < 0) throw new NoSuchElementException("Rule not found");
+
+        return rejections[index].sum();
+    }
+
+    /**
+     * Resets the rejection counters of every rule.
+     */
+    public void resetRejections() {
+        for (LongAdder counter : rejections) counter.reset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("AdmissionPolicy[");
+        String[] names = getRuleNames();
+        for (int i = 0; i < names.length; i++)
+            result.append(names[i]).append("=").append(rejections[indexOf(names[i])].sum()).append((i == names.length - 1) ? "" : ", ");
+        result.append("]");
+
+        return result.toString();
+    }
+
+    /**
+     * Checks if a file extension is allowed.
+     *
+     * @param extension the file extension
+     * @return true if the extension is allowed, false otherwise
+     */
+    private boolean isAllowed(String extension) {
+        if (extension == null) return false;
+
+        // The allowed extensions are interned, so literals and interned extensions match by reference
+        for (String allowed : extensions) if (allowed == extension) return true;
+        for (String allowed : extensions) if (allowed.length() == extension.length() && allowed.equals(extension)) return true;
+        return false;
+    }
+
+    /**
+     * Counts a rejection and throws its exception, carrying the name of the rule.
+     *
+     * @param rule the counter index of the rule
+     * @param message the message of the exception
+     * @throws InvalidDocumentException always
+     */
+    private void reject(int rule, String message) throws InvalidDocumentException {
+        rejections[rule].increment();
+        throw new InvalidDocumentException(message, nameOf(rule));
+    }
+
+    /**
+     * Returns the name of a rule.
+     *
+     * @param rule the counter index of the rule
+     * @return the name of the rule
+     */
+    private String nameOf(int rule) {
+        switch (rule) {
+            case FILE_SIZE_RULE: return FILE_SIZE;
+            case FILE_EXTENSION_RULE: return FILE_EXTENSION;
+            case TYPE_RULE: return TYPE;
+            case VERSION_RULE: return VERSION;
+            default: return ruleNames[rule - BUILT_IN_RULES];
+        }
+    }
+
+    /**
+     * Returns the counter index of an active rule.
+     *
+     * @param name the name of the rule
+     * @return the counter index or -1 if this policy has no active rule with this name
+     */
+    private int indexOf(String name) {
+        switch (name) {
+            case FILE_SIZE: return (maxFileSizeMb != Integer.MAX_VALUE) ? FILE_SIZE_RULE : -1;
+            case FILE_EXTENSION: return (extensions != null) ? FILE_EXTENSION_RULE : -1;
+            case TYPE: return (types != null) ? TYPE_RULE : -1;
+            case VERSION: return VERSION_RULE;
+            default:
+                for (int i = 0; i < ruleNames.length; i++) if (ruleNames[i].equals(name)) return BUILT_IN_RULES + i;
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the names of the allowed types.
+     *
+     * @param types whether each type is allowed, indexed by ordinal
+     * @return the names, separated by commas
+     */
+    private static String allowedTypes(boolean[] types) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < types.length; i++) if (types[i]) result.append((result.length() == 0) ? "" : ", ").append(TYPES[i]);
+
+        return result.toString();
+    }
+}
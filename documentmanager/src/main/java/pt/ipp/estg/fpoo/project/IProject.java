@@ -1,5 +1,10 @@
 package pt.ipp.estg.fpoo.project;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import pt.ipp.estg.fpoo.document.DocumentType;
 import pt.ipp.estg.fpoo.document.IDocument;
 
@@ -14,6 +19,8 @@ import pt.ipp.estg.fpoo.document.IDocument;
  *  <li>{@link #get(int)}: Retrieves the latest version of a document with the specified ID</li>
  *  <li>{@link #getDocumentsByType(DocumentType)}: Obtain all documents in this project of a certain type</li>
  *  <li>{@link #toArray()}: Returns an array containing all the documents in this project</li>
+ *  <li>{@link #spliterator()}: Returns a spliterator over the documents in this project</li>
+ *  <li>{@link #stream()}: Returns a sequential stream of the documents in this project</li>
  *  <li>{@link #contains(IDocument)}: Checks if this project contains the specified document</li>
  *  <li>{@link #isEmpty()}: Checks if this project is empty</li>
  *  <li>{@link #size()}: Returns the size of this project</li>
@@ -83,6 +90,28 @@ public interface IProject {
      */
     IDocument[] toArray();
 
+    /**
+     * Returns a spliterator over the documents in this project, in the same order as {@link #toArray()}.
+     * The default implementation copies the documents with {@link #toArray()}, implementations
+     * should traverse their own storage instead.
+     * 
+     * @return a spliterator over the documents in this project
+     */
+    default Spliterator<IDocument> spliterator() {
+        return Spliterators.spliterator(toArray(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a sequential stream of the documents in this project, in the same order as {@link #toArray()}.
+     * The documents are read lazily from {@link #spliterator()}, so a short-circuiting pipeline such as
+     * {@code stream().filter(...).findFirst()} stops at the first match.
+     * 
+     * @return a stream of the documents in this project
+     */
+    default Stream<IDocument> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
     /**
      * Checks if this project contains the specified document.
      *
@@ -0,0 +1,218 @@
+package dev.joseafmoreira.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.joseafmoreira.document.Document;
+import dev.joseafmoreira.exceptions.InvalidProjectFileException;
+import dev.joseafmoreira.project.Project;
+import dev.joseafmoreira.validation.AdmissionPolicy;
+import pt.ipp.estg.fpoo.document.DocumentType;
+import pt.ipp.estg.fpoo.document.IDocument;
+
+/**
+ * Tests of the recovery and the checkpoints of {@link DurableProject}.
+ *
+ * <h3>DurableProjectTest</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see DurableProject
+ */
+public class DurableProjectTest {
+    /**
+     * The directory of the projects
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Every mutation is recovered from the log alone.
+     */
+    @Test
+    public void recoversFromLog() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        IDocument[] expected;
+        try (DurableProject project = DurableProject.open(directory)) {
+            project.add(document(1, 1));
+            project.add(document(1, 2));
+            project.add(document(2, 1));
+            project.add(document(3, 1));
+            project.remove(document(3, 1));
+            project.get(2).setTitle("Renamed");
+            project.get(2).setType(DocumentType.INFRASTRUCTURE);
+            expected = project.toArray();
+        }
+
+        try (DurableProject project = DurableProject.open(directory)) {
+            assertArrayEquals(expected, project.toArray());
+            assertEquals("Renamed", project.get(2).getTitle());
+            assertEquals(DocumentType.INFRASTRUCTURE, project.get(2).getType());
+        }
+    }
+
+    /**
+     * The mutations after a checkpoint are replayed on top of its snapshot, and the older snapshot is deleted.
+     */
+    @Test
+    public void recoversFromSnapshotAndLog() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        IDocument[] expected;
+        try (DurableProject project = DurableProject.open(directory)) {
+            project.add(document(1, 1));
+            project.add(document(2, 1));
+            project.checkpoint();
+            project.add(document(2, 2));
+            project.remove(document(1, 1));
+            project.checkpoint();
+            project.add(document(4, 1));
+            project.removeOldVersions();
+            expected = project.toArray();
+        }
+        assertFalse(Files.exists(directory.resolve("project-1.dmp")));
+        assertTrue(Files.exists(directory.resolve("project-2.dmp")));
+
+        try (DurableProject project = DurableProject.open(directory)) {
+            assertArrayEquals(expected, project.toArray());
+        }
+    }
+
+    /**
+     * Checkpoints running alongside the writers neither block them nor lose their documents.
+     */
+    @Test(timeout = 60000)
+    public void checkpointsWhileMutating() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        int threads = 4, documentsPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (DurableProject project = DurableProject.open(directory)) {
+            AtomicBoolean writing = new AtomicBoolean(true);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < documentsPerThread; i++) {
+                        project.add(document(thread * documentsPerThread + i, 1));
+                        if (i % 10 == 0) project.remove(document(thread * documentsPerThread + i, 1));
+                    }
+                    return null;
+                }));
+            }
+            Future<?> checkpoints = Executors.newSingleThreadExecutor().submit(() -> {
+                while (writing.get()) project.checkpoint();
+                return null;
+            });
+            for (Future<?> writer : writers) writer.get(30, TimeUnit.SECONDS);
+            writing.set(false);
+            checkpoints.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        try (DurableProject project = DurableProject.open(directory)) {
+            assertEquals(threads * (documentsPerThread - documentsPerThread / 10), project.size());
+            for (int id = 0; id < threads * documentsPerThread; id++)
+                assertEquals(id % documentsPerThread % 10 != 0, project.contains(document(id, 1)));
+        }
+    }
+
+    /**
+     * Once the log failed, the mutations are rejected before changing the project.
+     */
+    @Test
+    public void rejectsMutationsAfterLogFailure() throws IOException {
+        DurableProject project = DurableProject.open(folder.getRoot().toPath());
+        project.add(document(1, 1));
+        project.close();
+        try {
+            project.add(document(2, 1));
+            fail("The write to a closed log succeeded");
+        } catch (UncheckedIOException e) {
+            // Expected, the document is in memory but isn't durable
+        }
+
+        try {
+            project.add(document(3, 1));
+            fail("A mutation was accepted after the log failed");
+        } catch (UncheckedIOException e) {
+            assertFalse(project.contains(document(3, 1)));
+        }
+        try {
+            project.clear();
+            fail("A mutation was accepted after the log failed");
+        } catch (UncheckedIOException e) {
+            assertEquals(2, project.size());
+        }
+    }
+
+    /**
+     * A log that doesn't apply to its snapshot is rejected instead of being partially replayed.
+     */
+    @Test(expected = InvalidProjectFileException.class)
+    public void rejectsLogNotMatchingSnapshot() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (DurableProject project = DurableProject.open(directory)) {
+            project.add(document(1, 1));
+            project.checkpoint();
+            project.remove(document(1, 1));
+        }
+        ProjectFile.write(new Project(), directory.resolve("project-1.dmp"));
+
+        DurableProject.open(directory).close();
+    }
+
+    /**
+     * The snapshot and the log are loaded with the policy the project is opened with, not the standard one.
+     */
+    @Test
+    public void opensWithAdmissionPolicy() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        IDocument spreadsheet = new Document(1, "Spreadsheet", 1, "spreadsheet", DocumentType.MACHINE, 1, "xlsx");
+        IDocument archive = new Document(2, "Archive", 1, "archive", DocumentType.MACHINE, 1 << 30, "zip");
+        try (DurableProject project = DurableProject.open(directory, AdmissionPolicy.unrestricted())) {
+            project.add(spreadsheet);
+            project.checkpoint();
+            project.add(archive);
+        }
+
+        try (DurableProject project = DurableProject.open(directory, AdmissionPolicy.unrestricted())) {
+            assertArrayEquals(new IDocument[] { spreadsheet, archive }, project.toArray());
+        }
+        try {
+            DurableProject.open(directory).close();
+            fail("A snapshot breaking the standard policy was accepted");
+        } catch (InvalidProjectFileException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Returns a valid document.
+     *
+     * @param id the id of the document
+     * @param version the version of the document
+     * @return the document
+     */
+    private static IDocument document(int id, int version) {
+        return new Document(id, "Document " + id, version, "document" + id, DocumentType.MACHINE, 1, "pdf");
+    }
+}
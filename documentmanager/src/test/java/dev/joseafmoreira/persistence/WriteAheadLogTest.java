@@ -0,0 +1,221 @@
+package dev.joseafmoreira.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the framing, the recovery and the group commit of {@link WriteAheadLog}.
+ *
+ * <h3>WriteAheadLogTest</h3>
+ * @since 1.0
+ * @version 1.0
+ * @author joseafmoreira
+ * @see WriteAheadLog
+ */
+public class WriteAheadLogTest {
+    /**
+     * The directory of the log files
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The synced records are replayed in order, with their payloads intact.
+     */
+    @Test
+    public void replaysSyncedRecordsInOrder() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, 7)) {
+            log.append(bytes("first"));
+            log.append(new byte[0]);
+            log.sync(log.append(bytes("third")));
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<byte[]> records = replay(log);
+            assertEquals(7, log.getEpoch());
+            assertEquals(3, records.size());
+            assertArrayEquals(bytes("first"), records.get(0));
+            assertArrayEquals(new byte[0], records.get(1));
+            assertArrayEquals(bytes("third"), records.get(2));
+        }
+    }
+
+    /**
+     * A record cut short by a crash is discarded, and the next records are appended in its place.
+     */
+    @Test
+    public void discardsTornTail() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            log.append(bytes("kept"));
+            log.sync(log.append(bytes("torn record")));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            assertEquals(1, replay(log).size());
+            log.sync(log.append(bytes("appended")));
+        }
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<byte[]> records = replay(log);
+            assertEquals(2, records.size());
+            assertArrayEquals(bytes("kept"), records.get(0));
+            assertArrayEquals(bytes("appended"), records.get(1));
+        }
+    }
+
+    /**
+     * A record whose payload doesn't match its CRC32C is discarded with every record after it.
+     */
+    @Test
+    public void rejectsCorruptedRecord() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        long corruptedPosition;
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            corruptedPosition = log.append(bytes("kept"));
+            log.append(bytes("corrupted"));
+            log.sync(log.append(bytes("after")));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // The first byte of the payload of the second record, after its length and checksum
+            channel.write(ByteBuffer.wrap(bytes("C")), corruptedPosition + 8);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<byte[]> records = replay(log);
+            assertEquals(1, records.size());
+            assertArrayEquals(bytes("kept"), records.get(0));
+        }
+    }
+
+    /**
+     * The records of concurrent writers are all durable once their syncs return.
+     */
+    @Test
+    public void groupCommitsConcurrentWriters() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        int threads = 8, recordsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < recordsPerThread; i++) log.sync(log.append(bytes(thread + ":" + i)));
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) writer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<byte[]> records = replay(log);
+            assertEquals(threads * recordsPerThread, records.size());
+            int[] next = new int[threads];
+            for (byte[] record : records) {
+                String[] parts = new String(record, StandardCharsets.UTF_8).split(":");
+                int thread = Integer.parseInt(parts[0]);
+                assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+            }
+        }
+    }
+
+    /**
+     * A reset discards the records and starts a new epoch, while the positions keep growing.
+     */
+    @Test
+    public void resetKeepsPositionsGrowing() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            long before = log.append(bytes("discarded"));
+            log.reset(1);
+            // The record was written before the reset, so its sync returns right away
+            log.sync(before);
+            long after = log.append(bytes("kept"));
+            assertTrue(after > before);
+            log.sync(after);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(path, 0)) {
+            List<byte[]> records = replay(log);
+            assertEquals(1, log.getEpoch());
+            assertEquals(1, records.size());
+            assertArrayEquals(bytes("kept"), records.get(0));
+        }
+    }
+
+    /**
+     * After a failed write, the failure is rethrown by every sync and by {@link WriteAheadLog#checkFailure()}.
+     */
+    @Test
+    public void rethrowsFailedWrite() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("test.wal");
+        WriteAheadLog log = new WriteAheadLog(path, 0);
+        log.close();
+        long position = log.append(bytes("lost"));
+        try {
+            log.sync(position);
+            fail("The write to a closed log succeeded");
+        } catch (IOException e) {
+            // Expected
+        }
+        try {
+            log.checkFailure();
+            fail("The failure wasn't kept");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Returns the UTF-8 bytes of a string.
+     *
+     * @param string the string
+     * @return the bytes
+     */
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replays a log and returns the payloads of its records.
+     *
+     * @param log the log
+     * @return the payloads, in order
+     * @throws IOException if an I/O error occurs
+     */
+    private static List<byte[]> replay(WriteAheadLog log) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        log.replay(record -> {
+            byte[] payload = new byte[record.remaining()];
+            record.get(payload);
+            records.add(payload);
+        });
+
+        return records;
+    }
+}